@@ -2,103 +2,144 @@ package tradeOptimizer;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.util.Collections;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Player;
 import tradeOptimizer.league.Team;
+import tradeOptimizer.trades.AsyncTradeSink;
 import tradeOptimizer.trades.Trade;
 
-public class ExcelFileGenerator {
+/*
+ * Writes each Team's trades to a sheet of an Excel file. Rows are streamed with SXSSF, only the last ROW_WINDOW rows of a sheet
+ * are kept in memory and earlier rows are flushed to a temporary file, so memory use doesn't grow with the number of trades.
+ * writeFile() writes the trades kept by every Team in their ranked order, when used as a TradeSink trades are written in the
+ * order they're found and the file is written when the sink is closed.
+ */
+public class ExcelFileGenerator extends AsyncTradeSink {
+
+	private static final int ROW_WINDOW = 100;
+
 	List<Team> teams;
-	
+	private final File file;
+	private final SXSSFWorkbook workbook;
+	private final Map<Team, Sheet> sheetForTeam;
+
 	public ExcelFileGenerator(List<Team> teamsList) {
+		this(teamsList, new File(FantasyLeague.getLeagueName() + "_fantasy_trades.xlsx"));
+	}
+
+	public ExcelFileGenerator(List<Team> teamsList, File file) {
+		super("ExcelFileGenerator " + file.getName());
 		teams = teamsList;
+		this.file = file;
+		workbook = new SXSSFWorkbook(ROW_WINDOW);
+		workbook.setCompressTempFiles(true);
+		sheetForTeam = new HashMap<Team, Sheet>();
+		for (Team team : teams) {
+			Sheet sheet = workbook.createSheet(team.getTeamName());
+			writeHeader(sheet, team);
+			sheetForTeam.put(team, sheet);
+		}
 	}
-	
-	public void writeFile() {
-    XSSFWorkbook workbook = new XSSFWorkbook();
-	
-	for (Team team : teams) {
 
-        XSSFSheet sheet = workbook.createSheet(team.getTeamName());
+	/*
+	 * Writes the trades kept by every Team, best first, and closes the file
+	 */
+	public void writeFile() {
+		for (Team team : teams) {
+			for (Trade trade : team.getTrades()) {
+				accept(team, trade);
+			}
+		}
+		close();
+	}
 
-		int rowNum = 0;
+	private void writeHeader(Sheet sheet, Team team) {
+		Row row = sheet.createRow(0);
 		int cellNum = 0;
-		int largestTeamTrade = team.largestTrade;
-		Row row = sheet.createRow(rowNum++);
-		Cell cell = row.createCell(cellNum++);
-		cell.setCellValue("Other Team");
-		cell = row.createCell(cellNum++);
-		cell.setCellValue("Your Proj Point Increase");
-		for (int i = 0; i < largestTeamTrade; i++) {
-		cell = row.createCell(cellNum++);
-		cell.setCellValue("Player to Get");
+		row.createCell(cellNum++).setCellValue("Other Team");
+		row.createCell(cellNum++).setCellValue("Your Proj Point Increase");
+		for (int i = 0; i < team.largestTrade; i++) {
+			row.createCell(cellNum++).setCellValue("Player to Get");
 		}
-		cell = row.createCell(cellNum++);
-		cell.setCellValue("Player to Send");
-		cell = row.createCell(cellNum++);
-		cell.setCellValue("Player To Send");
-		cell = row.createCell(cellNum++);
-		cell.setCellValue("Other Team Proj Point Increase");
-		List<Trade> teamTrades = team.getTrades();
-    	Collections.sort(teamTrades);
-        for (Trade trade : teamTrades) {
-        	try {
-		    cellNum = 0;
-		    row = sheet.createRow(rowNum++);
-			cell = row.createCell(cellNum++);
-			cell.setCellValue(trade.getOtherTeamName());
-			cell = row.createCell(cellNum++);
-			cell.setCellValue(trade.getThisTeamPointIncrease());
-			List<Integer> tradePlayers = trade.getOtherTeamPlayers();
-			for (int i = 0; i < largestTeamTrade; i++) {
-			    cell = row.createCell(cellNum++);
-			if (i < tradePlayers.size()) {
-			    cell.setCellValue(FantasyLeague.getPlayerById(tradePlayers.get(i)).getName());
-			} else {
-				cell.setCellType(Cell.CELL_TYPE_BLANK);
-			}
+		for (int i = 0; i < team.getMaxPackageSize(); i++) {
+			row.createCell(cellNum++).setCellValue("Player to Send");
+		}
+		row.createCell(cellNum++).setCellValue("Other Team Proj Point Increase");
+	}
+
+	@Override
+	protected void writeTrade(Team team, Trade trade) {
+		Sheet sheet = sheetForTeam.get(team);
+		String[] playersToGet = getPlayerNames(trade.getOtherTeamPlayers());
+		String[] playersToSend = getPlayerNames(trade.getThisTeamPlayers());
+		//don't print trade if player Id isn't found in league map
+		if (sheet == null || playersToGet == null || playersToSend == null) {
+			return;
+		}
+		int cellNum = 0;
+		Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+		row.createCell(cellNum++).setCellValue(trade.getOtherTeamName());
+		row.createCell(cellNum++).setCellValue(trade.getThisTeamPointIncrease());
+		for (int i = 0; i < team.largestTrade; i++) {
+			if (i < playersToGet.length) {
+				row.createCell(cellNum).setCellValue(playersToGet[i]);
 			}
-			cell = row.createCell(cellNum++);
-			tradePlayers = trade.getThisTeamPlayers();
-			cell.setCellValue(FantasyLeague.getPlayerById(tradePlayers.get(0)).getName());
-			cell = row.createCell(cellNum++);
-			if (tradePlayers.size() > 1) {
-				String playerName = FantasyLeague.getPlayerById(tradePlayers.get(1)).getName();
-				if (!playerName.substring(0,4).equals("Add:")) {
-					cell.setCellValue(playerName);
-				} else {
-					cell.setCellType(Cell.CELL_TYPE_BLANK);
-				}
-			} else {
-				cell.setCellType(Cell.CELL_TYPE_BLANK);
+			cellNum++;
+		}
+		for (int i = 0; i < team.getMaxPackageSize(); i++) {
+			//waiver players added to fill a roster aren't shown as players to send
+			if (i < playersToSend.length && (i == 0 || !playersToSend[i].startsWith("Add:"))) {
+				row.createCell(cellNum).setCellValue(playersToSend[i]);
 			}
-			cell = row.createCell(cellNum++);
-			cell.setCellValue(trade.getOtherTeamPointIncrease());
-        } catch (Exception ex) {
-        	//don't print trade if player Id isn't found in league map
-		}	
+			cellNum++;
+		}
+		row.createCell(cellNum++).setCellValue(trade.getOtherTeamPointIncrease());
 	}
-	
-    try
-    {
-        //Write the workbook in file system
-        FileOutputStream out = new FileOutputStream(new File(FantasyLeague.getLeagueName() + "_fantasy_trades.xlsx"));
-        workbook.write(out);
-        out.close();
-        workbook.close();
-        
-    } 
-    catch (Exception e) 
-    {
-        e.printStackTrace();
-    }
+
+	@Override
+	protected void flush() {
+		//rows beyond the window are already flushed by SXSSF, the file is only written once every trade is added
 	}
+
+	@Override
+	protected void finish() {
+		try {
+			//Write the workbook in file system
+			OutputStream out = new FileOutputStream(file);
+			try {
+				workbook.write(out);
+			} finally {
+				out.close();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			//delete the temporary files holding flushed rows
+			workbook.dispose();
+		}
+	}
+
+	/*
+	 * Returns the names of the players in playerIds, or null if any of them isn't in the league
+	 */
+	private static String[] getPlayerNames(List<Integer> playerIds) {
+		String[] names = new String[playerIds.size()];
+		for (int i = 0; i < names.length; i++) {
+			Player player = FantasyLeague.getPlayerById(playerIds.get(i));
+			if (player == null || player.getName() == null) {
+				return null;
+			}
+			names[i] = player.getName();
+		}
+		return names;
 	}
 }
@@ -0,0 +1,146 @@
+package tradeOptimizer.calc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.projections.ProjectionChange;
+
+/*
+ * Thread safe cache of optimal lineups, keyed by the week number and the player indexes of a roster. The projections
+ * of a week are the same for every roster so the indexes determine the lineup problem, rosters are sorted by projection
+ * with ties broken by player index (the same order as Player Id) so the same set of players always gives the same lineup.
+ * Waiver players added for unfilled positions only depend on the roster, so they are part of the cached result rather
+ * than the key. The least recently used lineups are evicted once maximumSize is reached. FantasyLeague clears the cache
+ * when a new league is set up, as lineups of the previous league could have the same keys. When a week's projections are
+ * refreshed only the lineups of rosters affected by the change are invalidated, the rest are still valid.
+ */
+public class LineupCache {
+
+	public static final long DEFAULT_MAXIMUM_SIZE = 50000;
+
+	private final Cache<RosterSignature, LineupResult> lineups;
+
+	public LineupCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	public LineupCache(long maximumSize) {
+		lineups = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	/*
+	 * Returns the cached lineup for the roster in the first numPlayers player indexes, or null if it hasn't been calculated
+	 */
+	public LineupResult get(int weekNum, int[] playerIndexes, int numPlayers) {
+		return lineups.getIfPresent(new RosterSignature(weekNum, playerIndexes, numPlayers));
+	}
+
+	/*
+	 * Stores the lineup for the roster in the first numPlayers player indexes, which must not include waiver players added to the roster
+	 */
+	public void put(int weekNum, int[] playerIndexes, int numPlayers, double projPoints, int[] playersUsed) {
+		lineups.put(new RosterSignature(weekNum, playerIndexes, numPlayers), new LineupResult(projPoints, playersUsed));
+	}
+
+	/*
+	 * Removes the lineups of change's week whose rosters are affected by the change
+	 */
+	public void invalidate(ProjectionChange change) {
+		Iterator<RosterSignature> rosters = lineups.asMap().keySet().iterator();
+		while (rosters.hasNext()) {
+			RosterSignature roster = rosters.next();
+			if (roster.weekNum == change.getWeekNum() && change.affectsRoster(roster.getPlayerIds())) {
+				rosters.remove();
+			}
+		}
+	}
+
+	public void clear() {
+		lineups.invalidateAll();
+	}
+
+	public long size() {
+		return lineups.size();
+	}
+
+	/*
+	 * Returns hit and miss counts for every lookup since the cache was created
+	 */
+	public CacheStats getStats() {
+		return lineups.stats();
+	}
+
+	/*
+	 * Optimal projected points and Player Ids of the players in the lineup (including waiver players) for a roster
+	 */
+	public static class LineupResult {
+		private final double projPoints;
+		private final int[] playersUsed;
+
+		LineupResult(double projPoints, int[] playersUsed) {
+			this.projPoints = projPoints;
+			this.playersUsed = playersUsed;
+		}
+
+		public double getOptimalProjPoints() {
+			return projPoints;
+		}
+
+		public int getNumPlayersUsed() {
+			return playersUsed.length;
+		}
+
+		public int getPlayerUsed(int index) {
+			return playersUsed[index];
+		}
+	}
+
+	/*
+	 * Week number and sorted player indexes of a roster, the hash is calculated once as every lookup needs it
+	 */
+	private static final class RosterSignature {
+		private final int weekNum;
+		private final int[] playerIndexes;
+		private final int hash;
+
+		RosterSignature(int weekNum, int[] rosterIndexes, int numPlayers) {
+			this.weekNum = weekNum;
+			playerIndexes = Arrays.copyOf(rosterIndexes, numPlayers);
+			Arrays.sort(playerIndexes);
+			hash = 31 * weekNum + Arrays.hashCode(playerIndexes);
+		}
+
+		/*
+		 * Returns the sorted Player Ids of the roster, indexes are assigned in Player Id order
+		 */
+		int[] getPlayerIds() {
+			int[] playerIds = new int[playerIndexes.length];
+			for (int i = 0; i < playerIndexes.length; i++) {
+				playerIds[i] = FantasyLeague.getPlayerIdForIndex(playerIndexes[i]);
+			}
+			return playerIds;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof RosterSignature)) {
+				return false;
+			}
+			RosterSignature other = (RosterSignature) obj;
+			return weekNum == other.weekNum && hash == other.hash && Arrays.equals(playerIndexes, other.playerIndexes);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package tradeOptimizer.calc;
+
+import tradeOptimizer.league.LeagueRules;
+
+/*
+ * Dual certificate of a lineup calculated by OptimalLineupCalculator, made from the labels of the Hungarian algorithm. Every
+ * position label plus the label of a player it can hold is at least the player's projection, so by LP duality the sum of the
+ * labels is at least the optimal points of the roster, and labels bound how much the optimal points can change when players
+ * are removed or added without calculating another lineup:
+ *  - a roster without some of the players has at most getLabelTotal() minus their labels
+ *  - adding a player raises that by at most getAdditionBound(), the smallest label that keeps the player's edges covered
+ *
+ * Labels are shifted by the label of the dummy positions and clamped at 0 so none are negative, which keeps them valid for
+ * lineups that don't fill every position. Raising a label never makes the bound invalid, only looser.
+ */
+public class LineupCertificate {
+
+	private final double[] positionLabels;
+	private final double[] playerLabels; //label of each player, in the order of the projections passed to the calculator
+	private final double labelTotal;
+	private final LeagueRules rules;
+
+	LineupCertificate(double[] positionLabels, double[] playerLabels, LeagueRules rules) {
+		this.positionLabels = positionLabels;
+		this.playerLabels = playerLabels;
+		this.rules = rules;
+		double total = 0.0;
+		for (double label : positionLabels) {
+			total += label;
+		}
+		for (double label : playerLabels) {
+			total += label;
+		}
+		this.labelTotal = total;
+	}
+
+	/*
+	 * Returns the sum of every label, an upper bound on the optimal points that equals them when the labels are optimal
+	 */
+	public double getLabelTotal() {
+		return labelTotal;
+	}
+
+	public double getPlayerLabel(int playerNum) {
+		return playerLabels[playerNum];
+	}
+
+	/*
+	 * Returns the most a player with the given projection and position mask can add to getLabelTotal() if added to the roster
+	 */
+	public double getAdditionBound(double projection, int positionMask) {
+		double bound = 0.0;
+		for (int x = 0; x < positionLabels.length; x++) {
+			if (rules.canBeUsedInPosition(positionMask, x)) {
+				bound = Math.max(bound, projection - positionLabels[x]);
+			}
+		}
+		return bound;
+	}
+}
@@ -1,308 +1,411 @@
-package tradeOptimizer.calc;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
-import tradeOptimizer.league.LeaguePosition;
-import tradeOptimizer.projections.PlayerProjection;
-
-/* Class for calculating the optimal projected points for a given list of player projections and positions to be filled,
- * generally performed on projections for a single week. Uses Kuhn Munkres algorithm (aka Hungarian algorithm) to determine
- * maximum matching in bipartite graph that is built with a set of vertices representing positions and the other set representing
- * player projections. Algorithm complexity is N^3 where N is the maximum between the number of players and positions.
- */
-public class OptimalLineupCalculator {
-
-	private double[][] projCostMatrix; //matrix holding weights of bipartite graph edges, rows are positions and columns are player projections
-	private double[] labelForPosition; //label values for position vertices
-	private double[] labelForPlayer; //label values for player vertices
-	private int[] positionForPlayer; //contains position # matched with a player #
-	private int[] playerForPosition; //contains player # matched with a position #
-    private boolean[] playerInTree; //indicates whether a player has been added to the alternating tree for the current phase of algorithm
-    private boolean[] positionInTree; //indicates whether a position has been added to the alternating tree for the current phase
-	private double[] slack;  //holds slack values for edges by player # (eg. slack[i] represents the slack for edge between player i and slackPosition[i])
-	private int[] slackPosition;  //holds position vertex that is other end of edge represented in slack[] 
-	private int[] prevPositionInTree; //holds most recent position added to alternating tree, used to update matchings when alternating path is found
-	
-	private int matrixDimension; //dimension of square matrix, represents maximum of player projections size and positions size
-	private int numPositions;
-	private int[] playerIds; //maps player id to projections added to cost matrix for determining which players were used
-	
-	private final double INF = Double.MAX_VALUE;
-	
-	public OptimalLineupCalculator(List<PlayerProjection> players, List<LeaguePosition> positions) {
-		playerIds = new int[players.size()];
-		for (int i = 0; i < players.size(); i++) {
-			playerIds[i] = players.get(i).getPlayerId();
-		}
-		buildCostMatrix(players,positions);
-	}
-	
-	//returns set containing Player Ids of all players that were matched with a position in the
-	//optimal week calculation which indicates the player contributed to the projected total
-	public Set<Integer> getPlayersUsed() {
-		Set<Integer> playersUsed = new HashSet<Integer>();
-		//if number of players > number of positions then unused players
-		//will be matched with "dummy" positions created ( numPositions <= dummy < matrixDimension )
-		for (int i = 0; i < playerIds.length; i++) {
-			if (positionForPlayer[i] < numPositions) {
-				playersUsed.add(playerIds[i]);
-			}
-		}
-		return playersUsed;
-	}
-	
-	/*
-	 * Populates cost matrix for player projections and positions, if a player can be used in a 
-	 * position then weight of matrix[position][player] is that player's projected points value,
-	 * otherwise weight is set to 0. If number of players and positions isn't equal (this will
-	 * generally be the case as typically number of players will be more than number of positions)
-	 * then extra "dummy" players or positions are created in order to create a square matrix. These
-	 * dummy rows or columns are populated with 0.0 weights, these will still be matched but any player 
-	 * or position matched with a dummy player or position isn't being used in the optimal projection.
-	 */
-	private void buildCostMatrix(List<PlayerProjection> players, List<LeaguePosition> positions) {
-		numPositions = positions.size();
-		matrixDimension = Math.max(players.size(), numPositions);
-		projCostMatrix = new double[matrixDimension][matrixDimension];
-		for (int x = 0; x < matrixDimension; x++) {
-			for (int y = 0; y < matrixDimension; y++) {
-				projCostMatrix[x][y] = getPlayerPositionCost(players,positions,x,y);
-			}
-		}
-	}
-	
-	/*
-	 * Helper method that returns the weight to use in cost matrix for a given (position,player) edge
-	 */
-	private Double getPlayerPositionCost(List<PlayerProjection> players, List<LeaguePosition> positions, int positionNum, int playerNum) {
-		//since there will likely be more players than positions the number of rows and columns won't be equal
-		//we add empty "dummy" rows (or columns if necessary) so the matrix will be balanced
-		if (positionNum >= positions.size() || playerNum >= players.size()) {
-			return 0.0;
-		}
-		if (players.get(playerNum).getPlayer().canBeUsedInPosition(positions.get(positionNum))) {
-			return players.get(playerNum).getProjection();
-		} else {
-			return 0.0;
-		}
-	}
-	/*
-	 * Initialize fields, setup labels, then run algorithm until maximum matching is calculated.
-	 * When maximum matching is found, add up projected point values for all filled positions and
-	 * return this value.
-	 */
-	public Double getOptimalProjPoints() {
-		positionForPlayer = new int[matrixDimension];
-		playerForPosition = new int[matrixDimension];
-		Arrays.fill(positionForPlayer, -1);
-		Arrays.fill(playerForPosition, -1);
-		slack = new double[matrixDimension];
-		slackPosition = new int[matrixDimension];
-		playerInTree = new boolean[matrixDimension];
-		positionInTree = new boolean[matrixDimension];
-		prevPositionInTree = new int[matrixDimension];
-		
-		setupLabels();
-
-		getInitialMatching();
-
-		runHungarian();
-		
-		Double projPoints = 0.0;
-		for (int x = 0; x < numPositions; x++) {
-			projPoints += projCostMatrix[x][playerForPosition[x]];
-		}
-		return projPoints;
-	}
-	
-	/*
-	 * Calculate initial feasible labeling, player labels set to 0.0 and position
-	 * labels are set to the value of the maximum edge connected to the position.
-	 */
-	private void setupLabels() {
-		labelForPosition = new double[matrixDimension];
-		labelForPlayer = new double[matrixDimension];
-		Arrays.fill(labelForPlayer, 0.0);
-		for (int x = 0; x < matrixDimension; x++) {
-			for (int y = 0; y < matrixDimension; y++) {
-				labelForPosition[x] = Math.max(labelForPosition[x], projCostMatrix[x][y]);
-			}
-		}
-	}
-	
-	/*
-	 * Initialize a new phase in the algorithm for the unmatched position pos, which
-	 * is also the root vertex of the alternating tree that will be built. 
-	 */
-	private void setupPhase(int pos) {
-		Arrays.fill(positionInTree, false);
-		Arrays.fill(playerInTree, false);
-		Arrays.fill(prevPositionInTree, -1);
-		positionInTree[pos] = true;
-		prevPositionInTree[pos] = -2;
-		for (int y = 0; y < matrixDimension; y++) {
-			slack[y] = edgeSlack(pos,y);
-			slackPosition[y] = pos;
-		}
-	}
-	
-	/*
-	 * Generates initial matching by greedily matching positions with the maximum weighted player for the position
-	 * if the player hasn't already been matched to another position. Improves performance by reducing the number
-	 * of positions that need to be matched by finding augmenting paths in the algorithm.
-	 */
-	private void getInitialMatching() {
-		for (int x = 0; x < matrixDimension; x++) {
-			for (int y = 0; y < matrixDimension; y++) {
-				if (playerForPosition[x] == -1 && positionForPlayer[y] == -1 &&
-						edgeSlack(x,y) == 0) {
-					playerForPosition[x] = y;
-					positionForPlayer[y] = x;
-				}
-			}
-		}
-	}
-	
-	/*
-	 * Update labels with alpha, which is equal to the minimum edge slack for edges where
-	 * the player vertex is not currently in the alternating tree.
-	 */
-	private void updateLabels() {
-		int x;
-		double alpha = INF;
-		for (x = 0; x < matrixDimension; x++) {
-			if (!playerInTree[x]) {
-				alpha = Math.min(alpha, slack[x]);
-			}
-		}
-		for (x = 0; x < matrixDimension; x++) {
-			if (positionInTree[x]) {
-				labelForPosition[x] -= alpha;
-			}
-			if (playerInTree[x]) {
-				//player is vertex in T so update label
-				labelForPlayer[x] += alpha;
-			} else {
-				slack[x] -= alpha;
-			}
-		}
-	}
-	
-	/*
-	 * Helper method to return slack value for a (position,player) edge.
-	 */
-	private double edgeSlack(int position, int player) {
-		return labelForPosition[position] + labelForPlayer[player] - projCostMatrix[position][player];
-	}
-	
-	/*
-	 * Run a single phase of the algorithm. If all positions are matched then we have a maximum matching so return, else
-	 * find an unmatched position and setup the phase with this position as the root vertex of the alternating tree. Each phase
-	 * will add edges to alternating tree until an augmenting path is found, if none is found after a single iteration over the
-	 * edges in equality subgraph then we update the labels and repeat until alternating path is found.
-	 */
-	private void runHungarian() {
-		int pos = getUnmatchedPosition();
-		if (pos == matrixDimension) {
-			return;
-		}
-		setupPhase(pos);
-		List<Integer> queue = new ArrayList<Integer>();
-		int readPos = 0;
-		queue.add(pos);
-		int x = 0;
-		int y = 0;
-		while (true) {
-			while (readPos < queue.size()) {
-			    x = queue.get(readPos++);
-			    for (y = 0; y < matrixDimension; y++) {
-			    	if (!playerInTree[y] && edgeSlack(x,y) == 0) {
-			    		int position = positionForPlayer[y];
-			    		if ( position == -1) {
-			    			break;
-			    		} else {
-			    		    playerInTree[y] = true;
-			    		    queue.add(position);
-			    		    positionInTree[position] = true;
-			    		    prevPositionInTree[position] = x;
-			    		    for (int p = 0; p < matrixDimension; p++) {
-			    		    	if (edgeSlack(position,p) < slack[p]) {
-			    		    		slack[p] = edgeSlack(position,p);
-			    		    		slackPosition[p] = position;
-			    		    	}
-			    		    }
-			    		}
-			    	}
-			    }
-			    if (y < matrixDimension) {
-			    	break;
-			    }
-			}
-			if (y < matrixDimension) {
-				break;
-			}
-			//no augmenting path found, update labels and check slack for edges again
-			updateLabels();
-			
-			readPos = 0;
-			queue = new ArrayList<Integer>();
-			
-			for (y = 0; y < matrixDimension; y++) {
-				if (!playerInTree[y] && slack[y] == 0) {
-					int position = positionForPlayer[y];
-					if ( position == -1) {
-						x = slackPosition[y];
-						break;
-					} else {
-						playerInTree[y] = true;
-						if (!positionInTree[position]) {
-							queue.add(position);
-							readPos++;
-							positionInTree[position] = true;
-							prevPositionInTree[position] = slackPosition[y];
-							for (int p = 0; p < matrixDimension; p++) {
-								if (edgeSlack(position,p) < slack[p]) {
-									slack[p] = edgeSlack(position,p);
-									slackPosition[p] = position;
-								}
-							}
-						}
-					}
-				}
-			}
-			if ( y < matrixDimension) {
-				break;
-			}
-		}
-		//augmenting path has been found, now update matchings by reversing the edges in augmenting path
-		if (y < matrixDimension) {
-		    for (int currentPos = x, currentPlayer = y, tempPlayer; currentPos != -2; currentPos = prevPositionInTree[currentPos], currentPlayer = tempPlayer)
-		    {
-		         tempPlayer = playerForPosition[currentPos];
-		         positionForPlayer[currentPlayer] = currentPos;
-		         playerForPosition[currentPos] = currentPlayer;
-		    }
-		    //after matchings updated using augmenting path, run another phase of algorithm
-		    runHungarian();
-		}
-	}
-
-	/*
-	 * Helper method to return next position that isn't currently matched
-	 * with a player.
-	 */
-	private int getUnmatchedPosition() {
-		int x;
-		for (x = 0; x < matrixDimension; x++) {
-			if (playerForPosition[x] == -1) {
-				return x;
-			}
-		}
-		return x;
-	}
-
-}
+package tradeOptimizer.calc;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.LeagueRules;
+import tradeOptimizer.projections.PlayerProjection;
+
+/* Class for calculating the optimal projected points for a given list of player projections and positions to be filled,
+ * generally performed on projections for a single week. Uses Kuhn Munkres algorithm (aka Hungarian algorithm) to determine
+ * maximum matching in bipartite graph that is built with a set of vertices representing positions and the other set representing
+ * player projections. Algorithm complexity is N^3 where N is the maximum between the number of players and positions.
+ *
+ * Instances can be reused for any number of calculations with reset(), all arrays are sized to the capacity given to the
+ * constructor (and only reallocated if a larger roster is passed) so calculations after the first don't allocate any memory.
+ * Instances aren't thread safe, each thread should use its own instance.
+ */
+public class OptimalLineupCalculator {
+
+	private double[] projCostMatrix; //flattened square matrix holding weights of bipartite graph edges, rows are positions and columns are player projections
+	private double[] labelForPosition; //label values for position vertices
+	private double[] labelForPlayer; //label values for player vertices
+	private int[] positionForPlayer; //contains position # matched with a player #
+	private int[] playerForPosition; //contains player # matched with a position #
+    private boolean[] playerInTree; //indicates whether a player has been added to the alternating tree for the current phase of algorithm
+    private boolean[] positionInTree; //indicates whether a position has been added to the alternating tree for the current phase
+	private double[] slack;  //holds slack values for edges by player # (eg. slack[i] represents the slack for edge between player i and slackPosition[i])
+	private int[] slackPosition;  //holds position vertex that is other end of edge represented in slack[]
+	private int[] prevPositionInTree; //holds most recent position added to alternating tree, used to update matchings when alternating path is found
+	private int[] queue; //positions in the alternating tree waiting to be searched for tight edges
+	private double[] positionPoints; //projected points of each filled position, used to sum the total
+
+	private int capacity; //largest matrix dimension the arrays can currently hold
+	private int matrixDimension; //dimension of square matrix, represents maximum of player projections size and positions size
+	private int numPositions;
+	private int numPlayers;
+	private int[] playerIds; //maps player id to projections added to cost matrix for determining which players were used
+	private int[] listIndexes; //player indexes and projections of a list passed to reset(List, List)
+	private double[] listProjections;
+	private LeagueRules rules; //positions each player can be used in for the current calculation
+
+	private final double INF = Double.MAX_VALUE;
+
+	public OptimalLineupCalculator(List<PlayerProjection> players, List<LeaguePosition> positions) {
+		this(Math.max(players.size(), positions.size()));
+		reset(players, positions);
+	}
+
+	/*
+	 * Constructor for a reusable instance, capacity should be the maximum of the largest number of player projections
+	 * and the number of positions that will be calculated
+	 */
+	public OptimalLineupCalculator(int capacity) {
+		allocate(capacity);
+	}
+
+	/*
+	 * Sets the player projections and positions for the next calculation, previous results are discarded
+	 */
+	public void reset(List<PlayerProjection> players, List<LeaguePosition> positions) {
+		if (players.size() > capacity) {
+			allocate(players.size());
+		}
+		for (int i = 0; i < players.size(); i++) {
+			listIndexes[i] = FantasyLeague.getPlayerIndex(players.get(i).getPlayerId());
+			listProjections[i] = players.get(i).getProjection();
+		}
+		reset(listIndexes, listProjections, players.size(), positions);
+	}
+
+	/*
+	 * Alternate version of reset for the first numPlayers entries of arrays of player indexes and their projections
+	 */
+	public void reset(int[] playerIndexes, double[] projections, int numPlayers, List<LeaguePosition> positions) {
+		int dimension = Math.max(numPlayers, positions.size());
+		if (dimension > capacity) {
+			allocate(dimension);
+		}
+		this.numPlayers = numPlayers;
+		for (int i = 0; i < numPlayers; i++) {
+			playerIds[i] = FantasyLeague.getPlayerIdForIndex(playerIndexes[i]);
+		}
+		buildCostMatrix(playerIndexes, projections, positions);
+	}
+
+	//returns set containing Player Ids of all players that were matched with a position in the
+	//optimal week calculation which indicates the player contributed to the projected total
+	public Set<Integer> getPlayersUsed() {
+		Set<Integer> playersUsed = new HashSet<Integer>();
+		for (int i = 0; i < numPlayers; i++) {
+			if (isPlayerUsed(i)) {
+				playersUsed.add(playerIds[i]);
+			}
+		}
+		return playersUsed;
+	}
+
+	/*
+	 * Returns true if the player at index playerNum of the projections passed to reset() was matched with a position,
+	 * allows checking players used without allocating a set
+	 */
+	public boolean isPlayerUsed(int playerNum) {
+		//if number of players > number of positions then unused players
+		//will be matched with "dummy" positions created ( numPositions <= dummy < matrixDimension )
+		return positionForPlayer[playerNum] < numPositions;
+	}
+
+	/*
+	 * Returns true if every position is matched with a player who can be used in it and has a positive projection. Positions
+	 * a player can't be used in have weights of 0 so isPlayerUsed() alone doesn't mean the player fills a position.
+	 */
+	public boolean allPositionsFilled() {
+		for (int x = 0; x < numPositions; x++) {
+			int y = playerForPosition[x];
+			if (y >= numPlayers || projCostMatrix[x * matrixDimension + y] <= 0.0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void allocate(int newCapacity) {
+		//list arrays may be the arrays being passed to reset() so they're kept
+		if (listIndexes == null || listIndexes.length < newCapacity) {
+			listIndexes = new int[newCapacity];
+			listProjections = new double[newCapacity];
+		}
+		capacity = newCapacity;
+		projCostMatrix = new double[capacity * capacity];
+		labelForPosition = new double[capacity];
+		labelForPlayer = new double[capacity];
+		positionForPlayer = new int[capacity];
+		playerForPosition = new int[capacity];
+		playerInTree = new boolean[capacity];
+		positionInTree = new boolean[capacity];
+		slack = new double[capacity];
+		slackPosition = new int[capacity];
+		prevPositionInTree = new int[capacity];
+		queue = new int[capacity];
+		positionPoints = new double[capacity];
+		playerIds = new int[capacity];
+	}
+
+	/*
+	 * Populates cost matrix for player projections and positions, if a player can be used in a
+	 * position then weight of matrix[position][player] is that player's projected points value,
+	 * otherwise weight is set to 0. If number of players and positions isn't equal (this will
+	 * generally be the case as typically number of players will be more than number of positions)
+	 * then extra "dummy" players or positions are created in order to create a square matrix. These
+	 * dummy rows or columns are populated with 0.0 weights, these will still be matched but any player
+	 * or position matched with a dummy player or position isn't being used in the optimal projection.
+	 */
+	private void buildCostMatrix(int[] playerIndexes, double[] projections, List<LeaguePosition> positions) {
+		rules = LeagueRules.forPositions(positions);
+		numPositions = positions.size();
+		matrixDimension = Math.max(numPlayers, numPositions);
+		//since there will likely be more players than positions the number of rows and columns won't be equal
+		//we add empty "dummy" rows (or columns if necessary) with weights of 0 so the matrix will be balanced
+		Arrays.fill(projCostMatrix, 0, matrixDimension * matrixDimension, 0.0);
+		for (int y = 0; y < numPlayers; y++) {
+			int playerMask = FantasyLeague.getPositionMask(playerIndexes[y]);
+			for (int x = 0; x < numPositions; x++) {
+				if (rules.canBeUsedInPosition(playerMask, x)) {
+					projCostMatrix[x * matrixDimension + y] = projections[y];
+				}
+			}
+		}
+	}
+	/*
+	 * Initialize fields, setup labels, then run algorithm until maximum matching is calculated.
+	 * When maximum matching is found, add up projected point values for all filled positions and
+	 * return this value.
+	 */
+	public double getOptimalProjPoints() {
+		Arrays.fill(positionForPlayer, 0, matrixDimension, -1);
+		Arrays.fill(playerForPosition, 0, matrixDimension, -1);
+
+		setupLabels();
+
+		getInitialMatching();
+
+		runHungarian();
+
+		//points are summed from highest to lowest so the total doesn't depend on which position
+		//each player was matched to and is identical to SlotClassLineupCalculator's total
+		for (int x = 0; x < numPositions; x++) {
+			positionPoints[x] = projCostMatrix[x * matrixDimension + playerForPosition[x]];
+		}
+		Arrays.sort(positionPoints, 0, numPositions);
+		double projPoints = 0.0;
+		for (int x = numPositions - 1; x >= 0; x--) {
+			projPoints += positionPoints[x];
+		}
+		return projPoints;
+	}
+
+	/*
+	 * Returns the dual certificate of the last calculation, only valid after getOptimalProjPoints(). Unused players are matched
+	 * with dummy positions whose edges are 0, so each player label is at least minus each dummy position's label. Shifting
+	 * every player label down and every position label up by the largest of those keeps each edge covered and leaves the
+	 * player labels non negative.
+	 */
+	public LineupCertificate getCertificate() {
+		double shift = 0.0;
+		if (numPositions < matrixDimension) {
+			shift = -INF;
+			for (int x = numPositions; x < matrixDimension; x++) {
+				shift = Math.max(shift, -labelForPosition[x]);
+			}
+		}
+		double[] positionLabels = new double[numPositions];
+		for (int x = 0; x < numPositions; x++) {
+			positionLabels[x] = Math.max(0.0, labelForPosition[x] + shift);
+		}
+		double[] playerLabels = new double[numPlayers];
+		for (int y = 0; y < numPlayers; y++) {
+			playerLabels[y] = Math.max(0.0, labelForPlayer[y] - shift);
+		}
+		return new LineupCertificate(positionLabels, playerLabels, rules);
+	}
+
+	/*
+	 * Calculate initial feasible labeling, player labels set to 0.0 and position
+	 * labels are set to the value of the maximum edge connected to the position.
+	 */
+	private void setupLabels() {
+		Arrays.fill(labelForPosition, 0, matrixDimension, 0.0);
+		Arrays.fill(labelForPlayer, 0, matrixDimension, 0.0);
+		for (int x = 0; x < matrixDimension; x++) {
+			for (int y = 0; y < matrixDimension; y++) {
+				labelForPosition[x] = Math.max(labelForPosition[x], projCostMatrix[x * matrixDimension + y]);
+			}
+		}
+	}
+
+	/*
+	 * Initialize a new phase in the algorithm for the unmatched position pos, which
+	 * is also the root vertex of the alternating tree that will be built.
+	 */
+	private void setupPhase(int pos) {
+		Arrays.fill(positionInTree, 0, matrixDimension, false);
+		Arrays.fill(playerInTree, 0, matrixDimension, false);
+		Arrays.fill(prevPositionInTree, 0, matrixDimension, -1);
+		positionInTree[pos] = true;
+		prevPositionInTree[pos] = -2;
+		for (int y = 0; y < matrixDimension; y++) {
+			slack[y] = edgeSlack(pos,y);
+			slackPosition[y] = pos;
+		}
+	}
+
+	/*
+	 * Generates initial matching by greedily matching positions with the maximum weighted player for the position
+	 * if the player hasn't already been matched to another position. Improves performance by reducing the number
+	 * of positions that need to be matched by finding augmenting paths in the algorithm.
+	 */
+	private void getInitialMatching() {
+		for (int x = 0; x < matrixDimension; x++) {
+			for (int y = 0; y < matrixDimension; y++) {
+				if (playerForPosition[x] == -1 && positionForPlayer[y] == -1 &&
+						edgeSlack(x,y) == 0) {
+					playerForPosition[x] = y;
+					positionForPlayer[y] = x;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Update labels with alpha, which is equal to the minimum edge slack for edges where
+	 * the player vertex is not currently in the alternating tree.
+	 */
+	private void updateLabels() {
+		int x;
+		double alpha = INF;
+		for (x = 0; x < matrixDimension; x++) {
+			if (!playerInTree[x]) {
+				alpha = Math.min(alpha, slack[x]);
+			}
+		}
+		for (x = 0; x < matrixDimension; x++) {
+			if (positionInTree[x]) {
+				labelForPosition[x] -= alpha;
+			}
+			if (playerInTree[x]) {
+				//player is vertex in T so update label
+				labelForPlayer[x] += alpha;
+			} else {
+				slack[x] -= alpha;
+			}
+		}
+	}
+
+	/*
+	 * Helper method to return slack value for a (position,player) edge.
+	 */
+	private double edgeSlack(int position, int player) {
+		return labelForPosition[position] + labelForPlayer[player] - projCostMatrix[position * matrixDimension + player];
+	}
+
+	/*
+	 * Helper method to lower the slack of every player not yet reached by the alternating tree
+	 * using the edges of a position that was just added to the tree.
+	 */
+	private void updateSlack(int position) {
+		for (int p = 0; p < matrixDimension; p++) {
+			if (edgeSlack(position,p) < slack[p]) {
+				slack[p] = edgeSlack(position,p);
+				slackPosition[p] = position;
+			}
+		}
+	}
+
+	/*
+	 * Run phases of the algorithm until all positions are matched. Each phase finds an unmatched position and
+	 * sets up the phase with this position as the root vertex of the alternating tree. Each phase will add edges to
+	 * alternating tree until an augmenting path is found, if none is found after a single iteration over the
+	 * edges in equality subgraph then we update the labels and repeat until alternating path is found.
+	 */
+	private void runHungarian() {
+		int pos;
+		while ((pos = getUnmatchedPosition()) < matrixDimension) {
+			setupPhase(pos);
+			int readPos = 0;
+			int writePos = 0;
+			queue[writePos++] = pos;
+			int x = 0;
+			int y = 0;
+			while (true) {
+				while (readPos < writePos) {
+				    x = queue[readPos++];
+				    for (y = 0; y < matrixDimension; y++) {
+				    	if (!playerInTree[y] && edgeSlack(x,y) == 0) {
+				    		int position = positionForPlayer[y];
+				    		if ( position == -1) {
+				    			break;
+				    		} else {
+				    		    playerInTree[y] = true;
+				    		    queue[writePos++] = position;
+				    		    positionInTree[position] = true;
+				    		    prevPositionInTree[position] = x;
+				    		    updateSlack(position);
+				    		}
+				    	}
+				    }
+				    if (y < matrixDimension) {
+				    	break;
+				    }
+				}
+				if (y < matrixDimension) {
+					break;
+				}
+				//no augmenting path found, update labels and check slack for edges again
+				updateLabels();
+
+				//positions reached through the updated labels have their slack updated here
+				//so they are marked as already read
+				readPos = 0;
+				writePos = 0;
+
+				for (y = 0; y < matrixDimension; y++) {
+					if (!playerInTree[y] && slack[y] == 0) {
+						int position = positionForPlayer[y];
+						if ( position == -1) {
+							x = slackPosition[y];
+							break;
+						} else {
+							playerInTree[y] = true;
+							if (!positionInTree[position]) {
+								queue[writePos++] = position;
+								readPos++;
+								positionInTree[position] = true;
+								prevPositionInTree[position] = slackPosition[y];
+								updateSlack(position);
+							}
+						}
+					}
+				}
+				if ( y < matrixDimension) {
+					break;
+				}
+			}
+			//augmenting path has been found, now update matchings by reversing the edges in augmenting path
+		    for (int currentPos = x, currentPlayer = y, tempPlayer; currentPos != -2; currentPos = prevPositionInTree[currentPos], currentPlayer = tempPlayer)
+		    {
+		         tempPlayer = playerForPosition[currentPos];
+		         positionForPlayer[currentPlayer] = currentPos;
+		         playerForPosition[currentPos] = currentPlayer;
+		    }
+		}
+	}
+
+	/*
+	 * Helper method to return next position that isn't currently matched
+	 * with a player.
+	 */
+	private int getUnmatchedPosition() {
+		int x;
+		for (x = 0; x < matrixDimension; x++) {
+			if (playerForPosition[x] == -1) {
+				return x;
+			}
+		}
+		return x;
+	}
+
+}
@@ -2,12 +2,11 @@ package tradeOptimizer.calc;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.LeagueRules;
 import tradeOptimizer.projections.PlayerProjection;
 
 
@@ -17,43 +16,94 @@ import tradeOptimizer.projections.PlayerProjection;
  * if a player is eligible to play a given position the player may not necessarily be able to be used in the position
  * (the projection value for the week could be 0.0 for the player due to being on a bye week or injury etc). Uses
  * Hopcroft-Karp algorithm to find maximum number of positions that can be matched to players.
+ *
+ * Instances can be reused with reset(), arrays are sized to the capacity given to the constructor and only reallocated if a
+ * larger roster is passed. Instances aren't thread safe, each thread should use its own instance.
  */
 public class PositionsFillableChecker {
 
-	private final List<LeaguePosition> positions;
-	private final List<PlayerProjection> players;
-	private final int numPlayers;
-	private final int numPositions;
+	private List<LeaguePosition> positions;
+	private LeagueRules rules;
+	private int numPlayers;
+	private int numPositions;
 	
 	private final int NIL = 0;
 	private final int INF = Integer.MAX_VALUE;
 	int[] playerForPosition;
 	int[] positionForPlayer;
 	int[] dist;
-	List<Integer>[] edges;
+	int[][] edges; //players (numbered from 1) that can fill each position, only the first numEdges[u] entries are used
+	int[] numEdges;
+	int[] queue; //positions waiting to be searched by bfs(), each position is added at most once per search
+	int[] listIndexes; //player indexes and projections of a list passed to reset(List)
+	double[] listProjections;
 	
 	public PositionsFillableChecker(List<PlayerProjection> players) {
-		this.positions = FantasyLeague.getPositions();
-		this.players = players;
-		numPlayers = players.size();
+		this(players.size());
+		reset(players);
+	}
+	
+	/*
+	 * Constructor for a reusable instance, capacity should be the largest number of player projections that will be checked
+	 */
+	public PositionsFillableChecker(int capacity) {
+		positions = FantasyLeague.getPositions();
+		rules = FantasyLeague.getLeagueRules();
 		numPositions = positions.size();
-		playerForPosition = new int[numPositions + 1];
-		positionForPlayer = new int[numPlayers + 1];
-		dist = new int[numPositions + 1];
+		allocate(capacity);
+	}
+	
+	/*
+	 * Sets the player projections for the next check, previous results are discarded
+	 */
+	public void reset(List<PlayerProjection> players) {
+		if (players.size() > listIndexes.length) {
+			allocate(players.size());
+		}
+		for (int i = 0; i < players.size(); i++) {
+			listIndexes[i] = FantasyLeague.getPlayerIndex(players.get(i).getPlayerId());
+			listProjections[i] = players.get(i).getProjection();
+		}
+		reset(listIndexes, listProjections, players.size());
+	}
+	
+	/*
+	 * Alternate version of reset for the first numPlayers entries of arrays of player indexes and their projections
+	 */
+	public void reset(int[] playerIndexes, double[] projections, int numPlayers) {
+		if (positions != FantasyLeague.getPositions() || numPlayers > positionForPlayer.length - 1) {
+			positions = FantasyLeague.getPositions();
+			rules = FantasyLeague.getLeagueRules();
+			numPositions = positions.size();
+			allocate(Math.max(numPlayers, positionForPlayer.length - 1));
+		}
+		this.numPlayers = numPlayers;
 		Arrays.fill(playerForPosition, NIL);
-		Arrays.fill(positionForPlayer, NIL);
-		edges = new List[numPositions + 1];
+		Arrays.fill(positionForPlayer, 0, numPlayers + 1, NIL);
 		for (int u = 1; u <= numPositions; u++) {
-			edges[u] = new ArrayList<Integer>();
+			numEdges[u] = 0;
 			for (int v = 0; v < numPlayers; v++) {
-				if ( players.get(v).getProjection() > 0.0 &&
-					players.get(v).getPlayer().canBeUsedInPosition(positions.get(u - 1))) {
-					edges[u].add(v + 1);
+				if ( projections[v] > 0.0 &&
+					rules.canBeUsedInPosition(FantasyLeague.getPositionMask(playerIndexes[v]), u - 1)) {
+					edges[u][numEdges[u]++] = v + 1;
 				}
 			}
 		}
 	}
 	
+	private void allocate(int capacity) {
+		playerForPosition = new int[numPositions + 1];
+		positionForPlayer = new int[capacity + 1];
+		dist = new int[numPositions + 1];
+		edges = new int[numPositions + 1][capacity];
+		numEdges = new int[numPositions + 1];
+		queue = new int[numPositions + 1];
+		if (listIndexes == null || listIndexes.length < capacity) {
+			listIndexes = new int[capacity];
+			listProjections = new double[capacity];
+		}
+	}
+	
 	/*
 	 * Main method for class, runs algorithm and returns true if all positions have been
 	 * filled, false otherwise
@@ -82,6 +132,14 @@ public class PositionsFillableChecker {
 		return unfilledPositions;
 	}
 	
+	/*
+	 * Returns true if the position at index positionNum of the league positions was filled, allows checking
+	 * unfilled positions without allocating a list
+	 */
+	public boolean isPositionFilled(int positionNum) {
+		return playerForPosition[positionNum + 1] != NIL;
+	}
+	
 	//Hopcroft-Karp algorithm implementation to find maximum matching, left side vertices represent
 	///combination positions to be matched with players that can play the position. If every combination
 	//position can have one player with a non-zero projection assigned to it, then 
@@ -105,25 +163,27 @@ public class PositionsFillableChecker {
 	 * Breadth first search 
 	 */
 	private boolean bfs() {
-		Queue<Integer> queue = new LinkedList();
+		int readPos = 0;
+		int writePos = 0;
 		//0 is null vertex so ignore
-		for (int u = 1; u <=positions.size(); u++ ) {
+		for (int u = 1; u <= numPositions; u++ ) {
 			if (playerForPosition[u] == NIL) {
 				dist[u] = 0;
-				queue.add(u);
+				queue[writePos++] = u;
 			} else {
 				dist[u] = INF;
 			}
 		}
 		dist[NIL] = INF;
 		
-		while (!queue.isEmpty()) {
-			int u = queue.poll();
+		while (readPos < writePos) {
+			int u = queue[readPos++];
 			if (dist[u] < dist[NIL]) {
-				for (int v : edges[u]) {
+				for (int e = 0; e < numEdges[u]; e++) {
+					int v = edges[u][e];
 					if (dist[positionForPlayer[v]] == INF) {
 						dist[positionForPlayer[v]] = dist[u] + 1;
-						queue.add(positionForPlayer[v]);
+						queue[writePos++] = positionForPlayer[v];
 					}
 				}
 			}
@@ -137,7 +197,8 @@ public class PositionsFillableChecker {
 	 */
 	private boolean dfs(int u) {
 		if (u != NIL) {
-			for (int v : edges[u]) {
+			for (int e = 0; e < numEdges[u]; e++) {
+				int v = edges[u][e];
 				if (dist[positionForPlayer[v]] == dist[u] + 1) {
 					if (dfs(positionForPlayer[v]) == true) {
 						positionForPlayer[v] = u;
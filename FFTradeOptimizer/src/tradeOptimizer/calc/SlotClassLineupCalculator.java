@@ -0,0 +1,368 @@
+package tradeOptimizer.calc;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.LeagueRules;
+import tradeOptimizer.projections.PlayerProjection;
+
+/*
+ * Class for calculating the optimal projected points for a week by grouping league positions into slot classes, positions
+ * with identical sets of possible football positions (ie. RB1 and RB2) are one class with a capacity of 2. Sets of players that
+ * can be placed in the slot classes at the same time form a matroid, so adding players greedily from highest to lowest projection
+ * whenever the players already placed can be rearranged to make room for them gives the maximum projected points.
+ *
+ * When every slot class is either nested in or disjoint from every other class (standard leagues with a single W/R/T flex) and each
+ * player's classes are nested, placing each player in the most restrictive class with an open slot is exact and no rearranging is needed.
+ * Otherwise room is made with an augmenting path over the slot classes, which is a small flow over at most a handful of classes.
+ *
+ * The lineup matches the one found by OptimalLineupCalculator whenever the optimal lineup is unique. If a position can't be filled by a
+ * player with a positive projection, or a player in the lineup has the same projection as a player left out of it, hasExactSolution()
+ * returns false and OptimalLineupCalculator should be used instead.
+ *
+ * Instances can be reused with reset(), arrays are sized to the capacity given to the constructor and only reallocated if a
+ * larger roster is passed. Instances aren't thread safe, each thread should use its own instance.
+ */
+public class SlotClassLineupCalculator {
+
+	private static final int MAX_CLASSES = 31; //slot classes are stored as bits of an int mask
+
+	private static volatile SlotClasses cachedClasses; //slot classes for the most recently used list of league positions
+
+	private SlotClasses classes;
+	private int[] playerIndexes;
+	private double[] projections;
+	private int numPlayers;
+	private int[] listIndexes; //player indexes and projections of a list passed to reset(List, List)
+	private double[] listProjections;
+	private int[] classMaskForPlayer; //bit i is set if the player can be used in slot class i
+	private int[] playerOrder; //player indexes sorted highest to lowest by projection
+	private int[] classForPlayer; //slot class the player is placed in, -1 if not used
+	private final int[] filledForClass = new int[MAX_CLASSES]; //number of players placed in each slot class
+	//augmenting path search state, by slot class
+	private final int[] prevClass = new int[MAX_CLASSES]; //class a class was reached from, -1 for the player's own classes
+	private final int[] movedPlayer = new int[MAX_CLASSES]; //player moved into a class from prevClass
+	private final boolean[] visitedClass = new boolean[MAX_CLASSES];
+	private final int[] classQueue = new int[MAX_CLASSES];
+	private boolean exactSolution;
+	private double projPoints;
+
+	public SlotClassLineupCalculator(List<PlayerProjection> players, List<LeaguePosition> positions) {
+		this(players.size());
+		reset(players, positions);
+	}
+
+	/*
+	 * Constructor for a reusable instance, capacity should be the largest number of player projections that will be calculated
+	 */
+	public SlotClassLineupCalculator(int capacity) {
+		allocate(capacity);
+	}
+
+	/*
+	 * Calculates the lineup for the player projections and positions, previous results are discarded
+	 */
+	public void reset(List<PlayerProjection> players, List<LeaguePosition> positions) {
+		if (players.size() > classForPlayer.length) {
+			allocate(players.size());
+		}
+		for (int i = 0; i < players.size(); i++) {
+			listIndexes[i] = FantasyLeague.getPlayerIndex(players.get(i).getPlayerId());
+			listProjections[i] = players.get(i).getProjection();
+		}
+		reset(listIndexes, listProjections, players.size(), positions);
+	}
+
+	/*
+	 * Alternate version of reset for the first numPlayers entries of arrays of player indexes and their projections,
+	 * the arrays are read by the other methods so they mustn't be changed until the results have been used
+	 */
+	public void reset(int[] playerIndexes, double[] projections, int numPlayers, List<LeaguePosition> positions) {
+		if (numPlayers > classForPlayer.length) {
+			allocate(numPlayers);
+		}
+		this.classes = getSlotClasses(positions);
+		this.playerIndexes = playerIndexes;
+		this.projections = projections;
+		this.numPlayers = numPlayers;
+		Arrays.fill(filledForClass, 0);
+		boolean chainsOnly = classes.laminar;
+		for (int i = 0; i < numPlayers; i++) {
+			classMaskForPlayer[i] = classes.getClassMask(FantasyLeague.getPositionMask(playerIndexes[i]));
+			chainsOnly = chainsOnly && classes.isChain(classMaskForPlayer[i]);
+			classForPlayer[i] = -1;
+		}
+		sortPlayers();
+		exactSolution = placePlayers(chainsOnly) && !hasTieWithUnusedPlayer();
+	}
+
+	private void allocate(int capacity) {
+		//list arrays may be the arrays being passed to reset() so they're kept
+		if (listIndexes == null || listIndexes.length < capacity) {
+			listIndexes = new int[capacity];
+			listProjections = new double[capacity];
+		}
+		classMaskForPlayer = new int[capacity];
+		playerOrder = new int[capacity];
+		classForPlayer = new int[capacity];
+	}
+
+	/*
+	 * Returns true if the calculated lineup is the unique optimal lineup, otherwise the results of this class
+	 * shouldn't be used
+	 */
+	public boolean hasExactSolution() {
+		return exactSolution;
+	}
+
+	/*
+	 * Returns the total projected points for the optimal lineup, summed from highest to lowest projection
+	 */
+	public double getOptimalProjPoints() {
+		return projPoints;
+	}
+
+	//returns set containing Player Ids of all players placed in the optimal lineup
+	public Set<Integer> getPlayersUsed() {
+		Set<Integer> playersUsed = new HashSet<Integer>();
+		for (int i = 0; i < numPlayers; i++) {
+			if (classForPlayer[i] != -1) {
+				playersUsed.add(FantasyLeague.getPlayerIdForIndex(playerIndexes[i]));
+			}
+		}
+		return playersUsed;
+	}
+
+	/*
+	 * Returns true if the player at index playerNum of the projections passed to reset() is in the lineup
+	 */
+	public boolean isPlayerUsed(int playerNum) {
+		return classForPlayer[playerNum] != -1;
+	}
+
+	/*
+	 * Insertion sort of player indexes by projection, players with equal projections keep their order. Projections are
+	 * generally already sorted except for waiver players added for unfilled positions, and rosters are small.
+	 */
+	private void sortPlayers() {
+		for (int i = 0; i < numPlayers; i++) {
+			int player = i;
+			double projection = projections[player];
+			int j = i - 1;
+			while (j >= 0 && projections[playerOrder[j]] < projection) {
+				playerOrder[j + 1] = playerOrder[j];
+				j--;
+			}
+			playerOrder[j + 1] = player;
+		}
+	}
+
+	/*
+	 * Greedily places players from highest to lowest projection, returns true if every position was filled
+	 * by a player with a positive projection
+	 */
+	private boolean placePlayers(boolean chainsOnly) {
+		int positionsFilled = 0;
+		projPoints = 0.0;
+		for (int i = 0; i < numPlayers && positionsFilled < classes.numPositions; i++) {
+			int player = playerOrder[i];
+			double projection = projections[player];
+			if (projection <= 0.0) {
+				break;
+			}
+			if (classMaskForPlayer[player] == 0) {
+				continue;
+			}
+			if (placeInOpenClass(player) || (!chainsOnly && placeWithAugmentingPath(player))) {
+				positionsFilled++;
+				projPoints += projection;
+			}
+		}
+		return positionsFilled == classes.numPositions;
+	}
+
+	/*
+	 * Places player in the most restrictive slot class with an open slot, returns false if all of the
+	 * player's classes are full
+	 */
+	private boolean placeInOpenClass(int player) {
+		for (int c = 0; c < classes.numClasses; c++) {
+			if ((classMaskForPlayer[player] & (1 << c)) != 0 && filledForClass[c] < classes.capacityForClass[c]) {
+				classForPlayer[player] = c;
+				filledForClass[c]++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Breadth first search over slot classes for a path from one of the player's (full) classes to a class with an open slot,
+	 * where each step moves a placed player to another class they can be used in. If a path is found the players along it
+	 * are moved and the player is placed in the first class of the path.
+	 */
+	private boolean placeWithAugmentingPath(int player) {
+		int numClasses = classes.numClasses;
+		Arrays.fill(visitedClass, 0, numClasses, false);
+		int readPos = 0;
+		int writePos = 0;
+		for (int c = 0; c < numClasses; c++) {
+			if ((classMaskForPlayer[player] & (1 << c)) != 0) {
+				visitedClass[c] = true;
+				prevClass[c] = -1;
+				classQueue[writePos++] = c;
+			}
+		}
+		while (readPos < writePos) {
+			int fromClass = classQueue[readPos++];
+			for (int p = 0; p < numPlayers; p++) {
+				if (classForPlayer[p] != fromClass) {
+					continue;
+				}
+				for (int c = 0; c < numClasses; c++) {
+					if (!visitedClass[c] && (classMaskForPlayer[p] & (1 << c)) != 0) {
+						visitedClass[c] = true;
+						prevClass[c] = fromClass;
+						movedPlayer[c] = p;
+						if (filledForClass[c] < classes.capacityForClass[c]) {
+							//open slot found, move players back along the path
+							filledForClass[c]++;
+							int currentClass = c;
+							while (prevClass[currentClass] != -1) {
+								classForPlayer[movedPlayer[currentClass]] = currentClass;
+								currentClass = prevClass[currentClass];
+							}
+							classForPlayer[player] = currentClass;
+							return true;
+						}
+						classQueue[writePos++] = c;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Players with equal projections are next to each other in playerOrder, if a group of equal projections contains
+	 * both a player in the lineup and an eligible player left out then another optimal lineup could use different players
+	 */
+	private boolean hasTieWithUnusedPlayer() {
+		int groupStart = 0;
+		while (groupStart < numPlayers) {
+			double projection = projections[playerOrder[groupStart]];
+			boolean hasUsed = false;
+			boolean hasUnused = false;
+			int groupEnd = groupStart;
+			while (groupEnd < numPlayers && projections[playerOrder[groupEnd]] == projection) {
+				int player = playerOrder[groupEnd];
+				if (classForPlayer[player] != -1) {
+					hasUsed = true;
+				} else if (classMaskForPlayer[player] != 0) {
+					hasUnused = true;
+				}
+				groupEnd++;
+			}
+			if (hasUsed && hasUnused) {
+				return true;
+			}
+			groupStart = groupEnd;
+		}
+		return false;
+	}
+
+	private static SlotClasses getSlotClasses(List<LeaguePosition> positions) {
+		SlotClasses slotClasses = cachedClasses;
+		if (slotClasses == null || slotClasses.positions != positions) {
+			slotClasses = new SlotClasses(positions);
+			cachedClasses = slotClasses;
+		}
+		return slotClasses;
+	}
+
+	/*
+	 * Immutable grouping of league positions into slot classes, classes are sorted from most to least restrictive
+	 * using the slot order compiled by LeagueRules
+	 */
+	private static class SlotClasses {
+		private final List<LeaguePosition> positions;
+		private final int numPositions;
+		private final int numClasses;
+		private final int[] positionMaskForClass; //mask of the football positions allowed in each class
+		private final int[] capacityForClass;
+		private final boolean laminar; //true if every pair of classes is either nested or disjoint
+
+		SlotClasses(List<LeaguePosition> positions) {
+			this.positions = positions;
+			this.numPositions = positions.size();
+			LeagueRules rules = LeagueRules.forPositions(positions);
+			Map<Integer, Integer> capacities = new LinkedHashMap<Integer, Integer>();
+			for (int s = 0; s < numPositions; s++) {
+				int positionMask = rules.getPositionMask(rules.getSlot(s));
+				Integer capacity = capacities.get(positionMask);
+				capacities.put(positionMask, capacity == null ? 1 : capacity + 1);
+			}
+			if (capacities.size() > MAX_CLASSES) {
+				throw new IllegalArgumentException("Too many distinct league positions: " + capacities.size());
+			}
+			numClasses = capacities.size();
+			positionMaskForClass = new int[numClasses];
+			capacityForClass = new int[numClasses];
+			int c = 0;
+			for (Map.Entry<Integer, Integer> capacity : capacities.entrySet()) {
+				positionMaskForClass[c] = capacity.getKey();
+				capacityForClass[c++] = capacity.getValue();
+			}
+			boolean isLaminar = true;
+			for (int a = 0; a < numClasses; a++) {
+				for (int b = a + 1; b < numClasses; b++) {
+					int first = positionMaskForClass[a];
+					int second = positionMaskForClass[b];
+					if ((first & second) != 0 && !containsAll(first, second) && !containsAll(second, first)) {
+						isLaminar = false;
+					}
+				}
+			}
+			laminar = isLaminar;
+		}
+
+		/*
+		 * Returns the mask of the classes a player with the given football position mask can be used in
+		 */
+		int getClassMask(int playerMask) {
+			int mask = 0;
+			for (int c = 0; c < numClasses; c++) {
+				if ((positionMaskForClass[c] & playerMask) != 0) {
+					mask |= 1 << c;
+				}
+			}
+			return mask;
+		}
+
+		/*
+		 * Returns true if the classes in mask are nested, classes are sorted by size so each class must contain the previous one
+		 */
+		boolean isChain(int mask) {
+			int previous = 0;
+			for (int c = 0; c < numClasses; c++) {
+				if ((mask & (1 << c)) != 0) {
+					if (!containsAll(positionMaskForClass[c], previous)) {
+						return false;
+					}
+					previous = positionMaskForClass[c];
+				}
+			}
+			return true;
+		}
+
+		private static boolean containsAll(int positionMask, int otherMask) {
+			return (positionMask & otherMask) == otherMask;
+		}
+	}
+}
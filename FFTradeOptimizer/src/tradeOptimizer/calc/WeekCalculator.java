@@ -1,14 +1,14 @@
 package tradeOptimizer.calc;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import tradeOptimizer.league.LeaguePosition;
 import tradeOptimizer.league.Position;
 import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.WeekProjections;
 
 /*
  * WeekCalculator class used for calculating the projected point total using the optimal lineup for a list
@@ -16,11 +16,27 @@ import tradeOptimizer.projections.PlayerProjection;
  */
 public class WeekCalculator {
 
+	//solvers for each thread, sized to the largest roster in the league so calculations don't allocate memory
+	private static final ThreadLocal<Workspace> workspace = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace(FantasyLeague.getLargestRosterSize() + FantasyLeague.getPositions().size());
+		}
+	};
+	private static volatile LineupCache lineupCache; //lineups already calculated, shared by every thread, null if caching is disabled
+
 	private Map<Position,Double> topWaiverValueForPosition;
-	private Map<Position,Boolean> waiverPositionUsed;
-	private List<PlayerProjection> projectionsToUse;
+	private boolean[] waiverPositionUsed; //by Position ordinal
+	private List<PlayerProjection> projectionsToUse; //null if the roster is given as player indexes
+	private WeekProjections week;
+	private int[] rosterIndexes;
 	private List<Integer> addedPlayers;
 	private int timesNewPlayerUsed;
+	private int[] playerIndexes; //sorted roster followed by any waiver players added, the arrays belong to the thread's workspace
+	private double[] projections;
+	private int numPlayers;
+	private int[] playersUsed; //Player Ids of the players in the optimal lineup, including waiver players
+	private int numPlayersUsed;
 	private int thisWeekNum;
 	
 	/*
@@ -32,16 +48,26 @@ public class WeekCalculator {
 	 */
 	public WeekCalculator(List<PlayerProjection> projections, Map<Position,Double> waiverValues, List<Integer> addedPlayers, int weekNum) {
 		this.topWaiverValueForPosition = waiverValues;
-		this.waiverPositionUsed = new HashMap<Position,Boolean>(this.topWaiverValueForPosition.keySet().size());
-		for (Position position : this.topWaiverValueForPosition.keySet()) {
-			this.waiverPositionUsed.put(position,  false);
-		}
 		//filter out players with 0 points (they won't be used)
 		this.projectionsToUse = projections;
 		this.addedPlayers = addedPlayers;
 		this.timesNewPlayerUsed = 0;
 		this.thisWeekNum = weekNum;
 	}
+
+	/*
+	 * Alternate constructor for a roster of player indexes in any order, projections are read from week's arrays and sorted
+	 * without boxing or allocating. Only valid once the league is set up.
+	 */
+	public WeekCalculator(WeekProjections week, int[] rosterIndexes, List<Integer> addedPlayers) {
+		this.topWaiverValueForPosition = week.getTopWaiverForPositions();
+		this.week = week;
+		this.rosterIndexes = rosterIndexes;
+		this.addedPlayers = addedPlayers;
+		this.timesNewPlayerUsed = 0;
+		this.thisWeekNum = week.getWeekNum();
+	}
+
 	/*
 	 * Method to return number of player(s) added to a Team in a Trade were used in a WeekCalculator instance,
 	 * allows determining whether Players obtained in a trade were used or not in the optimal lineup for the WeekCalculator instance
@@ -50,53 +76,181 @@ public class WeekCalculator {
 		return timesNewPlayerUsed;
 	}
 	
-	public Double getOptimizedProjectedPoints() {
-		Double totalPoints = 0.0;
-		checkNeedWaiverPlayers();
-		OptimalLineupCalculator calc = new OptimalLineupCalculator(projectionsToUse, FantasyLeague.getPositions());
-		totalPoints = calc.getOptimalProjPoints();
-		
-		//must also set timesNewPlayerUsed field to determine if players added in trade were used in the optimal projected lineup
-		Set<Integer> playerIdsUsed = calc.getPlayersUsed();
-		for (Integer addedPlayerId : addedPlayers) {
-			if (playerIdsUsed.contains(addedPlayerId)) {
-				timesNewPlayerUsed++;
+	/*
+	 * Returns the cached lineup if the same roster has already been calculated for this week
+	 */
+	public double getOptimizedProjectedPoints() {
+		Workspace threadWorkspace = workspace.get();
+		loadRoster(threadWorkspace);
+		int rosterSize = numPlayers;
+		LineupCache cache = lineupCache;
+		if (cache != null) {
+			LineupCache.LineupResult cachedLineup = cache.get(thisWeekNum, playerIndexes, rosterSize);
+			if (cachedLineup != null) {
+				for (int i = 0; i < cachedLineup.getNumPlayersUsed(); i++) {
+					countIfAddedPlayer(cachedLineup.getPlayerUsed(i));
+				}
+				return cachedLineup.getOptimalProjPoints();
 			}
 		}
+		checkNeedWaiverPlayers(threadWorkspace);
+		playersUsed = threadWorkspace.playersUsed;
+		numPlayersUsed = 0;
+		double totalPoints = calculateLineup(threadWorkspace);
+		for (int i = 0; i < numPlayersUsed; i++) {
+			countIfAddedPlayer(playersUsed[i]);
+		}
+		if (cache != null) {
+			cache.put(thisWeekNum, playerIndexes, rosterSize, totalPoints, Arrays.copyOf(playersUsed, numPlayersUsed));
+		}
 		return totalPoints;
 	}
+
+	/*
+	 * Copies the roster into the workspace's arrays sorted highest to lowest by projection, with room for a waiver player for every position
+	 */
+	private void loadRoster(Workspace threadWorkspace) {
+		int rosterSize = projectionsToUse == null ? rosterIndexes.length : projectionsToUse.size();
+		threadWorkspace.ensureCapacity(rosterSize + FantasyLeague.getPositions().size(), FantasyLeague.getPositions().size());
+		playerIndexes = threadWorkspace.playerIndexes;
+		projections = threadWorkspace.projections;
+		numPlayers = rosterSize;
+		if (projectionsToUse == null) {
+			week.sortPlayers(rosterIndexes, rosterSize, playerIndexes, projections);
+		} else {
+			for (int i = 0; i < rosterSize; i++) {
+				playerIndexes[i] = FantasyLeague.getPlayerIndex(projectionsToUse.get(i).getPlayerId());
+				projections[i] = projectionsToUse.get(i).getProjection();
+			}
+		}
+	}
+
+	/*
+	 * Sets the cache used by every WeekCalculator, null disables caching
+	 */
+	public static void setLineupCache(LineupCache cache) {
+		lineupCache = cache;
+	}
+
+	public static LineupCache getLineupCache() {
+		return lineupCache;
+	}
+
+	private double calculateLineup(Workspace threadWorkspace) {
+		double totalPoints = 0.0;
+		//slot class calculation is much faster, only fall back to the Hungarian algorithm if its lineup isn't guaranteed to be the same
+		SlotClassLineupCalculator slotCalc = threadWorkspace.slotCalc;
+		slotCalc.reset(playerIndexes, projections, numPlayers, FantasyLeague.getPositions());
+		if (slotCalc.hasExactSolution()) {
+			totalPoints = slotCalc.getOptimalProjPoints();
+			for (int i = 0; i < numPlayers; i++) {
+				if (slotCalc.isPlayerUsed(i)) {
+					addPlayerUsed(playerIndexes[i]);
+				}
+			}
+		} else {
+			OptimalLineupCalculator calc = threadWorkspace.optimalCalc;
+			calc.reset(playerIndexes, projections, numPlayers, FantasyLeague.getPositions());
+			totalPoints = calc.getOptimalProjPoints();
+			for (int i = 0; i < numPlayers; i++) {
+				if (calc.isPlayerUsed(i)) {
+					addPlayerUsed(playerIndexes[i]);
+				}
+			}
+		}
+		return totalPoints;
+	}
+
+	private void addPlayerUsed(int playerIndex) {
+		playersUsed[numPlayersUsed++] = FantasyLeague.getPlayerIdForIndex(playerIndex);
+	}
+	
+	/*
+	 * Must also set timesNewPlayerUsed field to determine if players added in trade were used in the optimal projected lineup
+	 */
+	private void countIfAddedPlayer(int usedPlayerId) {
+		for (int i = 0; i < addedPlayers.size(); i++) {
+			if (addedPlayers.get(i).intValue() == usedPlayerId) {
+				timesNewPlayerUsed++;
+			}
+		}
+	}
 	
 	/*
 	 * Method checks if all positions can be filled, if there are unfilled positions then populate them
 	 * with the best available player from waiver.
 	 */
-	private void checkNeedWaiverPlayers() {
-		PositionsFillableChecker posChecker = new PositionsFillableChecker(projectionsToUse);
+	private void checkNeedWaiverPlayers(Workspace threadWorkspace) {
+		PositionsFillableChecker posChecker = threadWorkspace.fillableChecker;
+		posChecker.reset(playerIndexes, projections, numPlayers);
 		if (!posChecker.allPositionsFilled()) {
-			List<LeaguePosition> unfilledPositions = posChecker.getUnfilledPositions();
-			for (LeaguePosition emptyPosition : unfilledPositions) {
-				addTopWaiverForPosition(emptyPosition);
+			waiverPositionUsed = threadWorkspace.waiverPositionUsed;
+			Arrays.fill(waiverPositionUsed, false);
+			List<LeaguePosition> positions = FantasyLeague.getPositions();
+			for (int p = 0; p < positions.size(); p++) {
+				if (!posChecker.isPositionFilled(p)) {
+					addTopWaiverForPosition(positions.get(p));
+				}
 			}
 		}
 	}
 	
+	/*
+	 * Waiver players are added after the roster, the lineup calculators sort them by projection
+	 */
 	private void addTopWaiverForPosition(LeaguePosition position) {
-		Double waiverPlayerPoints = 0.0;
+		double waiverPlayerPoints = 0.0;
 		
 		if (this.topWaiverValueForPosition.keySet().size() > 0) {
 			Position positionToUse = null;
 			//get unused waiver player with highest projected point total for the week
 			//that can also play this position
 			for (Position pos : position.getPossiblePositions()) {
-				if (this.waiverPositionUsed.containsKey(pos) && !this.waiverPositionUsed.get(pos) && 
+				if (this.topWaiverValueForPosition.containsKey(pos) && !this.waiverPositionUsed[pos.ordinal()] && 
 						this.topWaiverValueForPosition.get(pos) > waiverPlayerPoints) {
 					positionToUse = pos;
 					waiverPlayerPoints = this.topWaiverValueForPosition.get(pos);
 				}
 			}
 			if (waiverPlayerPoints > 0.0 && positionToUse != null) {
-				waiverPositionUsed.put(positionToUse, true);
-				projectionsToUse.add(new PlayerProjection(positionToUse.getWaiverId(), waiverPlayerPoints));
+				waiverPositionUsed[positionToUse.ordinal()] = true;
+				playerIndexes[numPlayers] = FantasyLeague.getPlayerIndex(positionToUse.getWaiverId());
+				projections[numPlayers++] = waiverPlayerPoints;
+			}
+		}
+	}
+
+	/*
+	 * Lineup solvers, roster arrays, waiver flags and players used reused by every calculation on a thread
+	 */
+	private static class Workspace {
+		private final OptimalLineupCalculator optimalCalc;
+		private final SlotClassLineupCalculator slotCalc;
+		private final PositionsFillableChecker fillableChecker;
+		private final boolean[] waiverPositionUsed = new boolean[Position.values().length];
+		private int[] playerIndexes;
+		private double[] projections;
+		private int[] playersUsed;
+
+		Workspace(int capacity) {
+			optimalCalc = new OptimalLineupCalculator(capacity);
+			slotCalc = new SlotClassLineupCalculator(capacity);
+			fillableChecker = new PositionsFillableChecker(capacity);
+			playerIndexes = new int[capacity];
+			projections = new double[capacity];
+			playersUsed = new int[FantasyLeague.getPositions().size()];
+		}
+
+		/*
+		 * Grows the roster arrays to hold capacity players and the players used array to hold a lineup of numPositions
+		 */
+		void ensureCapacity(int capacity, int numPositions) {
+			if (playerIndexes.length < capacity) {
+				playerIndexes = new int[capacity];
+				projections = new double[capacity];
+			}
+			if (playersUsed.length < numPositions) {
+				playersUsed = new int[numPositions];
 			}
 		}
 	}
@@ -11,7 +11,10 @@ import java.util.Map;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import tradeOptimizer.calc.LineupCache;
+import tradeOptimizer.calc.WeekCalculator;
 import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.ProjectionChange;
 import tradeOptimizer.projections.ProjectionDataSource;
 import tradeOptimizer.projections.WeekProjections;
 
@@ -21,8 +24,12 @@ import tradeOptimizer.projections.WeekProjections;
 public class FantasyLeague {
 
 	private static List<LeaguePosition> positions;
+	private static LeagueRules leagueRules;
 	private static Map<Position, Player> bestAvailablePlayersByPosition;
 	private static Map<Integer,Player> playersById;
+	private static int[] playerIdForIndex; //Player Id of every player in playersById by compact index, sorted so indexes are found by binary search
+	private static Player[] playerForIndex;
+	private static int[] positionMaskForIndex; //Player.getPositionMask() of every player by index
 	private static List<Team> teams;
 	private static List<WeekProjections> weeks;
 	private static String leagueName;
@@ -40,6 +47,7 @@ public class FantasyLeague {
 	    	currentWeek = leagueData.getCurrentWeek();
 	    	putPlayersInMap(leagueData.getPlayersById(), playersMap);
 	    	positions = new ImmutableList.Builder().addAll(leagueData.getLeaguePositions()).build();
+	    	leagueRules = new LeagueRules(positions);
 		    teams = new ImmutableList.Builder().addAll(leagueData.getTeams()).build();
 		    leagueName = leagueData.getLeagueName();
 		    weeks = new ImmutableList.Builder().addAll(projData.getWeekProjections()).build();
@@ -53,14 +61,76 @@ public class FantasyLeague {
 		    	putPlayerInMap(pos.getWaiverId(), waiverPlayer, playersMap);
 		    }
 	    	playersById = new ImmutableMap.Builder().putAll(playersMap).build();
+	    	assignPlayerIndexes();
+	    	for (WeekProjections week : weeks) {
+	    		week.indexProjections(playerIdForIndex);
+	    	}
+	    	//lineups cached for a previous league are keyed by the same week numbers and possibly the same Player Ids
+	    	LineupCache cache = WeekCalculator.getLineupCache();
+	    	if (cache != null) {
+	    		cache.clear();
+	    	}
 	    	leagueInitialized = true;
 		}
 	}
 	
+	/*
+	 * Discards the current league so the next call to setupLeague() sets up a new one, allows calculating trades
+	 * for more than one league in the same process
+	 */
+	public static void clearLeague() {
+		leagueInitialized = false;
+	}
+	
+	/*
+	 * Replaces the league's week projections with those of projData, the league's players and best available players are
+	 * unchanged. A week whose projections are the same keeps its WeekProjections and version, a week that changed is replaced
+	 * and its version incremented. Only players in the league are compared. Returns the change of each week that changed or is
+	 * new, weeks no longer in projData are dropped. Cached lineups of rosters a change affects are invalidated.
+	 * Must not be called while lineups are being calculated.
+	 */
+	public static List<ProjectionChange> refreshProjections(ProjectionDataSource projData) {
+		Map<Integer,WeekProjections> previousWeeks = new HashMap<Integer,WeekProjections>();
+		for (WeekProjections week : weeks) {
+			previousWeeks.put(week.getWeekNum(), week);
+		}
+		List<WeekProjections> refreshedWeeks = new ArrayList<WeekProjections>();
+		List<ProjectionChange> changes = new ArrayList<ProjectionChange>();
+		LineupCache cache = WeekCalculator.getLineupCache();
+		for (WeekProjections week : projData.getWeekProjections()) {
+			WeekProjections previous = previousWeeks.get(week.getWeekNum());
+			ProjectionChange change = ProjectionChange.compare(previous, week, playerIdForIndex);
+			if (change == null) {
+				refreshedWeeks.add(previous);
+			} else {
+				week.indexProjections(playerIdForIndex);
+				refreshedWeeks.add(week);
+				changes.add(change);
+				if (cache != null) {
+					cache.invalidate(change);
+				}
+			}
+		}
+		weeks = ImmutableList.copyOf(refreshedWeeks);
+		return changes;
+	}
+
 	public static int getPlayerCount() {
 		return playersById.size();
 	}
 	
+	/*
+	 * Returns the number of players on the largest roster in the league, including the extra
+	 * players a Team could receive in a trade of the largest size
+	 */
+	public static int getLargestRosterSize() {
+		int largestRoster = 0;
+		for (Team team : teams) {
+			largestRoster = Math.max(largestRoster, team.getCurrentPlayers().length + team.largestTrade);
+		}
+		return largestRoster;
+	}
+	
 	public static int getAvailablePlayersCount() {
 		return bestAvailablePlayersByPosition.size();
 	}
@@ -69,6 +139,10 @@ public class FantasyLeague {
 		return positions;
 	}
 	
+	public static LeagueRules getLeagueRules() {
+		return leagueRules;
+	}
+
 	public static int getCurrentWeek() {
 		return currentWeek;
 	}
@@ -89,10 +163,58 @@ public class FantasyLeague {
 		return playersById.get(playerId);
 	}
 	
+	/*
+	 * Returns the compact index of a player, indexes run from 0 to getPlayerCount() - 1 in order of Player Id.
+	 * Returns -1 if the player isn't in the league.
+	 */
+	public static int getPlayerIndex(int playerId) {
+		int index = Arrays.binarySearch(playerIdForIndex, playerId);
+		return index < 0 ? -1 : index;
+	}
+
+	public static int getPlayerIdForIndex(int playerIndex) {
+		return playerIdForIndex[playerIndex];
+	}
+
+	public static Player getPlayerForIndex(int playerIndex) {
+		return playerForIndex[playerIndex];
+	}
+
+	/*
+	 * Returns the mask of the football positions of the player with the given index (see LeagueRules)
+	 */
+	public static int getPositionMask(int playerIndex) {
+		return positionMaskForIndex[playerIndex];
+	}
+
+	/*
+	 * Returns the indexes of the players in playerIds, players not in the league have an index of -1
+	 */
+	public static int[] getPlayerIndexes(Integer[] playerIds) {
+		int[] indexes = new int[playerIds.length];
+		for (int i = 0; i < playerIds.length; i++) {
+			indexes[i] = getPlayerIndex(playerIds[i]);
+		}
+		return indexes;
+	}
+
 	public static String getLeagueName() {
 		return leagueName;
 	}
 	
+	private static void assignPlayerIndexes() {
+		List<Integer> playerIds = new ArrayList<Integer>(playersById.keySet());
+		Collections.sort(playerIds);
+		playerIdForIndex = new int[playerIds.size()];
+		playerForIndex = new Player[playerIds.size()];
+		positionMaskForIndex = new int[playerIds.size()];
+		for (int i = 0; i < playerIds.size(); i++) {
+			playerIdForIndex[i] = playerIds.get(i);
+			playerForIndex[i] = playersById.get(playerIds.get(i));
+			positionMaskForIndex[i] = playerForIndex[i].getPositionMask();
+		}
+	}
+
 	private static void putPlayersInMap(Map<Integer,Player> playersToAdd, Map<Integer,Player> targetMap) {
 		for (int playerId : playersToAdd.keySet()) {
 		    if (!targetMap.containsKey(playerId)) {
@@ -118,6 +240,19 @@ public class FantasyLeague {
 	public static Player getBestAvailablePlayer(Position position) {
 		return bestAvailablePlayersByPosition.get(position);
 	}
+
+	/*
+	 * Returns the sorted Player Ids of the best available players, these can be added to any Team's roster
+	 */
+	public static int[] getBestAvailablePlayerIds() {
+		int[] playerIds = new int[bestAvailablePlayersByPosition.size()];
+		int i = 0;
+		for (Player player : bestAvailablePlayersByPosition.values()) {
+			playerIds[i++] = player.getPlayerId();
+		}
+		Arrays.sort(playerIds);
+		return playerIds;
+	}
 	
 	private static void addBestAvailablePlayers(Map<Position, Player> bestWaiverPlayers, Map<Integer,Player> targetMap) {
 		if (!leagueInitialized) {
@@ -16,17 +16,20 @@ public class LeaguePosition implements Comparable {
 
 	private String positionName; //name of position in FF league, not necessarily matching a single football position
 	private Set<Position> possiblePositions; //list of football positions allowed to be used in position, ie. RB, WR, TE in a standard flex positon
+	private int positionMask; //bits of the football positions in possiblePositions
 	
 	public LeaguePosition(String name, List<Position> possiblePositions) {
 		this.positionName = name;
 		this.possiblePositions = new HashSet<Position>();
 		this.possiblePositions.addAll(possiblePositions);
+		this.positionMask = LeagueRules.getPositionMask(possiblePositions);
 	}
 	
 	//cloning constructor
 	public LeaguePosition(LeaguePosition position) {
 		this.positionName = position.positionName;
 		this.possiblePositions = position.possiblePositions;
+		this.positionMask = position.positionMask;
 	}
 	
 	/*
@@ -40,6 +43,10 @@ public class LeaguePosition implements Comparable {
 	public Set<Position> getPossiblePositions() {
 		return this.possiblePositions;
 	}
+
+	public int getPositionMask() {
+		return this.positionMask;
+	}
 	
 	/*
 	 * compareTo override used to sort positions by number of football positions allowed
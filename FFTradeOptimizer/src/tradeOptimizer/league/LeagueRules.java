@@ -0,0 +1,92 @@
+package tradeOptimizer.league;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * Compiled form of a league's positions used by the lineup calculations. Each football Position is a bit (Position.getMask())
+ * and each LeaguePosition is the mask of the football positions it allows, so whether a player can be used in a position
+ * is a single AND of the player's mask and the position's mask. Slots are also sorted from most to least restrictive
+ * using LeaguePosition's ordering, positions with the same number of football positions keep their league order.
+ */
+public class LeagueRules {
+
+	private final List<LeaguePosition> positions;
+	private final int[] maskForPosition; //mask of football positions allowed in each position, in league order
+	private final int[] slotOrder; //position numbers sorted from most to least restrictive
+
+	public LeagueRules(List<LeaguePosition> positions) {
+		this.positions = ImmutableList.copyOf(positions);
+		maskForPosition = new int[positions.size()];
+		for (int i = 0; i < positions.size(); i++) {
+			maskForPosition[i] = positions.get(i).getPositionMask();
+		}
+		List<LeaguePosition> sortedPositions = new ArrayList<LeaguePosition>(positions);
+		//LeaguePosition implements the raw Comparable, a typed comparator keeps the sort checked
+		Collections.sort(sortedPositions, (first, second) -> first.compareTo(second));
+		slotOrder = new int[positions.size()];
+		boolean[] used = new boolean[positions.size()];
+		for (int s = 0; s < sortedPositions.size(); s++) {
+			//identical positions are assigned in league order
+			for (int i = 0; i < positions.size(); i++) {
+				if (!used[i] && positions.get(i) == sortedPositions.get(s)) {
+					used[i] = true;
+					slotOrder[s] = i;
+					break;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns the league's rules if positions are the league's positions, otherwise compiles rules for positions
+	 */
+	public static LeagueRules forPositions(List<LeaguePosition> positions) {
+		LeagueRules rules = FantasyLeague.getLeagueRules();
+		if (rules != null && rules.positions == positions) {
+			return rules;
+		}
+		return new LeagueRules(positions);
+	}
+
+	/*
+	 * Returns the mask with the bit of every football position in footballPositions set
+	 */
+	public static int getPositionMask(Collection<Position> footballPositions) {
+		int mask = 0;
+		for (Position position : footballPositions) {
+			mask |= position.getMask();
+		}
+		return mask;
+	}
+
+	public List<LeaguePosition> getPositions() {
+		return positions;
+	}
+
+	public int getNumPositions() {
+		return maskForPosition.length;
+	}
+
+	public int getPositionMask(int positionNum) {
+		return maskForPosition[positionNum];
+	}
+
+	/*
+	 * Returns true if a player with the given mask (see Player.getPositionMask()) can be used in the position
+	 */
+	public boolean canBeUsedInPosition(int playerMask, int positionNum) {
+		return (playerMask & maskForPosition[positionNum]) != 0;
+	}
+
+	/*
+	 * Returns the position number of the slot-th most restrictive position
+	 */
+	public int getSlot(int slot) {
+		return slotOrder[slot];
+	}
+}
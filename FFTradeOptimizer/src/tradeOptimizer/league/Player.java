@@ -13,6 +13,7 @@ public class Player {
 
 	private String fullName;
 	private List<Position> footballPositions;
+	private int positionMask; //bits of the football positions in footballPositions
 	private int byeWeek = 0; //not currently used for player class but could be useful for other projections or implementations
 
 	/* In Yahoo FF leagues this will represent the yahoo Player ID, 
@@ -46,6 +47,7 @@ public class Player {
 	public Player(String fullName, List<Position> positions, int playerId, int byeWeek) {
 		this.fullName = fullName;
 		this.footballPositions = positions;
+		this.positionMask = LeagueRules.getPositionMask(positions);
 		this.byeWeek = byeWeek;
 		this.playerId = playerId;
 	}
@@ -62,6 +64,7 @@ public class Player {
 		this.fullName = player.getName();
 		this.playerId = player.getPlayerId();
 		this.footballPositions = player.getFootballPositions();
+		this.positionMask = player.positionMask;
 	}
 	
 	/* Accessor methods */
@@ -80,18 +83,17 @@ public class Player {
 	public int getByeWeek() {
 		return this.byeWeek;
 	}
+
+	public int getPositionMask() {
+		return this.positionMask;
+	}
 	
 	/*
 	 * Method to determine if Player is able to be used in a LeaguePosition
 	 * Checks if Player's Position(s) is allowed to be used in the LeaguePosition
 	 */
 	public boolean canBeUsedInPosition(LeaguePosition leaguePosition) {
-	    for (Position playerPosition : this.footballPositions) {
-		    if (leaguePosition.getPossiblePositions().contains(playerPosition)){
-				return true;
-			}
-		}
-		return false;
+		return (this.positionMask & leaguePosition.getPositionMask()) != 0;
 	}
 	
 	/*
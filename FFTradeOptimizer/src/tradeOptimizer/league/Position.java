@@ -30,6 +30,13 @@ public enum Position {
 	public int getWaiverId() {
 		return waiverPlayerId;
 	}
+
+	/*
+	 * Returns the bit representing this position in position masks (see LeagueRules)
+	 */
+	public int getMask() {
+		return 1 << ordinal();
+	}
 	private static Map<String,Position> stringToPos = new HashMap<>();
 		
 	static Set<Position> ignorePositions = new HashSet<Position>(Arrays.asList(Position.K, Position.D, Position.BN, Position.IR));
@@ -1,13 +1,13 @@
 package tradeOptimizer.league;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import com.google.common.collect.ImmutableList;
 
 import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.trades.TopTradeAccumulator;
 import tradeOptimizer.trades.Trade;
+import tradeOptimizer.trades.TradeRanking;
 
 /*
  * Team class representing a fantasy football team that competes in a fantasy league
@@ -19,9 +19,10 @@ public class Team {
 	public int largestTrade = 2; //represents maximum number of players in a Trade with this Team, used to format output file
 	private List<Integer> currentPlayers; //refer to players by Id
 	private String teamName;
-	private ArrayList<Trade> trades; //only used for initial Team instances, not for Cloned instances
+	private TopTradeAccumulator trades; //only used for initial Team instances, not for Cloned instances
 	private Double currentBaseProjectedPoints = 0.0; //can only be set once, represents projected points for remainder of season with current team
-	private List<List<Integer>> playerCombos;
+	private TradePackages playerCombos;
+	private int maxPackageSize = 2; //largest number of players the Team sends in a trade
 	
 	/*
 	 * Constructor method used when creating initial Team instance
@@ -32,7 +33,7 @@ public class Team {
 	public Team(String teamName) {
 		this.teamName = teamName;
 		this.currentPlayers = new ArrayList<Integer>();
-		this.trades = new ArrayList<Trade>();
+		this.trades = new TopTradeAccumulator();
 	}
 	
 	/*
@@ -58,13 +59,30 @@ public class Team {
 		return this.teamName;
 	}
 	
+	/*
+	 * Returns the trades kept for this Team, best first by the Team's TradeRanking
+	 */
 	public List<Trade> getTrades() {
-		return this.trades;
+		return this.trades.getTrades();
+	}
+
+	/*
+	 * Keeps only the best maxTrades trades by ranking, any trades already added are discarded
+	 */
+	public void setTradeLimit(int maxTrades, TradeRanking ranking) {
+		this.trades = new TopTradeAccumulator(maxTrades, ranking);
 	}
 	
 	public Integer[] getCurrentPlayers() {
 		return currentPlayers.toArray(new Integer[currentPlayers.size()]);
 	}
+
+	/*
+	 * Returns the player indexes of the current players, only valid once the league is set up
+	 */
+	public int[] getCurrentPlayerIndexes() {
+		return FantasyLeague.getPlayerIndexes(getCurrentPlayers());
+	}
 	
 /*	public List<Integer> getNewPlayers() {
 		return this.receivedPlayers;
@@ -74,6 +92,13 @@ public class Team {
 		return this.currentBaseProjectedPoints;
 	}
 	
+	/*
+	 * Clears the base projection so it can be set again, used once the league's projections have been refreshed
+	 */
+	public void clearBaseProjectedPoints() {
+		this.currentBaseProjectedPoints = 0.0;
+	}
+
 	public void setBaseProjectedPoints(Double points) {
 		//should only be set once before any trades are calculated to have a base projection for comparisons
 		if (this.currentBaseProjectedPoints == 0.0 && points != 0.0) {
@@ -85,38 +110,69 @@ public class Team {
 	 * Method used by league roster data parser to add Player object to the Team
 	 */
 	public void addPlayer(int player) {
-		currentPlayers.add(player);
+		synchronized (this) {
+			currentPlayers.add(player);
+			playerCombos = null;
+		}
+	}
+
+	/*
+	 * Removes a Player from the Team when a roster change is applied, returns false if the Player isn't on the Team
+	 */
+	public boolean removePlayer(int player) {
+		synchronized (this) {
+			playerCombos = null;
+			return currentPlayers.remove(Integer.valueOf(player));
+		}
+	}
+
+	public boolean hasPlayer(int player) {
+		return currentPlayers.contains(player);
 	}
 	
 	/*
-	 * Method to add Trade to list of optimal Trades to be stored for this team 
+	 * Method to add Trade to list of optimal Trades to be stored for this team, can be called from multiple threads.
+	 * Trades ranked below the best trades kept are discarded.
 	 */
 	
-	public synchronized void addTrade(Trade trade) {
+	public void addTrade(Trade trade) {
+		if (!this.trades.add(trade)) {
+			return;
+		}
 		int getPlayerSize = trade.getOtherTeamPlayers().size();
 		//if number of players received from other Team greater than current largestTrade value, update largestTrade
 		if (getPlayerSize > this.largestTrade) {
-			this.largestTrade = getPlayerSize;
+			synchronized (this) {
+				this.largestTrade = Math.max(this.largestTrade, getPlayerSize);
+			}
 		}
-		this.trades.add(trade);
 	}
 	
 	/*
-	 * getTradeCombinations method returns ArrayList containing all possible combinations of Players from Team that can be sent to other Team in a Trade
-	 * combination of Players represented by ArrayList of Players
+	 * Sets the largest number of players the Team sends in a trade, up to TradePackages.MAX_PACKAGE_SIZE.
+	 * The Team can then also receive trades of that size, so largestTrade is raised to match.
+	 */
+	public void setMaxPackageSize(int maxPackageSize) {
+		synchronized (this) {
+			this.maxPackageSize = Math.max(1, Math.min(TradePackages.MAX_PACKAGE_SIZE, maxPackageSize));
+			this.largestTrade = Math.max(this.largestTrade, this.maxPackageSize);
+			playerCombos = null;
+		}
+	}
+
+	public int getMaxPackageSize() {
+		return maxPackageSize;
+	}
+	
+	/*
+	 * getTradeCombinations method returns every combination of Players from Team that can be sent to other Team in a Trade,
+	 * the combinations are generated as they're iterated rather than stored
 	 */
 	
-	public List<List<Integer>> getTradeCombinations() {
+	public TradePackages getTradeCombinations() {
 		synchronized (this) {
 		    if (playerCombos == null) {
-		        List<List<Integer>> tradeCombos = new ArrayList<List<Integer>>();
-		        for (int i = 0; i < currentPlayers.size(); i++ ) {
-			        for (int j = i + 1; j < currentPlayers.size(); j++) {
-				        tradeCombos.add(new ArrayList<Integer>(Arrays.asList(currentPlayers.get(i), currentPlayers.get(j))));
-			        }
-			        tradeCombos.add(new ArrayList<Integer>(Arrays.asList(currentPlayers.get(i))));
-		        }
-		        playerCombos = new ImmutableList.Builder().addAll(tradeCombos).build();
+		        playerCombos = new TradePackages(currentPlayers, maxPackageSize);
 		    }
 		}
 		return playerCombos;
@@ -0,0 +1,192 @@
+package tradeOptimizer.league;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import com.google.common.collect.ImmutableList;
+
+/*
+ * Every package of players a Team could send in a trade, from a single player up to maxSize players. The Team doesn't store
+ * the packages, encodeAll() generates them as longs for the loops that go over them many times.
+ *
+ * Packages are ordered by the roster order of their players, each package comes after the larger packages that start with it.
+ * With packages of up to 2 players the order is [p0, p1], [p0, p2], ..., [p0], [p1, p2], ..., [p1], ...
+ */
+public class TradePackages {
+
+	public static final int MAX_PACKAGE_SIZE = 3;
+	private static final int INDEX_BITS = 21; //bits for each player in an encoded package, MAX_PACKAGE_SIZE of them fit in a long
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	private final int[] players; //Player Ids of the roster the packages are taken from
+	private final int maxSize;
+	private final int numPackages; //including any packages skipped
+	private final boolean[] skippable; //packages made only of these roster players are skipped, null if none are skipped
+	private final int[][] subtreeSizes; //[m][d] is the number of packages of up to d players taken from m players, including the empty one
+
+	public TradePackages(List<Integer> players, int maxSize) {
+		if (maxSize < 1 || maxSize > MAX_PACKAGE_SIZE) {
+			throw new IllegalArgumentException("Package size must be between 1 and " + MAX_PACKAGE_SIZE + ": " + maxSize);
+		}
+		this.players = new int[players.size()];
+		for (int i = 0; i < this.players.length; i++) {
+			this.players[i] = players.get(i);
+		}
+		this.maxSize = maxSize;
+		subtreeSizes = new int[this.players.length + 1][maxSize + 1];
+		for (int m = 0; m <= this.players.length; m++) {
+			subtreeSizes[m][0] = 1;
+			for (int d = 1; d <= maxSize; d++) {
+				subtreeSizes[m][d] = m == 0 ? 1 : subtreeSizes[m - 1][d] + subtreeSizes[m - 1][d - 1];
+			}
+		}
+		this.numPackages = subtreeSizes[this.players.length][maxSize] - 1;
+		this.skippable = null;
+	}
+
+	private TradePackages(TradePackages packages, boolean[] skippable) {
+		this.players = packages.players;
+		this.maxSize = packages.maxSize;
+		this.subtreeSizes = packages.subtreeSizes;
+		this.numPackages = packages.numPackages;
+		this.skippable = skippable;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/*
+	 * Returns the number of packages, packages skipped by skipPackagesOnlyOf() are still counted
+	 */
+	public int size() {
+		return numPackages;
+	}
+
+	/*
+	 * Returns the same packages with every package made only of players matching skipPlayer left out by encodeAll(), used
+	 * to prune packages that can't be part of a useful trade
+	 */
+	public TradePackages skipPackagesOnlyOf(IntPredicate skipPlayer) {
+		boolean[] skip = new boolean[players.length];
+		for (int i = 0; i < players.length; i++) {
+			skip[i] = (skippable != null && skippable[i]) || skipPlayer.test(players[i]);
+		}
+		return new TradePackages(this, skip);
+	}
+
+	/*
+	 * Encodes a package of up to MAX_PACKAGE_SIZE players in a single long, in the same order, so it can be used as a key without
+	 * hashing a list. Each player takes INDEX_BITS bits holding their player index plus 1, so 0 is never a package.
+	 * Only valid once the league is set up.
+	 */
+	public static long encode(List<Integer> playerIds) {
+		if (playerIds.size() > MAX_PACKAGE_SIZE) {
+			throw new IllegalArgumentException("Packages can't have more than " + MAX_PACKAGE_SIZE + " players: " + playerIds);
+		}
+		long code = 0L;
+		for (int i = playerIds.size() - 1; i >= 0; i--) {
+			code = (code << INDEX_BITS) | encodePlayer(playerIds.get(i));
+		}
+		return code;
+	}
+
+	/*
+	 * Returns the packages encoded by encode(), in order, packages skipped by skipPackagesOnlyOf() are left out.
+	 * Only valid once the league is set up.
+	 */
+	public long[] encodeAll() {
+		long[] playerCodes = new long[players.length];
+		for (int i = 0; i < players.length; i++) {
+			playerCodes[i] = encodePlayer(players[i]);
+		}
+		long[] codes = new long[size()];
+		int numCodes = 0;
+		int[] positions = new int[maxSize];
+		int size = 0;
+		for (int index = 0; index < numPackages; index++) {
+			size = size == 0 ? findPackage(index, positions) : nextPackage(positions, size);
+			if (!isSkipped(positions, size)) {
+				long code = 0L;
+				for (int i = size - 1; i >= 0; i--) {
+					code = (code << INDEX_BITS) | playerCodes[positions[i]];
+				}
+				codes[numCodes++] = code;
+			}
+		}
+		return numCodes == codes.length ? codes : Arrays.copyOf(codes, numCodes);
+	}
+
+	/*
+	 * Returns the Player Ids of a package encoded by encode()
+	 */
+	public static List<Integer> decode(long code) {
+		List<Integer> playerIds = new ArrayList<Integer>(MAX_PACKAGE_SIZE);
+		while (code != 0L) {
+			playerIds.add(FantasyLeague.getPlayerIdForIndex((int)(code & INDEX_MASK) - 1));
+			code >>>= INDEX_BITS;
+		}
+		return ImmutableList.copyOf(playerIds);
+	}
+
+	private static long encodePlayer(int playerId) {
+		int playerIndex = FantasyLeague.getPlayerIndex(playerId);
+		if (playerIndex < 0 || playerIndex >= INDEX_MASK) {
+			throw new IllegalArgumentException("Player can't be encoded in a package: " + playerId);
+		}
+		return playerIndex + 1;
+	}
+
+	/*
+	 * Sets positions to the roster positions of the players in the package at index and returns the number of players
+	 */
+	private int findPackage(int index, int[] positions) {
+		int size = 0;
+		int next = 0;
+		while (true) {
+			for (int p = next; ; p++) {
+				//packages starting with the package so far plus p, which comes after all of the larger ones
+				int count = subtreeSizes[players.length - 1 - p][maxSize - size - 1];
+				if (index < count) {
+					positions[size++] = p;
+					if (index == count - 1) {
+						return size;
+					}
+					next = p + 1;
+					break;
+				}
+				index -= count;
+			}
+		}
+	}
+
+	/*
+	 * Moves positions to the next package and returns its number of players, positions must hold a package that isn't the last one
+	 */
+	private int nextPackage(int[] positions, int size) {
+		int last = positions[size - 1];
+		if (last + 1 == players.length) {
+			//every package starting with this one has been visited, the package without its last player is next
+			return size - 1;
+		}
+		positions[size - 1] = last + 1;
+		while (size < maxSize && positions[size - 1] + 1 < players.length) {
+			positions[size] = positions[size - 1] + 1;
+			size++;
+		}
+		return size;
+	}
+
+	private boolean isSkipped(int[] positions, int size) {
+		if (skippable == null) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!skippable[positions[i]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
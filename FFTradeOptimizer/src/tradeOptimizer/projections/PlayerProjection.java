@@ -48,14 +48,19 @@ public class PlayerProjection implements Comparable<Object>{
 	}
 	
 	/*
-	 * Override of compareTo to allow sorting Players by projected points for the week
+	 * Override of compareTo to allow sorting Players by projected points for the week, players with equal projections
+	 * are sorted by Player Id so a set of players is always sorted in the same order
 	 */
 	
 	@Override
 	public int compareTo(Object arg0) {
 		if (arg0 instanceof PlayerProjection) {
 			PlayerProjection otherPlayer = (PlayerProjection) arg0;
-			return Double.compare(otherPlayer.projection, this.projection);
+			int result = Double.compare(otherPlayer.projection, this.projection);
+			if (result == 0) {
+				result = Integer.compare(this.thisPlayerId, otherPlayer.thisPlayerId);
+			}
+			return result;
 		} else {
 		   return 0;
 		}
@@ -55,4 +55,15 @@ public class ProjectionCSVWriter {
 			writer.writeNext(writeWaiverLine);
 		}
 	}
+	
+	/*
+	 * Flushes and closes the file, nothing is written after close
+	 */
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 }
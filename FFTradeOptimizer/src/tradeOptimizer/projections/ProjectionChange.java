@@ -0,0 +1,152 @@
+package tradeOptimizer.projections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * Change in a week's projections found when the projections are refreshed. Lists the players whose projection changed and
+ * whether the waiver values changed, a lineup only needs to be recalculated if the change affects its roster.
+ * A week that wasn't in the previous projections affects every roster.
+ */
+public class ProjectionChange {
+
+	private final int weekNum;
+	private final int previousVersion; //0 if the week is new
+	private final int version;
+	private final int[] changedPlayerIds; //sorted
+	private final boolean waiverValuesChanged;
+
+	private ProjectionChange(int weekNum, int previousVersion, int version, int[] changedPlayerIds, boolean waiverValuesChanged) {
+		this.weekNum = weekNum;
+		this.previousVersion = previousVersion;
+		this.version = version;
+		this.changedPlayerIds = changedPlayerIds;
+		this.waiverValuesChanged = waiverValuesChanged;
+	}
+
+	/*
+	 * Compares the projections of current with previous, the same week's projections from an earlier refresh (null if the week
+	 * is new), and sets the version of current. The version is kept if the content is the same and incremented otherwise.
+	 * Only the players in playerIds are compared. Returns null if the content is the same.
+	 */
+	public static ProjectionChange compare(WeekProjections previous, WeekProjections current, int[] playerIds) {
+		if (previous == null) {
+			return new ProjectionChange(current.getWeekNum(), 0, current.getVersion(), new int[0], true);
+		}
+		if (previous.getContentHash() == current.getContentHash()) {
+			current.setVersion(previous.getVersion());
+			return null;
+		}
+		current.setVersion(previous.getVersion() + 1);
+		int[] changed = new int[playerIds.length];
+		int numChanged = 0;
+		for (int playerId : playerIds) {
+			if (Double.compare(previous.getProjectionForPlayer(playerId), current.getProjectionForPlayer(playerId)) != 0) {
+				changed[numChanged++] = playerId;
+			}
+		}
+		changed = Arrays.copyOf(changed, numChanged);
+		Arrays.sort(changed);
+		boolean waiversChanged = !previous.getTopWaiverForPositions().equals(current.getTopWaiverForPositions());
+		return new ProjectionChange(current.getWeekNum(), previous.getVersion(), current.getVersion(), changed, waiversChanged);
+	}
+
+	/*
+	 * Versions every week of current against the week with the same number in previous and returns the weeks that changed,
+	 * each player with a projection in either week is compared. Weeks must not be indexed by a league yet.
+	 */
+	public static List<ProjectionChange> versionWeeks(List<WeekProjections> previous, List<WeekProjections> current) {
+		Map<Integer, WeekProjections> previousWeeks = new HashMap<Integer, WeekProjections>();
+		for (WeekProjections week : previous) {
+			previousWeeks.put(week.getWeekNum(), week);
+		}
+		List<ProjectionChange> changes = new ArrayList<ProjectionChange>();
+		for (WeekProjections week : current) {
+			WeekProjections previousWeek = previousWeeks.get(week.getWeekNum());
+			TreeSet<Integer> playerIds = new TreeSet<Integer>();
+			addPlayerIds(week, playerIds);
+			if (previousWeek != null) {
+				addPlayerIds(previousWeek, playerIds);
+			}
+			int[] ids = new int[playerIds.size()];
+			int i = 0;
+			for (int playerId : playerIds) {
+				ids[i++] = playerId;
+			}
+			ProjectionChange change = compare(previousWeek, week, ids);
+			if (change != null) {
+				changes.add(change);
+			}
+		}
+		return changes;
+	}
+
+	private static void addPlayerIds(WeekProjections week, TreeSet<Integer> playerIds) {
+		Map<Integer, Double> projections = week.getProjectionsForWeek();
+		if (projections != null) {
+			playerIds.addAll(projections.keySet());
+		}
+	}
+
+	public int getWeekNum() {
+		return weekNum;
+	}
+
+	public int getPreviousVersion() {
+		return previousVersion;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	/*
+	 * Returns the sorted Player Ids of the players whose projection changed
+	 */
+	public int[] getChangedPlayerIds() {
+		return changedPlayerIds.clone();
+	}
+
+	public boolean getWaiverValuesChanged() {
+		return waiverValuesChanged;
+	}
+
+	public boolean isNewWeek() {
+		return previousVersion == 0;
+	}
+
+	/*
+	 * Returns true if the optimal lineup of a roster could have changed, rosterPlayerIds must be sorted. Waiver players fill
+	 * the positions of any roster so a change in waiver values affects every roster.
+	 */
+	public boolean affectsRoster(int[] rosterPlayerIds) {
+		if (waiverValuesChanged) {
+			return true;
+		}
+		int i = 0;
+		int j = 0;
+		while (i < rosterPlayerIds.length && j < changedPlayerIds.length) {
+			if (rosterPlayerIds[i] < changedPlayerIds[j]) {
+				i++;
+			} else if (rosterPlayerIds[i] > changedPlayerIds[j]) {
+				j++;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		if (isNewWeek()) {
+			return "week " + weekNum + " version " + version + ": new week";
+		}
+		return "week " + weekNum + " version " + previousVersion + " -> " + version + ": projections of " + changedPlayerIds.length + " players changed"
+				+ (waiverValuesChanged ? ", waiver values changed" : "");
+	}
+}
@@ -0,0 +1,206 @@
+package tradeOptimizer.projections;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+
+/*
+ * ProjectionDataSource that reads a binary snapshot of every week's projections through a read only memory map. The weeks
+ * use the mapped projection columns in place, so opening a snapshot doesn't parse anything and processes opening the same
+ * file share its pages. Snapshots are written with write(), from a list of weeks or any other ProjectionDataSource.
+ *
+ * Layout, big-endian:
+ *   header: magic, version, number of players, number of weeks, number of positions, number of best available players (ints)
+ *   player table: Player Id of each column row, sorted (ints)
+ *   week table: week number and version of each column (ints)
+ *   projection columns: for each week, the projection of each player in the player table or NaN (doubles)
+ *   waiver columns: for each week, the top waiver value of each Position by ordinal or NaN (doubles)
+ *   best available players: position ordinal, Player Id, bye week, name length and UTF-8 name of each player
+ */
+public class ProjectionSnapshot implements ProjectionDataSource {
+
+	private static final int MAGIC = 0x46465053; //"FFPS"
+	public static final int VERSION = 2;
+	private static final int HEADER_BYTES = 6 * 4;
+
+	private final List<WeekProjections> weeks;
+	private final Map<Position, Player> bestAvailablePlayersByPosition;
+
+	/*
+	 * Maps a snapshot file, throws IOException if the file isn't a snapshot of this version
+	 */
+	public ProjectionSnapshot(File file) throws IOException {
+		MappedByteBuffer buffer;
+		RandomAccessFile snapshotFile = new RandomAccessFile(file, "r");
+		try {
+			//the mapping stays valid once the channel is closed
+			buffer = snapshotFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, snapshotFile.length());
+		} finally {
+			snapshotFile.close();
+		}
+		if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException(file + " isn't a projection snapshot");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException(file + " is snapshot version " + buffer.getInt(4) + ", expected version " + VERSION);
+		}
+		int numPlayers = buffer.getInt(8);
+		int numWeeks = buffer.getInt(12);
+		int numPositions = buffer.getInt(16);
+		int numBestAvailable = buffer.getInt(20);
+		if (numPositions != Position.values().length) {
+			throw new IOException(file + " was written with " + numPositions + " positions, expected " + Position.values().length);
+		}
+		int playerTableOffset = HEADER_BYTES;
+		int weekTableOffset = playerTableOffset + numPlayers * 4;
+		int projectionsOffset = weekTableOffset + numWeeks * 2 * 4;
+		int waiversOffset = projectionsOffset + numWeeks * numPlayers * 8;
+		int bestAvailableOffset = waiversOffset + numWeeks * numPositions * 8;
+		if (buffer.limit() < bestAvailableOffset) {
+			throw new IOException(file + " is truncated");
+		}
+
+		IntBuffer playerIds = slice(buffer, playerTableOffset, numPlayers * 4).asIntBuffer();
+		weeks = new ArrayList<WeekProjections>(numWeeks);
+		for (int w = 0; w < numWeeks; w++) {
+			WeekProjections week = new WeekProjections(buffer.getInt(weekTableOffset + w * 2 * 4));
+			week.setVersion(buffer.getInt(weekTableOffset + w * 2 * 4 + 4));
+			week.addProjectionColumn(playerIds, slice(buffer, projectionsOffset + w * numPlayers * 8, numPlayers * 8).asDoubleBuffer());
+			for (Position position : Position.values()) {
+				double waiverValue = buffer.getDouble(waiversOffset + (w * numPositions + position.ordinal()) * 8);
+				if (!Double.isNaN(waiverValue)) {
+					week.tryAddTopWaiverPositionValue(waiverValue, position);
+				}
+			}
+			weeks.add(week);
+		}
+
+		bestAvailablePlayersByPosition = new EnumMap<Position, Player>(Position.class);
+		ByteBuffer players = slice(buffer, bestAvailableOffset, buffer.limit() - bestAvailableOffset);
+		for (int i = 0; i < numBestAvailable; i++) {
+			Position position = Position.values()[players.getInt()];
+			int playerId = players.getInt();
+			int byeWeek = players.getInt();
+			byte[] name = new byte[players.getInt()];
+			players.get(name);
+			bestAvailablePlayersByPosition.put(position, new Player(new String(name, StandardCharsets.UTF_8), position, playerId, byeWeek));
+		}
+	}
+
+	@Override
+	public List<WeekProjections> getWeekProjections() {
+		return weeks;
+	}
+
+	@Override
+	public Map<Position, Player> getBestAvailablePlayersByPosition() {
+		return bestAvailablePlayersByPosition;
+	}
+
+	/*
+	 * Writes a snapshot of every week of projections from source, source's weeks must not be indexed by a league yet
+	 */
+	public static void write(File file, ProjectionDataSource source) throws IOException {
+		write(file, source.getWeekProjections(), source.getBestAvailablePlayersByPosition());
+	}
+
+	/*
+	 * Writes a snapshot of weeks and the best available players, weeks must not be indexed by a league yet.
+	 * The file is written to a temporary file and moved into place, so a snapshot being read is never partly written.
+	 */
+	public static void write(File file, List<WeekProjections> weeks, Map<Position, Player> bestAvailablePlayers) throws IOException {
+		TreeSet<Integer> allPlayerIds = new TreeSet<Integer>();
+		List<Map<Integer, Double>> projectionsForWeek = new ArrayList<Map<Integer, Double>>();
+		for (WeekProjections week : weeks) {
+			Map<Integer, Double> projections = week.getProjectionsForWeek();
+			if (projections == null) {
+				throw new IllegalStateException("Projections for week " + week.getWeekNum() + " were already indexed");
+			}
+			projectionsForWeek.add(projections);
+			allPlayerIds.addAll(projections.keySet());
+		}
+		int[] playerIds = new int[allPlayerIds.size()];
+		int p = 0;
+		for (int playerId : allPlayerIds) {
+			playerIds[p++] = playerId;
+		}
+		int numPositions = Position.values().length;
+
+		List<byte[]> names = new ArrayList<byte[]>();
+		int bestAvailableBytes = 0;
+		for (Player player : bestAvailablePlayers.values()) {
+			byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+			names.add(name);
+			bestAvailableBytes += 4 * 4 + name.length;
+		}
+		long size = HEADER_BYTES + (long) playerIds.length * 4 + weeks.size() * 2 * 4 + (long) weeks.size() * playerIds.length * 8
+				+ weeks.size() * numPositions * 8 + bestAvailableBytes;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Too many projections for a snapshot: " + size + " bytes");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(playerIds.length).putInt(weeks.size()).putInt(numPositions).putInt(bestAvailablePlayers.size());
+		for (int playerId : playerIds) {
+			buffer.putInt(playerId);
+		}
+		for (WeekProjections week : weeks) {
+			buffer.putInt(week.getWeekNum()).putInt(week.getVersion());
+		}
+		for (Map<Integer, Double> projections : projectionsForWeek) {
+			for (int playerId : playerIds) {
+				Double projection = projections.get(playerId);
+				buffer.putDouble(projection == null ? Double.NaN : projection);
+			}
+		}
+		double[] waiverValues = new double[numPositions];
+		for (WeekProjections week : weeks) {
+			Arrays.fill(waiverValues, Double.NaN);
+			for (Map.Entry<Position, Double> waiver : week.getTopWaiverForPositions().entrySet()) {
+				waiverValues[waiver.getKey().ordinal()] = waiver.getValue();
+			}
+			for (double waiverValue : waiverValues) {
+				buffer.putDouble(waiverValue);
+			}
+		}
+		int n = 0;
+		for (Map.Entry<Position, Player> available : bestAvailablePlayers.entrySet()) {
+			byte[] name = names.get(n++);
+			buffer.putInt(available.getKey().ordinal()).putInt(available.getValue().getPlayerId()).putInt(available.getValue().getByeWeek()).putInt(name.length);
+			buffer.put(name);
+		}
+
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile("projections", ".tmp", directory);
+		try {
+			Files.write(temp.toPath(), buffer.array());
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(offset);
+		duplicate.limit(offset + length);
+		return duplicate.slice();
+	}
+}
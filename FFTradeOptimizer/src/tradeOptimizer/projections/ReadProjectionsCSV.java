@@ -1,26 +1,59 @@
 package tradeOptimizer.projections;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import tradeOptimizer.league.Player;
 import tradeOptimizer.league.Position;
 
-import com.opencsv.CSVReader;
+import com.opencsv.CSVParser;
 
+/*
+ * Reads projections written by ProjectionCSVWriter. The file is read into memory and scanned once for the lines starting a section
+ * (BESTWAIVERPLAYERS, WEEK and WEEKWAIVERS), then the rows of every WEEK section are parsed in parallel into arrays of Player Ids
+ * and projections. Rows of plain numbers are parsed directly from the file's bytes, any other row is parsed with opencsv so every
+ * row is read the same way as a CSVReader would. Each row must be on a single line, as ProjectionCSVWriter writes them.
+ * Rows that can't be read are skipped and counted, a single warning is printed with the count once the file is read.
+ */
 public class ReadProjectionsCSV implements ProjectionDataSource {
 
-	private CSVReader reader;
+	private static final String BEST_WAIVER_PLAYERS = "BESTWAIVERPLAYERS";
+	private static final String WEEK = "WEEK";
+	private static final String WEEK_WAIVERS = "WEEKWAIVERS";
+	//powers of 10 that are exactly representable as doubles
+	private static final double[] POWERS_OF_10 = new double[23];
+	static {
+		POWERS_OF_10[0] = 1.0;
+		for (int i = 1; i < POWERS_OF_10.length; i++) {
+			POWERS_OF_10[i] = POWERS_OF_10[i - 1] * 10;
+		}
+	}
+
+	private final String fileName;
+	private byte[] data;
+	//start and end (exclusive, without the line terminator) of each line in data
+	private int[] lineStart;
+	private int[] lineEnd;
 	private boolean readerCreated = false;
 	private HashMap<Position, Player> bestAvailablePlayersByPosition;
-	
+	private int malformedRows = 0;
+
 	public ReadProjectionsCSV(String fileName) {
+		this.fileName = fileName;
 		try {
-			reader = new CSVReader(new FileReader(fileName));
+			data = Files.readAllBytes(Paths.get(fileName));
 			readerCreated = true;
 			this.bestAvailablePlayersByPosition = new HashMap<Position, Player>();
 		} catch (IOException e) {
@@ -28,104 +61,431 @@ public class ReadProjectionsCSV implements ProjectionDataSource {
 			e.printStackTrace();
 		}
 	}
-	
+
 	public HashMap<Position, Player> getBestAvailablePlayersByPosition() {
 		return this.bestAvailablePlayersByPosition;
 	}
-	
+
 	public boolean isCreated() {
 		return this.readerCreated;
 	}
-	
+
+	/*
+	 * Returns the number of rows skipped by getWeekProjections() because they couldn't be read
+	 */
+	public int getMalformedRowCount() {
+		return malformedRows;
+	}
+
 	public List<WeekProjections> getWeekProjections() {
 		List<WeekProjections> projectionData = new ArrayList<WeekProjections>();
-		List<Integer> weeksAdded = new ArrayList<Integer>();
+		if (data == null) {
+			return projectionData;
+		}
+		malformedRows = 0;
+		List<Section> sections = findSections();
+		//WEEK sections are parsed in parallel, the rest of the file is read in order below
+		List<ForkJoinTask<WeekRows>> weekTasks = new ArrayList<ForkJoinTask<WeekRows>>();
+		for (Section section : sections) {
+			if (section.control.length > 0 && section.control[0].equals(WEEK)) {
+				weekTasks.add(ForkJoinPool.commonPool().submit(() -> parseWeekRows(section)));
+			} else {
+				weekTasks.add(null);
+			}
+		}
+
+		Set<Integer> weeksAdded = new HashSet<Integer>();
 		String loadDataControl = "";
-		List<String> dataControlsUsed = Arrays.asList("BESTWAIVERPLAYERS", "WEEK", "WEEKWAIVERS");
 		int currentWeek = 0;
 		WeekProjections currentWeekProjections = new WeekProjections(0);
-		HashMap<Integer,Double> weekProjectionsMap = new HashMap<Integer,Double>();
-		String[] nextLine;
-		try {
-			while ((nextLine = reader.readNext()) != null) {
-				if (dataControlsUsed.contains(nextLine[0])) {
-					loadDataControl = nextLine[0];
-					if (loadDataControl.equals("WEEK")) {
-						//if this isn't first week being loaded then previous week projection data must be stored
-						if (weekProjectionsMap.size() > 0 && !currentWeekProjections.getProjectionsSet()) {
-						    currentWeekProjections.addProjectionsForWeek(weekProjectionsMap);
-						}
-						if (!weeksAdded.contains(currentWeek) && currentWeek != 0 && currentWeekProjections.getProjectionsSet()) {
-							projectionData.add(currentWeekProjections);
-							weeksAdded.add(currentWeek);
-						}
-						currentWeek = Integer.valueOf(nextLine[1]);
-						currentWeekProjections = new WeekProjections(currentWeek);
-						weekProjectionsMap = new HashMap<Integer,Double>();
-					} else if (loadDataControl.equals("WEEKWAIVERS")) {
-						if (Integer.valueOf(nextLine[1]) != currentWeek) {
-							loadDataControl = "";
-							System.out.println("Warning, unexpected week for waiver player data");
-						}
+		WeekRows weekRows = null;
+		CSVParser parser = new CSVParser();
+		for (int s = 0; s < sections.size(); s++) {
+			Section section = sections.get(s);
+			//lines before the first section have no control
+			if (section.control.length > 0) {
+				loadDataControl = section.control[0];
+				if (loadDataControl.equals(WEEK)) {
+					//if this isn't first week being loaded then previous week projection data must be stored
+					if (weekRows != null && weekRows.size > 0 && !currentWeekProjections.getProjectionsSet()) {
+						weekRows.addTo(currentWeekProjections);
+					}
+					if (!weeksAdded.contains(currentWeek) && currentWeek != 0 && currentWeekProjections.getProjectionsSet()) {
+						projectionData.add(currentWeekProjections);
+						weeksAdded.add(currentWeek);
+					}
+					Integer week = parseIntField(section.control, 1);
+					if (week == null) {
+						malformedRows++;
+						loadDataControl = "";
+						continue;
+					}
+					currentWeek = week;
+					currentWeekProjections = new WeekProjections(currentWeek);
+					weekRows = null;
+				} else if (loadDataControl.equals(WEEK_WAIVERS)) {
+					Integer week = parseIntField(section.control, 1);
+					if (week == null) {
+						malformedRows++;
+						loadDataControl = "";
+					} else if (week != currentWeek) {
+						loadDataControl = "";
+						System.out.println("Warning, unexpected week for waiver player data");
 					}
-				} else {
-					switch (loadDataControl) {
-					case "BESTWAIVERPLAYERS":
-						//format should be: position, name, byeweek, player ID
-						//must confirm ID field is a valid integer
-						try {
-						    int playerId = Integer.valueOf(nextLine[3]);
-						    String positionText = nextLine[0];
-						    if (Position.isValidPosition(positionText)) {
-						    	Position position = Position.valueOf(positionText);
-						        this.bestAvailablePlayersByPosition.put(position, new Player(nextLine[1], position, playerId));
-						    }
-
-						} catch (NumberFormatException ex) {
-							System.out.println("Warning, unable to read player ID for top waiver player: " + nextLine[1]);
-						}
-						break;
-					case "WEEK":
-						//need to parse both player ID and projected point value
-						try {
-							int playerId = Integer.valueOf(nextLine[0]);
-							double projectedPoints = Double.valueOf(nextLine[1]);
-							weekProjectionsMap.put(playerId, projectedPoints);
-						} catch (NumberFormatException ex) {
-							System.out.println("Warning, failed to parse projected points for player: " + nextLine[0] + " in week: " + String.valueOf(currentWeek));
-						}
-						break;
-					case "WEEKWAIVERS":
-						try {
-							double projectedPoints = Double.valueOf(nextLine[1]);
-							String positionText = nextLine[0];
-							if (Position.isValidPosition(positionText)) {
-						    	Position position = Position.valueOf(positionText);
-							    currentWeekProjections.tryAddTopWaiverPositionValue(projectedPoints, position);
-							}
-						} catch (NumberFormatException ex) {
-							System.out.println("Warning, failed to parse top waiver points for: " + nextLine[0] + " in week: " + String.valueOf(currentWeek));
-						}
-						break;
-					default:
-						//if no valid control is set can't trust data being parsed
-						break;
-					} 
 				}
 			}
-			//add last week after end of file has been parsed
-			if (weekProjectionsMap.size() > 0 && !currentWeekProjections.getProjectionsSet()) {
-			    currentWeekProjections.addProjectionsForWeek(weekProjectionsMap);
+			switch (loadDataControl) {
+			case BEST_WAIVER_PLAYERS:
+				for (int line = section.firstLine; line < section.endLine; line++) {
+					//format should be: position, name, byeweek, player ID
+					//must confirm ID field is a valid integer
+					String[] nextLine = parseLine(parser, line);
+					Integer playerId = parseIntField(nextLine, 3);
+					if (playerId == null) {
+						malformedRows++;
+						continue;
+					}
+				    String positionText = nextLine[0];
+				    if (Position.isValidPosition(positionText)) {
+				    	Position position = Position.valueOf(positionText);
+				        this.bestAvailablePlayersByPosition.put(position, new Player(nextLine[1], position, playerId));
+				    }
+				}
+				break;
+			case WEEK:
+				weekRows = weekTasks.get(s).join();
+				malformedRows += weekRows.malformedRows;
+				break;
+			case WEEK_WAIVERS:
+				for (int line = section.firstLine; line < section.endLine; line++) {
+					String[] nextLine = parseLine(parser, line);
+					Double projectedPoints = parseDoubleField(nextLine, 1);
+					if (projectedPoints == null) {
+						malformedRows++;
+						continue;
+					}
+					String positionText = nextLine[0];
+					if (Position.isValidPosition(positionText)) {
+				    	Position position = Position.valueOf(positionText);
+					    currentWeekProjections.tryAddTopWaiverPositionValue(projectedPoints, position);
+					}
+				}
+				break;
+			default:
+				//if no valid control is set can't trust data being parsed
+				break;
 			}
-			if (!weeksAdded.contains(currentWeek) && currentWeek != 0) {
-				projectionData.add(currentWeekProjections);
-				weeksAdded.add(currentWeek);
+		}
+		//add last week after end of file has been parsed
+		if (weekRows != null && weekRows.size > 0 && !currentWeekProjections.getProjectionsSet()) {
+			weekRows.addTo(currentWeekProjections);
+		}
+		if (!weeksAdded.contains(currentWeek) && currentWeek != 0) {
+			projectionData.add(currentWeekProjections);
+			weeksAdded.add(currentWeek);
+		}
+		if (malformedRows > 0) {
+			System.out.println("Warning, skipped " + malformedRows + " rows of " + fileName + " that couldn't be read");
+		}
+		return projectionData;
+	}
+
+	/*
+	 * A control line and the lines following it up to the next control line
+	 */
+	private static class Section {
+		String[] control;
+		int firstLine;
+		int endLine;
+	}
+
+	/*
+	 * Splits data into lines the same way as BufferedReader.readLine() and groups them into sections. Only lines containing
+	 * a W can be control lines, they're parsed with opencsv to check.
+	 */
+	private List<Section> findSections() {
+		int numLines = 0;
+		lineStart = new int[1024];
+		lineEnd = new int[1024];
+		List<Section> sections = new ArrayList<Section>();
+		Section section = new Section();
+		section.control = new String[0];
+		CSVParser parser = new CSVParser();
+		int i = 0;
+		while (i < data.length) {
+			int start = i;
+			boolean hasW = false;
+			while (i < data.length && data[i] != '\n' && data[i] != '\r') {
+				hasW |= data[i] == 'W';
+				i++;
+			}
+			if (numLines == lineStart.length) {
+				lineStart = Arrays.copyOf(lineStart, numLines * 2);
+				lineEnd = Arrays.copyOf(lineEnd, numLines * 2);
 			}
+			lineStart[numLines] = start;
+			lineEnd[numLines] = i;
+			if (i < data.length && data[i] == '\r' && i + 1 < data.length && data[i + 1] == '\n') {
+				i++;
+			}
+			i++;
+			if (hasW) {
+				String[] fields = parseLine(parser, numLines);
+				if (fields.length > 0 && (fields[0].equals(WEEK) || fields[0].equals(WEEK_WAIVERS) || fields[0].equals(BEST_WAIVER_PLAYERS))) {
+					section.endLine = numLines;
+					sections.add(section);
+					section = new Section();
+					section.control = fields;
+					section.firstLine = numLines + 1;
+				}
+			}
+			numLines++;
+		}
+		section.endLine = numLines;
+		sections.add(section);
+		return sections;
+	}
+
+	/*
+	 * Parses a line with opencsv, the same way as CSVReader
+	 */
+	private String[] parseLine(CSVParser parser, int line) {
+		String text = new String(data, lineStart[line], lineEnd[line] - lineStart[line], Charset.defaultCharset());
+		try {
+			String[] fields = parser.parseLine(text);
+			return fields == null ? new String[0] : fields;
 		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			return new String[0];
+		}
+	}
+
+	/*
+	 * Player Ids and projections of a WEEK section's rows in the order they're read
+	 */
+	private static class WeekRows {
+		int[] playerIds = new int[256];
+		double[] projections = new double[256];
+		int size = 0;
+		int malformedRows = 0;
+
+		void add(int playerId, double projection) {
+			if (size == playerIds.length) {
+				playerIds = Arrays.copyOf(playerIds, size * 2);
+				projections = Arrays.copyOf(projections, size * 2);
+			}
+			playerIds[size] = playerId;
+			projections[size] = projection;
+			size++;
+		}
+
+		/*
+		 * Adds the rows as the week's projections, a player listed more than once has the projection of their last row like
+		 * a map of the rows would
+		 */
+		void addTo(WeekProjections week) {
+			long[] idAndRow = new long[size];
+			boolean hasNaN = false;
+			for (int i = 0; i < size; i++) {
+				idAndRow[i] = ((long) playerIds[i] << 32) | i;
+				hasNaN |= Double.isNaN(projections[i]);
+			}
+			if (hasNaN) {
+				//NaN marks missing projections in a column, so these are added as a map
+				HashMap<Integer, Double> projectionsMap = new HashMap<Integer, Double>();
+				for (int i = 0; i < size; i++) {
+					projectionsMap.put(playerIds[i], projections[i]);
+				}
+				week.addProjectionsForWeek(projectionsMap);
+				return;
+			}
+			Arrays.sort(idAndRow);
+			int[] sortedPlayerIds = new int[size];
+			double[] sortedProjections = new double[size];
+			int n = 0;
+			for (int i = 0; i < size; i++) {
+				int playerId = (int) (idAndRow[i] >> 32);
+				if (i + 1 < size && (int) (idAndRow[i + 1] >> 32) == playerId) {
+					continue;
+				}
+				sortedPlayerIds[n] = playerId;
+				sortedProjections[n] = projections[(int) idAndRow[i]];
+				n++;
+			}
+			week.addProjectionColumn(IntBuffer.wrap(Arrays.copyOf(sortedPlayerIds, n)), DoubleBuffer.wrap(Arrays.copyOf(sortedProjections, n)));
+		}
+	}
+
+	/*
+	 * Parses the rows of a WEEK section, rows of two plain numbers are read from the bytes and others with opencsv
+	 */
+	private WeekRows parseWeekRows(Section section) {
+		WeekRows rows = new WeekRows();
+		CSVParser parser = null;
+		int[] field = new int[2];
+		for (int line = section.firstLine; line < section.endLine; line++) {
+			if (!parsePlainRow(line, rows, field)) {
+				if (parser == null) {
+					parser = new CSVParser();
+				}
+				//need to parse both player ID and projected point value
+				String[] nextLine = parseLine(parser, line);
+				Integer playerId = parseIntField(nextLine, 0);
+				Double projectedPoints = playerId == null ? null : parseDoubleField(nextLine, 1);
+				if (projectedPoints == null) {
+					rows.malformedRows++;
+				} else {
+					rows.add(playerId, projectedPoints);
+				}
+			}
+		}
+		return rows;
+	}
+
+	/*
+	 * Adds a row whose first two fields are plain numbers, quoted or not, and whose other fields have no quotes or escapes.
+	 * Returns false if the row has to be parsed with opencsv.
+	 */
+	private boolean parsePlainRow(int line, WeekRows rows, int[] field) {
+		int end = lineEnd[line];
+		int i = nextPlainField(lineStart[line], end, field);
+		if (i < 0) {
+			return false;
+		}
+		long playerId = parsePlainInt(field[0], field[1]);
+		if (playerId == Long.MIN_VALUE || i >= end) {
+			return false;
+		}
+		i = nextPlainField(i + 1, end, field);
+		if (i < 0) {
+			return false;
+		}
+		double projection = parsePlainDouble(field[0], field[1]);
+		if (Double.isNaN(projection)) {
+			return false;
+		}
+		for (; i < end; i++) {
+			if (data[i] == '"' || data[i] == '\\') {
+				return false;
+			}
+		}
+		rows.add((int) playerId, projection);
+		return true;
+	}
+
+	/*
+	 * Finds the field starting at start, sets field to the start and end of its content and returns the index of the
+	 * separator or line end after it. Returns -1 if the field has escapes or quotes other than around the whole field.
+	 */
+	private int nextPlainField(int start, int end, int[] field) {
+		int i = start;
+		if (i < end && data[i] == '"') {
+			i++;
+			field[0] = i;
+			while (i < end && data[i] != '"') {
+				if (data[i] == '\\') {
+					return -1;
+				}
+				i++;
+			}
+			if (i == end) {
+				return -1;
+			}
+			field[1] = i;
+			i++;
+			return i == end || data[i] == ',' ? i : -1;
+		}
+		field[0] = i;
+		while (i < end && data[i] != ',') {
+			if (data[i] == '"' || data[i] == '\\') {
+				return -1;
+			}
+			i++;
+		}
+		field[1] = i;
+		return i;
+	}
+
+	/*
+	 * Parses an optionally signed integer of up to 9 digits, returns Long.MIN_VALUE for anything else
+	 */
+	private long parsePlainInt(int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (data[i] == '-' || data[i] == '+')) {
+			negative = data[i] == '-';
+			i++;
+		}
+		if (i == end || end - i > 9) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = data[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Parses an optionally signed decimal number of up to 15 digits, returns NaN for anything else. Both the digits and the
+	 * power of 10 are exact doubles, so the division is rounded exactly like Double.valueOf().
+	 */
+	private double parsePlainDouble(int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (data[i] == '-' || data[i] == '+')) {
+			negative = data[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int numDigits = 0;
+		int fractionDigits = -1;
+		for (; i < end; i++) {
+			int digit = data[i] - '0';
+			if (digit >= 0 && digit <= 9) {
+				mantissa = mantissa * 10 + digit;
+				numDigits++;
+				if (fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			} else if (data[i] == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else {
+				return Double.NaN;
+			}
+		}
+		if (numDigits == 0 || numDigits > 15) {
+			return Double.NaN;
+		}
+		double value = fractionDigits > 0 ? mantissa / POWERS_OF_10[fractionDigits] : mantissa;
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Returns fields[index] parsed with Integer.valueOf, or null if there's no such field or it isn't a valid integer
+	 */
+	private static Integer parseIntField(String[] fields, int index) {
+		if (index >= fields.length) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(fields[index]);
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	private static Double parseDoubleField(String[] fields, int index) {
+		if (index >= fields.length) {
+			return null;
+		}
+		try {
+			return Double.valueOf(fields[index]);
+		} catch (NumberFormatException ex) {
+			return null;
 		}
-		
-		return projectionData;
 	}
 }
@@ -1,22 +1,33 @@
 package tradeOptimizer.projections;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
+import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.league.Position;
 /*
  * Class representing a week in the NFL season, holds data containing projected point values for players playing in the given week
  */
 public class WeekProjections {
 
-	private Map<Integer,Double> playerProjections; //maps player Id to the player's projected point total for the week
+	private Map<Integer,Double> playerProjections; //maps player Id to the player's projected point total for the week, released once indexed
+	private IntBuffer columnPlayerIds; //sorted Player Ids of a ProjectionSnapshot column used instead of playerProjections, released once indexed
+	private DoubleBuffer projectionColumn; //projection of each player in columnPlayerIds, NaN if the player has no projection
+	private double[] projectionForIndex; //projected points of every player in the league by player index, set when the league is set up
 	private Map<Position,Double> topWaiverValueForPosition; //maps each position to the point value of the highest projected player available on waivers
 	private int weekNumber; //week number in NFL season for each instance of class
 	private boolean projectionsSet = false; //indicates whether projection data has been set for the WeekProjections instance
+	private int version = 1; //incremented each time the week's projections are refreshed and found to have changed
+	private long contentHash; //hash of the projections and waiver values, calculated when first needed
+	private boolean contentHashSet = false;
 	
 	/*
 	 * Constructor for WeekProjections, only week number is stored initially as data will be added when projections are parsed
@@ -40,6 +51,50 @@ public class WeekProjections {
 	public Map<Position,Double> getTopWaiverForPositions() {
 		return topWaiverValueForPosition;
 	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	void setVersion(int version) {
+		this.version = version;
+	}
+
+	/*
+	 * Returns a hash of every projection and waiver value of the week, weeks with the same content have the same hash
+	 * however their projections are stored. Only valid once the projections and waiver values have been added.
+	 */
+	public long getContentHash() {
+		if (!contentHashSet) {
+			Hasher hasher = Hashing.murmur3_128().newHasher();
+			if (columnPlayerIds != null) {
+				//column is already sorted by Player Id
+				for (int i = 0; i < columnPlayerIds.limit(); i++) {
+					double projection = projectionColumn.get(i);
+					if (!Double.isNaN(projection)) {
+						hasher.putInt(columnPlayerIds.get(i)).putDouble(projection);
+					}
+				}
+			} else if (playerProjections != null) {
+				List<Integer> playerIds = new ArrayList<Integer>(playerProjections.keySet());
+				Collections.sort(playerIds);
+				for (int playerId : playerIds) {
+					hasher.putInt(playerId).putDouble(playerProjections.get(playerId));
+				}
+			}
+			//negative separator can't be mistaken for a Player Id
+			hasher.putInt(Integer.MIN_VALUE);
+			for (Position position : Position.values()) {
+				Double waiverValue = topWaiverValueForPosition.get(position);
+				if (waiverValue != null) {
+					hasher.putInt(position.ordinal()).putDouble(waiverValue);
+				}
+			}
+			contentHash = hasher.hash().asLong();
+			contentHashSet = true;
+		}
+		return contentHash;
+	}
 	
 	/*
 	 * Method to populate the playerId:projected points map for the given week
@@ -48,9 +103,104 @@ public class WeekProjections {
 		if (!projectionsSet) {
 		    playerProjections = new ImmutableMap.Builder().putAll(projections).build();
 		    projectionsSet = true;
+		    contentHashSet = false;
 		}
 	}
 	
+	/*
+	 * Uses a week's column of a ProjectionSnapshot as its projections, the column is read in place rather than copied into a map.
+	 * playerIds is sorted and projections holds the projection of the player at the same position, or NaN if there isn't one.
+	 */
+	void addProjectionColumn(IntBuffer playerIds, DoubleBuffer projections) {
+		if (!projectionsSet) {
+			columnPlayerIds = playerIds;
+			projectionColumn = projections;
+			projectionsSet = true;
+			contentHashSet = false;
+		}
+	}
+
+	/*
+	 * Returns the projections added for the week as a map of Player Id to projected points, only valid before the league is set up
+	 */
+	Map<Integer, Double> getProjectionsForWeek() {
+		if (playerProjections != null || columnPlayerIds == null) {
+			return playerProjections;
+		}
+		Map<Integer, Double> projections = new HashMap<Integer, Double>();
+		for (int i = 0; i < columnPlayerIds.limit(); i++) {
+			double projection = projectionColumn.get(i);
+			if (!Double.isNaN(projection)) {
+				projections.put(columnPlayerIds.get(i), projection);
+			}
+		}
+		return projections;
+	}
+
+	/*
+	 * Copies the projections of every player in the league into an array indexed by player index, playerIdForIndex holds
+	 * the Player Id of each index. Players without a projection have 0.0. Projections for players outside of the league
+	 * are no longer needed so the map or snapshot column is released.
+	 */
+	public void indexProjections(int[] playerIdForIndex) {
+		if (projectionsSet && projectionForIndex == null) {
+			//the hash needs every projection so it's calculated before they're released
+			getContentHash();
+			projectionForIndex = new double[playerIdForIndex.length];
+			for (int i = 0; i < playerIdForIndex.length; i++) {
+				projectionForIndex[i] = getProjectionById(playerIdForIndex[i]);
+			}
+			playerProjections = null;
+			columnPlayerIds = null;
+			projectionColumn = null;
+		}
+	}
+
+	/*
+	 * Returns the projection added for a Player Id, 0.0 if the player doesn't have one
+	 */
+	private double getProjectionById(int playerId) {
+		if (columnPlayerIds != null) {
+			//binary search of the column's sorted Player Ids
+			int low = 0;
+			int high = columnPlayerIds.limit() - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midPlayerId = columnPlayerIds.get(mid);
+				if (midPlayerId < playerId) {
+					low = mid + 1;
+				} else if (midPlayerId > playerId) {
+					high = mid - 1;
+				} else {
+					double projection = projectionColumn.get(mid);
+					return Double.isNaN(projection) ? 0.0 : projection;
+				}
+			}
+			return 0.0;
+		}
+		Double value = playerProjections.get(playerId);
+		return value == null ? 0.0 : value;
+	}
+
+	/*
+	 * Returns the projected points for a Player Id, 0.0 if the player doesn't have a projection. Once the league is set up
+	 * only players in the league have projections.
+	 */
+	public double getProjectionForPlayer(int playerId) {
+		if (projectionForIndex != null) {
+			int playerIndex = FantasyLeague.getPlayerIndex(playerId);
+			return playerIndex == -1 ? 0.0 : projectionForIndex[playerIndex];
+		}
+		return getProjectionById(playerId);
+	}
+
+	/*
+	 * Returns the projected points for the player with the given player index, only valid once the league is set up
+	 */
+	public double getProjection(int playerIndex) {
+		return projectionForIndex[playerIndex];
+	}
+
 	/*
 	 * Adds top projected point total for a given position if none exists yet for the current week
 	 * Projection parsing will read projections from highest value to lowest and may not know whether
@@ -59,6 +209,7 @@ public class WeekProjections {
 	public void tryAddTopWaiverPositionValue(Double value, Position position) {
 		if (!topWaiverValueForPosition.containsKey(position)) {
 			topWaiverValueForPosition.put(position,value);
+			contentHashSet = false;
 			//System.out.println("Adding top " + position + " " + String.valueOf(value));
 		}
 	}
@@ -76,16 +227,48 @@ public class WeekProjections {
 		// If playerProjections map contains the playerId then we have a projected points value, use this to create the PlayerProjection
 		// if playerId isn't in map then we don't have a projected point value for the player (could be injured or on bye week etc.) so use 0.0
 		for (int playerId : players) {
-			Double value;
-			if (playerProjections.containsKey(playerId)) {
-			    value = playerProjections.get(playerId);
-			} else {
-				value = 0.0;
-			}
-			addedPlayers.add(new PlayerProjection(playerId, value));
+			addedPlayers.add(new PlayerProjection(playerId, getProjectionForPlayer(playerId)));
 		}
 		Collections.sort(addedPlayers);
 		return addedPlayers;
 	}
 
+	/*
+	 * Alternate version of getPlayersToUse for rosters of player indexes, only valid once the league is set up.
+	 * The list has room for the waiver players that may be added to it.
+	 */
+	public List<PlayerProjection> getPlayersToUse(int[] playerIndexes) {
+		int[] sortedIndexes = new int[playerIndexes.length];
+		double[] sortedProjections = new double[playerIndexes.length];
+		sortPlayers(playerIndexes, playerIndexes.length, sortedIndexes, sortedProjections);
+		List<PlayerProjection> addedPlayers = new ArrayList<PlayerProjection>(playerIndexes.length + FantasyLeague.getPositions().size());
+		for (int i = 0; i < sortedIndexes.length; i++) {
+			addedPlayers.add(new PlayerProjection(FantasyLeague.getPlayerIdForIndex(sortedIndexes[i]), sortedProjections[i]));
+		}
+		return addedPlayers;
+	}
+
+	/*
+	 * Sorts the first numPlayers player indexes highest to lowest by projection into sortedIndexes and copies their projections
+	 * into sortedProjections, without allocating. Indexes are in Player Id order so ties are broken the same way as PlayerProjection.
+	 */
+	public void sortPlayers(int[] playerIndexes, int numPlayers, int[] sortedIndexes, double[] sortedProjections) {
+		for (int i = 0; i < numPlayers; i++) {
+			int playerIndex = playerIndexes[i];
+			double projection = projectionForIndex[playerIndex];
+			int j = i - 1;
+			while (j >= 0) {
+				int compare = Double.compare(sortedProjections[j], projection);
+				if (compare > 0 || (compare == 0 && sortedIndexes[j] < playerIndex)) {
+					break;
+				}
+				sortedIndexes[j + 1] = sortedIndexes[j];
+				sortedProjections[j + 1] = sortedProjections[j];
+				j--;
+			}
+			sortedIndexes[j + 1] = playerIndex;
+			sortedProjections[j + 1] = projection;
+		}
+	}
+
 }
@@ -0,0 +1,188 @@
+package tradeOptimizer.synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.data.LeagueDataSource;
+
+/*
+ * LeagueDataSource that generates teams and players from SyntheticLeagueSettings instead of querying Yahoo, used to test and benchmark
+ * leagues of any size offline. Each player's average projection and NFL team are generated with the league so SyntheticProjections
+ * can generate weekly projections for them. Players have Ids from 1 in roster order, the best available players follow the rostered players.
+ * The best available players are only returned by getBestAvailablePlayers, FantasyLeague adds them to its players separately.
+ */
+public class SyntheticLeagueData implements LeagueDataSource {
+
+	private final SyntheticLeagueSettings settings;
+	private final List<Team> teams;
+	private final Map<Integer, Player> playersById;
+	private final Map<Position, Player> bestAvailablePlayers;
+	private final Map<Integer, Integer> numPlayersOnByeForWeek;
+	//generated values used by SyntheticProjections, indexed by Player Id - 1
+	final Position[] positionForPlayer;
+	final double[] meanForPlayer;
+	final int[] byeWeekForPlayer; //0 if the player has no bye
+
+	public SyntheticLeagueData(SyntheticLeagueSettings settings) {
+		this.settings = settings;
+		Random random = new Random(settings.getSeed());
+		int[] byeWeekForNflTeam = getByeWeeks(settings);
+		List<Position> rosterPositions = getRosterPositions(settings.getLeaguePositions(), settings.getRosterSize());
+		List<Position> availablePositions = getFootballPositions(settings.getLeaguePositions());
+		int numPlayers = settings.getNumTeams() * settings.getRosterSize() + availablePositions.size();
+		positionForPlayer = new Position[numPlayers];
+		meanForPlayer = new double[numPlayers];
+		byeWeekForPlayer = new int[numPlayers];
+		teams = new ArrayList<Team>(settings.getNumTeams());
+		playersById = new HashMap<Integer, Player>(numPlayers * 2);
+		numPlayersOnByeForWeek = new HashMap<Integer, Integer>();
+		for (int week = settings.getCurrentWeek(); week <= settings.getLastWeek(); week++) {
+			numPlayersOnByeForWeek.put(week, 0);
+		}
+		int playerId = 1;
+		for (int t = 0; t < settings.getNumTeams(); t++) {
+			Team team = new Team("Team " + (t + 1));
+			for (Position position : rosterPositions) {
+				List<Position> footballPositions = Arrays.asList(position);
+				if ((position == Position.RB || position == Position.WR) && random.nextDouble() < settings.getMultiPositionRate()) {
+					footballPositions = Arrays.asList(Position.WR, Position.RB);
+				}
+				Player player = new Player("Player " + playerId, footballPositions, playerId, byeWeekForNflTeam[random.nextInt(byeWeekForNflTeam.length)]);
+				addPlayer(player, position, random);
+				playersById.put(playerId, player);
+				team.addPlayer(playerId);
+				playerId++;
+			}
+			teams.add(team);
+		}
+		bestAvailablePlayers = new EnumMap<Position, Player>(Position.class);
+		for (Position position : availablePositions) {
+			Player player = new Player("Available " + position.name(), position, playerId, byeWeekForNflTeam[random.nextInt(byeWeekForNflTeam.length)]);
+			addPlayer(player, position, random);
+			//the best available player is about as good as the best waiver player
+			meanForPlayer[playerId - 1] = settings.getProjectionDistribution(position).getWaiverValue();
+			bestAvailablePlayers.put(position, player);
+			playerId++;
+		}
+	}
+
+	private void addPlayer(Player player, Position position, Random random) {
+		int index = player.getPlayerId() - 1;
+		SyntheticLeagueSettings.ProjectionDistribution distribution = settings.getProjectionDistribution(position);
+		positionForPlayer[index] = position;
+		meanForPlayer[index] = distribution.getMinMean() + random.nextDouble() * (distribution.getMaxMean() - distribution.getMinMean());
+		byeWeekForPlayer[index] = player.getByeWeek();
+		Integer numOnBye = numPlayersOnByeForWeek.get(player.getByeWeek());
+		if (numOnBye != null) {
+			numPlayersOnByeForWeek.put(player.getByeWeek(), numOnBye + 1);
+		}
+	}
+
+	/*
+	 * Returns the bye week of each NFL team, byes are spread evenly over the bye weeks in settings
+	 */
+	private static int[] getByeWeeks(SyntheticLeagueSettings settings) {
+		int[] byeWeeks = new int[settings.getNumNflTeams()];
+		int numByeWeeks = settings.getLastByeWeek() - settings.getFirstByeWeek() + 1;
+		if (numByeWeeks > 0) {
+			for (int i = 0; i < byeWeeks.length; i++) {
+				byeWeeks[i] = settings.getFirstByeWeek() + i % numByeWeeks;
+			}
+		}
+		return byeWeeks;
+	}
+
+	/*
+	 * Returns the football position of each player on a roster. Each football position is weighted by the number of league
+	 * positions it can fill (a flex position counts as 1 / number of football positions it allows) and roster spots are given
+	 * out one at a time to the position with the highest weight / (players so far + 1), so starters are added before bench players.
+	 */
+	static List<Position> getRosterPositions(List<LeaguePosition> leaguePositions, int rosterSize) {
+		Map<Position, Double> weightForPosition = new EnumMap<Position, Double>(Position.class);
+		for (LeaguePosition leaguePosition : leaguePositions) {
+			for (Position position : leaguePosition.getPossiblePositions()) {
+				Double weight = weightForPosition.get(position);
+				weightForPosition.put(position, (weight == null ? 0.0 : weight) + 1.0 / leaguePosition.getPossiblePositions().size());
+			}
+		}
+		Map<Position, Integer> countForPosition = new EnumMap<Position, Integer>(Position.class);
+		for (Position position : weightForPosition.keySet()) {
+			countForPosition.put(position, 0);
+		}
+		List<Position> rosterPositions = new ArrayList<Position>(rosterSize);
+		for (int i = 0; i < rosterSize; i++) {
+			Position next = null;
+			double nextPriority = -1.0;
+			for (Map.Entry<Position, Double> weight : weightForPosition.entrySet()) {
+				double priority = weight.getValue() / (countForPosition.get(weight.getKey()) + 1);
+				if (priority > nextPriority) {
+					next = weight.getKey();
+					nextPriority = priority;
+				}
+			}
+			countForPosition.put(next, countForPosition.get(next) + 1);
+			rosterPositions.add(next);
+		}
+		return rosterPositions;
+	}
+
+	private static List<Position> getFootballPositions(List<LeaguePosition> leaguePositions) {
+		Map<Position, Boolean> footballPositions = new EnumMap<Position, Boolean>(Position.class);
+		for (LeaguePosition leaguePosition : leaguePositions) {
+			for (Position position : leaguePosition.getPossiblePositions()) {
+				footballPositions.put(position, true);
+			}
+		}
+		return new ArrayList<Position>(footballPositions.keySet());
+	}
+
+	public SyntheticLeagueSettings getSettings() {
+		return settings;
+	}
+
+	/*
+	 * Returns the player generated for each football position in the league to represent the best player available in free agency
+	 */
+	public Map<Position, Player> getBestAvailablePlayers() {
+		return bestAvailablePlayers;
+	}
+
+	@Override
+	public List<Team> getTeams() {
+		return teams;
+	}
+
+	@Override
+	public List<LeaguePosition> getLeaguePositions() {
+		return settings.getLeaguePositions();
+	}
+
+	@Override
+	public Map<Integer, Integer> getNumPlayersOnByeForWeek() {
+		return numPlayersOnByeForWeek;
+	}
+
+	@Override
+	public Map<Integer, Player> getPlayersById() {
+		return playersById;
+	}
+
+	@Override
+	public int getCurrentWeek() {
+		return settings.getCurrentWeek();
+	}
+
+	@Override
+	public String getLeagueName() {
+		return "Synthetic League " + settings.getSeed();
+	}
+}
@@ -0,0 +1,212 @@
+package tradeOptimizer.synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Position;
+
+/*
+ * Settings for generating a synthetic league with SyntheticLeagueData and SyntheticProjections. Every setting has a default
+ * resembling a standard 12 team Yahoo league, the same settings and seed always generate the same league and projections.
+ */
+public class SyntheticLeagueSettings {
+
+	private long seed = 1;
+	private int numTeams = 12;
+	private int rosterSize = 16;
+	private List<LeaguePosition> leaguePositions;
+	private int currentWeek = 1;
+	private int lastWeek = 16;
+	private int firstByeWeek = 5; //NFL teams' byes are spread evenly over firstByeWeek to lastByeWeek, no byes if firstByeWeek > lastByeWeek
+	private int lastByeWeek = 14;
+	private int numNflTeams = 32;
+	private double multiPositionRate = 0.04; //chance an RB or WR is listed at both positions
+	private double injuryRate = 1.0 / 30; //chance a player is projected for 0 points in a week
+	private Map<Position, ProjectionDistribution> distributionForPosition;
+
+	public SyntheticLeagueSettings() {
+		leaguePositions = new ArrayList<LeaguePosition>();
+		leaguePositions.add(new LeaguePosition("QB1", Arrays.asList(Position.QB)));
+		leaguePositions.add(new LeaguePosition("WR1", Arrays.asList(Position.WR)));
+		leaguePositions.add(new LeaguePosition("WR2", Arrays.asList(Position.WR)));
+		leaguePositions.add(new LeaguePosition("WR3", Arrays.asList(Position.WR)));
+		leaguePositions.add(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+		leaguePositions.add(new LeaguePosition("RB2", Arrays.asList(Position.RB)));
+		leaguePositions.add(new LeaguePosition("TE1", Arrays.asList(Position.TE)));
+		leaguePositions.add(new LeaguePosition("W/R/T1", Arrays.asList(Position.WR, Position.RB, Position.TE)));
+		leaguePositions.add(new LeaguePosition("DEF1", Arrays.asList(Position.DEF)));
+		distributionForPosition = new EnumMap<Position, ProjectionDistribution>(Position.class);
+		distributionForPosition.put(Position.QB, new ProjectionDistribution(12.0, 24.0, 5.0, 11.0));
+		distributionForPosition.put(Position.RB, new ProjectionDistribution(2.0, 18.0, 4.0, 7.0));
+		distributionForPosition.put(Position.WR, new ProjectionDistribution(2.0, 18.0, 4.0, 7.0));
+		distributionForPosition.put(Position.TE, new ProjectionDistribution(2.0, 14.0, 3.0, 5.0));
+		distributionForPosition.put(Position.K, new ProjectionDistribution(5.0, 10.0, 2.0, 6.0));
+		distributionForPosition.put(Position.DEF, new ProjectionDistribution(4.0, 10.0, 3.0, 6.0));
+		distributionForPosition.put(Position.D, new ProjectionDistribution(3.0, 12.0, 3.0, 5.0));
+	}
+
+	/*
+	 * Accessor methods
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getNumTeams() {
+		return numTeams;
+	}
+
+	public int getRosterSize() {
+		return rosterSize;
+	}
+
+	public List<LeaguePosition> getLeaguePositions() {
+		return leaguePositions;
+	}
+
+	public int getCurrentWeek() {
+		return currentWeek;
+	}
+
+	public int getLastWeek() {
+		return lastWeek;
+	}
+
+	public int getFirstByeWeek() {
+		return firstByeWeek;
+	}
+
+	public int getLastByeWeek() {
+		return lastByeWeek;
+	}
+
+	public int getNumNflTeams() {
+		return numNflTeams;
+	}
+
+	public double getMultiPositionRate() {
+		return multiPositionRate;
+	}
+
+	public double getInjuryRate() {
+		return injuryRate;
+	}
+
+	/*
+	 * Returns the distribution of projections for a football position, positions without one are projected like a WR
+	 */
+	public ProjectionDistribution getProjectionDistribution(Position position) {
+		ProjectionDistribution distribution = distributionForPosition.get(position);
+		return distribution == null ? distributionForPosition.get(Position.WR) : distribution;
+	}
+
+	/*
+	 * Modifier methods
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public void setNumTeams(int numTeams) {
+		if (numTeams < 2) {
+			throw new IllegalArgumentException("A league needs at least 2 teams: " + numTeams);
+		}
+		this.numTeams = numTeams;
+	}
+
+	/*
+	 * Sets the number of players on each team, rosters are split between football positions in proportion
+	 * to the number of league positions each can be used in
+	 */
+	public void setRosterSize(int rosterSize) {
+		if (rosterSize < 1) {
+			throw new IllegalArgumentException("Rosters need at least 1 player: " + rosterSize);
+		}
+		this.rosterSize = rosterSize;
+	}
+
+	public void setLeaguePositions(List<LeaguePosition> leaguePositions) {
+		if (leaguePositions.isEmpty()) {
+			throw new IllegalArgumentException("A league needs at least 1 position");
+		}
+		this.leaguePositions = new ArrayList<LeaguePosition>(leaguePositions);
+	}
+
+	/*
+	 * Sets the weeks projected, from currentWeek to lastWeek inclusive
+	 */
+	public void setWeeks(int currentWeek, int lastWeek) {
+		if (currentWeek < 1 || lastWeek < currentWeek) {
+			throw new IllegalArgumentException("Invalid weeks: " + currentWeek + " to " + lastWeek);
+		}
+		this.currentWeek = currentWeek;
+		this.lastWeek = lastWeek;
+	}
+
+	/*
+	 * Sets the bye weeks of the numNflTeams NFL teams players are assigned to, byes are spread evenly from firstByeWeek to lastByeWeek.
+	 * No player has a bye if firstByeWeek > lastByeWeek.
+	 */
+	public void setByeWeeks(int firstByeWeek, int lastByeWeek, int numNflTeams) {
+		if (numNflTeams < 1) {
+			throw new IllegalArgumentException("Players need at least 1 NFL team: " + numNflTeams);
+		}
+		this.firstByeWeek = firstByeWeek;
+		this.lastByeWeek = lastByeWeek;
+		this.numNflTeams = numNflTeams;
+	}
+
+	public void setMultiPositionRate(double multiPositionRate) {
+		this.multiPositionRate = multiPositionRate;
+	}
+
+	public void setInjuryRate(double injuryRate) {
+		this.injuryRate = injuryRate;
+	}
+
+	public void setProjectionDistribution(Position position, ProjectionDistribution distribution) {
+		distributionForPosition.put(position, distribution);
+	}
+
+	/*
+	 * Distribution of a football position's projections. Each player's average is drawn uniformly from minMean to maxMean and their
+	 * projection for a week is normally distributed around it with a standard deviation of weeklyStdDev, never below 0.
+	 * waiverValue is the average projection of the best player at the position available on waivers.
+	 */
+	public static class ProjectionDistribution {
+		private final double minMean;
+		private final double maxMean;
+		private final double weeklyStdDev;
+		private final double waiverValue;
+
+		public ProjectionDistribution(double minMean, double maxMean, double weeklyStdDev, double waiverValue) {
+			if (maxMean < minMean || weeklyStdDev < 0.0) {
+				throw new IllegalArgumentException("Invalid projection distribution: " + minMean + " to " + maxMean + ", standard deviation " + weeklyStdDev);
+			}
+			this.minMean = minMean;
+			this.maxMean = maxMean;
+			this.weeklyStdDev = weeklyStdDev;
+			this.waiverValue = waiverValue;
+		}
+
+		public double getMinMean() {
+			return minMean;
+		}
+
+		public double getMaxMean() {
+			return maxMean;
+		}
+
+		public double getWeeklyStdDev() {
+			return weeklyStdDev;
+		}
+
+		public double getWaiverValue() {
+			return waiverValue;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package tradeOptimizer.synthetic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * ProjectionDataSource that generates weekly projections for the players of a SyntheticLeagueData. Projections are generated
+ * from the league's settings and seed, so the same league always gets the same projections. Players on bye aren't projected
+ * and the top waiver value of every football position in the league is set for each week.
+ */
+public class SyntheticProjections implements ProjectionDataSource {
+
+	private final SyntheticLeagueData league;
+	private List<WeekProjections> weeks;
+
+	public SyntheticProjections(SyntheticLeagueData league) {
+		this.league = league;
+	}
+
+	/*
+	 * Generates the projections for every week the first time it's called, later calls return the same weeks
+	 */
+	@Override
+	public List<WeekProjections> getWeekProjections() {
+		if (weeks == null) {
+			weeks = generateWeeks();
+		}
+		return weeks;
+	}
+
+	@Override
+	public Map<Position, Player> getBestAvailablePlayersByPosition() {
+		return league.getBestAvailablePlayers();
+	}
+
+	private List<WeekProjections> generateWeeks() {
+		SyntheticLeagueSettings settings = league.getSettings();
+		//a different stream than the league's so changing how projections are generated doesn't change the rosters
+		Random random = new Random(settings.getSeed() * 31 + 17);
+		int numPlayers = league.meanForPlayer.length;
+		List<WeekProjections> generatedWeeks = new ArrayList<WeekProjections>();
+		for (int weekNum = settings.getCurrentWeek(); weekNum <= settings.getLastWeek(); weekNum++) {
+			WeekProjections week = new WeekProjections(weekNum);
+			Map<Integer, Double> projections = new HashMap<Integer, Double>(numPlayers * 2);
+			for (int i = 0; i < numPlayers; i++) {
+				if (league.byeWeekForPlayer[i] == weekNum) {
+					continue;
+				}
+				double projection = 0.0;
+				if (random.nextDouble() >= settings.getInjuryRate()) {
+					SyntheticLeagueSettings.ProjectionDistribution distribution = settings.getProjectionDistribution(league.positionForPlayer[i]);
+					projection = Math.max(0.0, league.meanForPlayer[i] + random.nextGaussian() * distribution.getWeeklyStdDev());
+				}
+				projections.put(i + 1, roundProjection(projection));
+			}
+			week.addProjectionsForWeek(projections);
+			for (Position position : league.getBestAvailablePlayers().keySet()) {
+				SyntheticLeagueSettings.ProjectionDistribution distribution = settings.getProjectionDistribution(position);
+				double waiverValue = Math.max(0.0, distribution.getWaiverValue() + random.nextGaussian() * distribution.getWeeklyStdDev() / 2);
+				week.tryAddTopWaiverPositionValue(roundProjection(waiverValue), position);
+			}
+			generatedWeeks.add(week);
+		}
+		return generatedWeeks;
+	}
+
+	/*
+	 * Projections are rounded to hundredths like Yahoo's
+	 */
+	private static double roundProjection(double projection) {
+		return Math.round(projection * 100) / 100.0;
+	}
+}
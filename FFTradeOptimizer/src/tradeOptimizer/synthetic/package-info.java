@@ -0,0 +1,4 @@
+/**
+ * Seeded, deterministic league and projection data sources for testing and benchmarking without network access
+ */
+package tradeOptimizer.synthetic;
@@ -0,0 +1,130 @@
+package tradeOptimizer.trades;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import tradeOptimizer.league.Team;
+
+/*
+ * TradeSink that writes trades on its own thread so the threads calculating trades don't wait for output. Trades are passed
+ * through a bounded queue, if the writer falls behind accept() blocks until there is room so memory doesn't grow with the number
+ * of trades. Output is flushed whenever the queue is empty, so trades reach disk while a run is still going.
+ * Subclasses only need to write single trades, every method they implement is called on the writer thread.
+ */
+public abstract class AsyncTradeSink implements TradeSink {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+	private static final TradeRecord END_OF_TRADES = new TradeRecord(null, null);
+
+	private final BlockingQueue<TradeRecord> queue;
+	private final Thread writerThread;
+	private final AtomicBoolean started = new AtomicBoolean(false);
+	private volatile boolean closed = false;
+
+	protected AsyncTradeSink(String name) {
+		this(name, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	protected AsyncTradeSink(String name, int queueCapacity) {
+		queue = new ArrayBlockingQueue<TradeRecord>(queueCapacity);
+		writerThread = new Thread(() -> writeTrades(), name);
+		writerThread.setDaemon(true);
+	}
+
+	@Override
+	public void accept(Team team, Trade trade) {
+		if (closed) {
+			throw new IllegalStateException("Trade sink is closed");
+		}
+		start();
+		put(new TradeRecord(team, trade));
+	}
+
+	/*
+	 * Waits for every trade accepted to be written, then closes the output
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		start();
+		put(END_OF_TRADES);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Writes a single trade, trades from every team are passed in the order they were accepted
+	 */
+	protected abstract void writeTrade(Team team, Trade trade) throws IOException;
+
+	protected abstract void flush() throws IOException;
+
+	/*
+	 * Called once after the last trade is written, or after writing fails
+	 */
+	protected abstract void finish() throws IOException;
+
+	//the thread is started by the first call so subclasses are fully constructed before any of their methods run
+	private void start() {
+		if (started.compareAndSet(false, true)) {
+			writerThread.start();
+		}
+	}
+
+	private void put(TradeRecord record) {
+		try {
+			queue.put(record);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void writeTrades() {
+		boolean writing = true;
+		try {
+			TradeRecord record = queue.take();
+			while (record != END_OF_TRADES) {
+				if (writing) {
+					try {
+						writeTrade(record.team, record.trade);
+						if (queue.isEmpty()) {
+							flush();
+						}
+					} catch (IOException | RuntimeException e) {
+						//keep taking trades so accept() never blocks on a sink that can't write
+						e.printStackTrace();
+						writing = false;
+					}
+				}
+				record = queue.take();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				finish();
+			} catch (IOException | RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static class TradeRecord {
+		private final Team team;
+		private final Trade trade;
+
+		TradeRecord(Team team, Trade trade) {
+			this.team = team;
+			this.trade = trade;
+		}
+	}
+}
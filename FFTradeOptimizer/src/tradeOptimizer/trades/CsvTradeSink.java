@@ -0,0 +1,70 @@
+package tradeOptimizer.trades;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import com.opencsv.CSVWriter;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Team;
+
+/*
+ * Writes each trade as a line of a CSV file, players are listed by Id and by name with multiple players separated by ';'
+ */
+public class CsvTradeSink extends AsyncTradeSink {
+
+	private static final String[] HEADER = {"Team", "Other Team", "Proj Point Increase", "Other Team Proj Point Increase",
+			"Player Ids to Get", "Players to Get", "Player Ids to Send", "Players to Send"};
+
+	private final CSVWriter writer;
+
+	public CsvTradeSink(String fileName) throws IOException {
+		super("CsvTradeSink " + fileName);
+		writer = new CSVWriter(new BufferedWriter(new FileWriter(fileName)));
+		writer.writeNext(HEADER);
+	}
+
+	@Override
+	protected void writeTrade(Team team, Trade trade) throws IOException {
+		String[] line = {team.getTeamName(), trade.getOtherTeamName(), String.valueOf(trade.getThisTeamPointIncrease()),
+				String.valueOf(trade.getOtherTeamPointIncrease()), joinIds(trade.getOtherTeamPlayers()), joinNames(trade.getOtherTeamPlayers()),
+				joinIds(trade.getThisTeamPlayers()), joinNames(trade.getThisTeamPlayers())};
+		writer.writeNext(line);
+	}
+
+	@Override
+	protected void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	protected void finish() throws IOException {
+		writer.close();
+	}
+
+	private static String joinIds(List<Integer> playerIds) {
+		StringBuilder ids = new StringBuilder();
+		for (Integer playerId : playerIds) {
+			if (ids.length() > 0) {
+				ids.append(';');
+			}
+			ids.append(playerId);
+		}
+		return ids.toString();
+	}
+
+	private static String joinNames(List<Integer> playerIds) {
+		StringBuilder names = new StringBuilder();
+		for (int i = 0; i < playerIds.size(); i++) {
+			if (i > 0) {
+				names.append(';');
+			}
+			Player player = FantasyLeague.getPlayerById(playerIds.get(i));
+			names.append(player == null ? "" : player.getName());
+		}
+		return names.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package tradeOptimizer.trades;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Team;
+
+/*
+ * Writes each trade as a JSON object on its own line, ie.
+ * {"team":"A","otherTeam":"B","pointIncrease":4.5,"otherTeamPointIncrease":3.2,"playersToGet":[{"id":1,"name":"X"}],"playersToSend":[...]}
+ */
+public class JsonLinesTradeSink extends AsyncTradeSink {
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder();
+
+	public JsonLinesTradeSink(String fileName) throws IOException {
+		super("JsonLinesTradeSink " + fileName);
+		writer = new BufferedWriter(new FileWriter(fileName));
+	}
+
+	@Override
+	protected void writeTrade(Team team, Trade trade) throws IOException {
+		line.setLength(0);
+		line.append("{\"team\":");
+		appendString(team.getTeamName());
+		line.append(",\"otherTeam\":");
+		appendString(trade.getOtherTeamName());
+		line.append(",\"pointIncrease\":").append(trade.getThisTeamPointIncrease());
+		line.append(",\"otherTeamPointIncrease\":").append(trade.getOtherTeamPointIncrease());
+		line.append(",\"playersToGet\":");
+		appendPlayers(trade.getOtherTeamPlayers());
+		line.append(",\"playersToSend\":");
+		appendPlayers(trade.getThisTeamPlayers());
+		line.append("}\n");
+		writer.write(line.toString());
+	}
+
+	@Override
+	protected void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	protected void finish() throws IOException {
+		writer.close();
+	}
+
+	private void appendPlayers(List<Integer> playerIds) {
+		line.append('[');
+		for (int i = 0; i < playerIds.size(); i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			Player player = FantasyLeague.getPlayerById(playerIds.get(i));
+			line.append("{\"id\":").append(playerIds.get(i)).append(",\"name\":");
+			if (player == null) {
+				line.append("null");
+			} else {
+				appendString(player.getName());
+			}
+			line.append('}');
+		}
+		line.append(']');
+	}
+
+	private void appendString(String value) {
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				line.append("\\\"");
+				break;
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					line.append(String.format("\\u%04x", (int) c));
+				} else {
+					line.append(c);
+				}
+			}
+		}
+		line.append('"');
+	}
+}
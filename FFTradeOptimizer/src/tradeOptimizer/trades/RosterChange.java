@@ -0,0 +1,109 @@
+package tradeOptimizer.trades;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Team;
+
+/*
+ * A transaction that changes the rosters of one or more Teams, such as an accepted trade or a waiver move, applied with
+ * TradeGenerator.applyRosterChange(). Players can only be added if they were part of the league when it was set up (on a
+ * roster or a best available player), a player new to the league needs the league to be set up again.
+ */
+public class RosterChange {
+
+	private final Map<Team, List<Integer>> droppedPlayers = new LinkedHashMap<Team, List<Integer>>();
+	private final Map<Team, List<Integer>> addedPlayers = new LinkedHashMap<Team, List<Integer>>();
+
+	/*
+	 * Returns the change made by a Trade kept for team being accepted
+	 */
+	public static RosterChange fromTrade(Team team, Trade trade) {
+		Team otherTeam = null;
+		for (Team leagueTeam : FantasyLeague.getTeams()) {
+			if (leagueTeam.getTeamName().equals(trade.getOtherTeamName())) {
+				otherTeam = leagueTeam;
+			}
+		}
+		if (otherTeam == null) {
+			throw new IllegalArgumentException("No team named " + trade.getOtherTeamName());
+		}
+		RosterChange change = new RosterChange();
+		for (int playerId : trade.getThisTeamPlayers()) {
+			change.movePlayer(playerId, team, otherTeam);
+		}
+		for (int playerId : trade.getOtherTeamPlayers()) {
+			change.movePlayer(playerId, otherTeam, team);
+		}
+		return change;
+	}
+
+	public RosterChange addPlayer(Team team, int playerId) {
+		getPlayers(addedPlayers, team).add(playerId);
+		return this;
+	}
+
+	public RosterChange dropPlayer(Team team, int playerId) {
+		getPlayers(droppedPlayers, team).add(playerId);
+		return this;
+	}
+
+	public RosterChange movePlayer(int playerId, Team from, Team to) {
+		dropPlayer(from, playerId);
+		return addPlayer(to, playerId);
+	}
+
+	/*
+	 * Returns every Team whose roster is changed
+	 */
+	public Set<Team> getChangedTeams() {
+		Set<Team> teams = new LinkedHashSet<Team>(droppedPlayers.keySet());
+		teams.addAll(addedPlayers.keySet());
+		return teams;
+	}
+
+	/*
+	 * Checks the whole change can be applied before changing any roster, throws IllegalArgumentException if it can't
+	 */
+	void apply() {
+		for (Map.Entry<Team, List<Integer>> dropped : droppedPlayers.entrySet()) {
+			for (int playerId : dropped.getValue()) {
+				if (!dropped.getKey().hasPlayer(playerId)) {
+					throw new IllegalArgumentException("Player " + playerId + " isn't on " + dropped.getKey().getTeamName());
+				}
+			}
+		}
+		for (List<Integer> added : addedPlayers.values()) {
+			for (int playerId : added) {
+				//negative Ids are the league's waiver players
+				if (playerId < 0 || !FantasyLeague.isValidPlayer(playerId)) {
+					throw new IllegalArgumentException("Player " + playerId + " isn't in the league, the league must be set up again to add them");
+				}
+			}
+		}
+		for (Map.Entry<Team, List<Integer>> dropped : droppedPlayers.entrySet()) {
+			for (int playerId : dropped.getValue()) {
+				dropped.getKey().removePlayer(playerId);
+			}
+		}
+		for (Map.Entry<Team, List<Integer>> added : addedPlayers.entrySet()) {
+			for (int playerId : added.getValue()) {
+				added.getKey().addPlayer(playerId);
+			}
+		}
+	}
+
+	private static List<Integer> getPlayers(Map<Team, List<Integer>> playersForTeam, Team team) {
+		List<Integer> players = playersForTeam.get(team);
+		if (players == null) {
+			players = new ArrayList<Integer>();
+			playersForTeam.put(team, players);
+		}
+		return players;
+	}
+}
@@ -53,4 +53,11 @@ public class RosterUpdater {
         }
         return newRosterPlayers.toArray(new Integer[newRosterPlayers.size()]);
 	}
+
+	/*
+	 * Returns the updated roster as player indexes
+	 */
+	public int[] getUpdatedRosterIndexes(List<Integer> playersSent, List<Integer> playersReceived) {
+		return FantasyLeague.getPlayerIndexes(getUpdatedRoster(playersSent, playersReceived));
+	}
 }
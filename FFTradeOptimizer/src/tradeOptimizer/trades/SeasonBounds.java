@@ -0,0 +1,360 @@
+package tradeOptimizer.trades;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import tradeOptimizer.calc.LineupCertificate;
+import tradeOptimizer.calc.OptimalLineupCalculator;
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.TradePackages;
+import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * Bounds on how much a trade can change a team's projected points in each week, calculated once for a team so combinations
+ * can be rejected before (or part way through) calculating their optimal lineups.
+ *
+ * The optimal lineup of the roster without each combination of players the team could send is calculated for every week, a
+ * roster never has fewer points than that after the trade. Each player only has a projection and can fill any position they're
+ * eligible for, so the sets of players that can start together form a matroid. Adding a player to a roster whose lineup fills
+ * every position replaces one of the starters, which gains at most the player's projection minus the lowest projection in the
+ * lineup. If the roster without the players sent can't fill every position, waiver players and best available players may be
+ * added to it, so the upper bound is taken from the current roster with every one of those players added instead.
+ *
+ * Those bounds need a lineup for every combination and week, so they're only calculated the first time a combination is used.
+ * Cheaper season bounds come from two lineups per week, the roster's own lineup and the upper bound roster's lineup. Removing
+ * players from the roster's own lineup loses at most the points of the ones that start. The LineupCertificate of a lineup bounds
+ * the points after sending and receiving players without another lineup. If the roster's own lineup fills every position and
+ * none of its starters are sent, the roster stays fillable and no waiver or best available players are added, so its own
+ * certificate applies. Otherwise the upper bound roster's certificate does. TradeCalculator checks these first so combinations
+ * that can't pass the filters are never calculated.
+ *
+ * Every combination the team can send is a SentPackage holding the values of its players, found by its encoded package, so
+ * the bounds of a pair of combinations are summed from arrays without looking up players.
+ */
+class SeasonBounds {
+
+	private final int numWeeks;
+	private final double[] baseWeekTotal; //optimal projected points of the current roster, including waiver players
+	private final double[] upperBase; //optimal points of the roster with every waiver and best available player minus baseWeekTotal
+	private final double[] lowestStarter; //lowest projection in the upper bound roster's lineup, 0 if it can't fill every position
+	private final List<List<PlayerProjection>> rosterForWeek; //current roster sorted by projection for every week
+	private final int[] rosterSlot; //position of each player on the roster by player index, -1 if they aren't on it
+	//values of each player on the roster by their position on it
+	private final double[][] projections; //projection for every week
+	private final long[] weeksStarted; //bit w is set if the player is in the roster's own optimal lineup for week w
+	private final double[] seasonStarterPoints; //projection summed over the weeks they start
+	private final double[][][] labels; //label in the roster and upper certificates for every week
+	private final boolean[] fullLineup; //true if the roster's own lineup fills every position with players with positive projections
+	private final LineupCertificate[] rosterCertificate; //certificate of the roster's own lineup for every week
+	private final LineupCertificate[] upperCertificate; //certificate of the upper bound roster's lineup for every week
+	private double certificateLower = 0.0; //optimal points of the roster's own lineup minus baseWeekTotal, over the season
+	private final AtomicReferenceArray<double[][]> additionBounds; //addition bounds in both certificates for players from other teams, by player index
+	private final long[] packageCodes; //every combination the team can send, encoded and sorted
+	private final SentPackage[] packages; //the SentPackage of each code in packageCodes
+
+	SeasonBounds(Team team, List<WeekProjections> weeks) {
+		numWeeks = weeks.size();
+		baseWeekTotal = new double[numWeeks];
+		upperBase = new double[numWeeks];
+		lowestStarter = new double[numWeeks];
+		rosterForWeek = new ArrayList<List<PlayerProjection>>();
+		int[] rosterIndexes = team.getCurrentPlayerIndexes();
+		rosterSlot = new int[FantasyLeague.getPlayerCount()];
+		Arrays.fill(rosterSlot, -1);
+		for (int slot = 0; slot < rosterIndexes.length; slot++) {
+			rosterSlot[rosterIndexes[slot]] = slot;
+		}
+		projections = new double[rosterIndexes.length][numWeeks];
+		weeksStarted = new long[rosterIndexes.length];
+		seasonStarterPoints = new double[rosterIndexes.length];
+		labels = new double[rosterIndexes.length][2][numWeeks];
+		fullLineup = new boolean[numWeeks];
+		rosterCertificate = new LineupCertificate[numWeeks];
+		upperCertificate = new LineupCertificate[numWeeks];
+		additionBounds = new AtomicReferenceArray<double[][]>(FantasyLeague.getPlayerCount());
+		for (int w = 0; w < numWeeks; w++) {
+			WeekProjections week = weeks.get(w);
+			List<PlayerProjection> roster = week.getPlayersToUse(rosterIndexes);
+			rosterForWeek.add(roster);
+			WeekCalculator weekCalc = new WeekCalculator(week, rosterIndexes, new ArrayList<Integer>());
+			baseWeekTotal[w] = weekCalc.getOptimizedProjectedPoints();
+			for (PlayerProjection player : roster) {
+				projections[getSlot(player.getPlayerId())][w] = player.getProjection();
+			}
+			//a player left out of the roster's own lineup is also left out once waiver players are added
+			OptimalLineupCalculator rosterCalc = new OptimalLineupCalculator(roster, FantasyLeague.getPositions());
+			certificateLower += rosterCalc.getOptimalProjPoints() - baseWeekTotal[w];
+			fullLineup[w] = rosterCalc.allPositionsFilled();
+			rosterCertificate[w] = rosterCalc.getCertificate();
+			for (int i = 0; i < roster.size(); i++) {
+				int slot = getSlot(roster.get(i).getPlayerId());
+				if (rosterCalc.isPlayerUsed(i) && roster.get(i).getProjection() > 0.0) {
+					//weeks are stored as bits of a long, a season has far fewer than 64 weeks
+					weeksStarted[slot] |= 1L << w;
+					seasonStarterPoints[slot] += roster.get(i).getProjection();
+				}
+				labels[slot][0][w] = rosterCertificate[w].getPlayerLabel(i);
+			}
+
+			List<PlayerProjection> upperRoster = new ArrayList<PlayerProjection>(roster);
+			for (Position position : Position.values()) {
+				if (FantasyLeague.hasAvailablePlayerForPosition(position)) {
+					int playerId = FantasyLeague.getBestAvailablePlayer(position).getPlayerId();
+					upperRoster.add(new PlayerProjection(playerId, week.getProjection(FantasyLeague.getPlayerIndex(playerId))));
+				}
+			}
+			for (Map.Entry<Position, Double> waiver : week.getTopWaiverForPositions().entrySet()) {
+				upperRoster.add(new PlayerProjection(waiver.getKey().getWaiverId(), waiver.getValue()));
+			}
+			OptimalLineupCalculator upperCalc = new OptimalLineupCalculator(upperRoster, FantasyLeague.getPositions());
+			upperBase[w] = upperCalc.getOptimalProjPoints() - baseWeekTotal[w];
+			lowestStarter[w] = getLowestStarter(upperCalc, upperRoster);
+			//roster players come first in upperRoster so they have the same player numbers in the certificate
+			upperCertificate[w] = upperCalc.getCertificate();
+			for (int i = 0; i < roster.size(); i++) {
+				labels[getSlot(roster.get(i).getPlayerId())][1][w] = upperCertificate[w].getPlayerLabel(i);
+			}
+		}
+		long[] codes = team.getTradeCombinations().encodeAll();
+		packageCodes = codes.clone();
+		Arrays.sort(packageCodes);
+		packages = new SentPackage[codes.length];
+		for (long code : codes) {
+			packages[Arrays.binarySearch(packageCodes, code)] = new SentPackage(code);
+		}
+	}
+
+	private int getSlot(int playerId) {
+		return rosterSlot[FantasyLeague.getPlayerIndex(playerId)];
+	}
+
+	/*
+	 * Returns the SentPackage of each combination encoded by TradePackages.encode(), in the same order
+	 */
+	SentPackage[] getPackages(long[] codes) {
+		SentPackage[] sentPackages = new SentPackage[codes.length];
+		for (int i = 0; i < codes.length; i++) {
+			int found = Arrays.binarySearch(packageCodes, codes[i]);
+			if (found < 0) {
+				throw new IllegalArgumentException("Not a combination of players on the roster: " + TradePackages.decode(codes[i]));
+			}
+			sentPackages[i] = packages[found];
+		}
+		return sentPackages;
+	}
+
+	/*
+	 * Calculates the optimal lineup of the roster without the players in sent for every week
+	 */
+	private SentBounds calculateSentBounds(List<Integer> sent) {
+		SentBounds sentBounds = new SentBounds(numWeeks);
+		for (int w = 0; w < numWeeks; w++) {
+			List<PlayerProjection> remainingPlayers = new ArrayList<PlayerProjection>();
+			for (PlayerProjection player : rosterForWeek.get(w)) {
+				if (!sent.contains(player.getPlayerId())) {
+					remainingPlayers.add(player);
+				}
+			}
+			OptimalLineupCalculator remainingCalc = new OptimalLineupCalculator(remainingPlayers, FantasyLeague.getPositions());
+			sentBounds.remainingChange[w] = remainingCalc.getOptimalProjPoints() - baseWeekTotal[w];
+			sentBounds.fillable[w] = remainingCalc.allPositionsFilled();
+			sentBounds.lowestStarter[w] = getLowestStarter(remainingCalc, remainingPlayers);
+		}
+		return sentBounds;
+	}
+
+	double getBaseWeekTotal(int week) {
+		return baseWeekTotal[week];
+	}
+
+	/*
+	 * Sets lower[w] and upper[w] to bounds on the change in this team's projected points for week w after sending the players
+	 * in sent and receiving the players in received, a package from the other team's bounds
+	 */
+	void getWeekBounds(SentPackage sent, SentPackage received, double[] lower, double[] upper) {
+		SentBounds sentBounds = sent.getSentBounds();
+		for (int w = 0; w < numWeeks; w++) {
+			lower[w] = sentBounds.remainingChange[w];
+			upper[w] = sentBounds.fillable[w] ? sentBounds.remainingChange[w] : upperBase[w];
+		}
+		for (double[] playerProjections : received.projections) {
+			for (int w = 0; w < numWeeks; w++) {
+				double lowest = sentBounds.fillable[w] ? sentBounds.lowestStarter[w] : lowestStarter[w];
+				upper[w] += Math.max(0.0, playerProjections[w] - lowest);
+			}
+		}
+	}
+
+	/*
+	 * Returns an upper bound on the change in this team's projected points over the season after sending the players in sent
+	 * and receiving the players in received, a package from the other team's bounds, from the certificates of each week's lineups
+	 */
+	double getCertificateUpperBound(SentPackage sent, SentPackage received) {
+		double bound = sent.certificateBound;
+		for (int i = 0; i < received.size(); i++) {
+			double[][] additions = getAdditionBounds(received, i);
+			for (int w = 0; w < numWeeks; w++) {
+				bound += additions[(int)(sent.upperWeeks >>> w) & 1][w];
+			}
+		}
+		return bound;
+	}
+
+	/*
+	 * Returns the most player i of a package from another team adds to the label total of the roster and upper certificates
+	 * for every week
+	 */
+	private double[][] getAdditionBounds(SentPackage received, int i) {
+		double[][] bounds = additionBounds.get(received.playerIndexes[i]);
+		if (bounds == null) {
+			double[] playerProjections = received.projections[i];
+			int positionMask = FantasyLeague.getPlayerById(received.players.get(i)).getPositionMask();
+			bounds = new double[2][numWeeks];
+			for (int w = 0; w < numWeeks; w++) {
+				bounds[0][w] = rosterCertificate[w].getAdditionBound(playerProjections[w], positionMask);
+				bounds[1][w] = upperCertificate[w].getAdditionBound(playerProjections[w], positionMask);
+			}
+			additionBounds.set(received.playerIndexes[i], bounds);
+		}
+		return bounds;
+	}
+
+	/*
+	 * Returns true if a player on this roster starts for it in fewer than minWeeks weeks and projects above the lowest starter of
+	 * receivingTeam's upper bound lineup in fewer than minWeeks weeks, so the player is rarely used by either team. Only a
+	 * heuristic, as receivingTeam's lineup is weaker after it sends players of its own.
+	 */
+	boolean isBenchPlayer(int playerId, SeasonBounds receivingTeam, int minWeeks) {
+		int slot = getSlot(playerId);
+		if (Long.bitCount(weeksStarted[slot]) >= minWeeks) {
+			return false;
+		}
+		int weeksAboveStarter = 0;
+		for (int w = 0; w < numWeeks; w++) {
+			if (projections[slot][w] > receivingTeam.lowestStarter[w]) {
+				weeksAboveStarter++;
+			}
+		}
+		return weeksAboveStarter < minWeeks;
+	}
+
+	/*
+	 * Returns the lowest projection in a lineup that fills every position with players with positive projections, or 0 if it doesn't
+	 */
+	private static double getLowestStarter(OptimalLineupCalculator calc, List<PlayerProjection> players) {
+		if (!calc.allPositionsFilled()) {
+			return 0.0;
+		}
+		double lowest = Double.MAX_VALUE;
+		for (int i = 0; i < players.size(); i++) {
+			if (calc.isPlayerUsed(i)) {
+				lowest = Math.min(lowest, players.get(i).getProjection());
+			}
+		}
+		return lowest;
+	}
+
+	/*
+	 * A combination of players the team can send, with the values of each player taken from the roster once
+	 */
+	class SentPackage {
+		private final long code; //encoded by TradePackages.encode()
+		private final List<Integer> players;
+		private final int[] playerIndexes;
+		private final double[][] projections; //each player's projection for every week
+		private final double sentLower;
+		//bit w is set if the upper bound roster's certificate applies to week w after sending these players, otherwise the roster's own does
+		private final long upperWeeks;
+		private final double certificateBound; //the certificate upper bound over the season before adding the players received
+		private volatile SentBounds sentBounds; //calculated when the combination is first used
+
+		private SentPackage(long code) {
+			this.code = code;
+			players = TradePackages.decode(code);
+			playerIndexes = new int[players.size()];
+			projections = new double[players.size()][];
+			double[][][] sentLabels = new double[players.size()][][];
+			long started = 0L; //bit w is set if any of the players start in the roster's own lineup for week w
+			double lower = certificateLower;
+			for (int i = 0; i < players.size(); i++) {
+				playerIndexes[i] = FantasyLeague.getPlayerIndex(players.get(i));
+				int slot = rosterSlot[playerIndexes[i]];
+				projections[i] = SeasonBounds.this.projections[slot];
+				sentLabels[i] = labels[slot];
+				started |= weeksStarted[slot];
+				lower -= seasonStarterPoints[slot];
+			}
+			sentLower = lower;
+			long upper = 0L;
+			double bound = 0.0;
+			for (int w = 0; w < numWeeks; w++) {
+				//the roster's own certificate only applies if its lineup keeps every position filled
+				int certificate = fullLineup[w] && (started & (1L << w)) == 0L ? 0 : 1;
+				upper |= (long)certificate << w;
+				double weekBound = (certificate == 0 ? rosterCertificate[w] : upperCertificate[w]).getLabelTotal() - baseWeekTotal[w];
+				for (double[][] playerLabels : sentLabels) {
+					weekBound -= playerLabels[certificate][w];
+				}
+				bound += weekBound;
+			}
+			upperWeeks = upper;
+			certificateBound = bound;
+		}
+
+		long getCode() {
+			return code;
+		}
+
+		List<Integer> getPlayers() {
+			return players;
+		}
+
+		int size() {
+			return players.size();
+		}
+
+		/*
+		 * Returns a lower bound on the change in the team's projected points over the season after sending these players,
+		 * whatever it receives. The roster keeps at least its own lineup without the starters sent, receiving players can't lower it.
+		 */
+		double getSentLowerBound() {
+			return sentLower;
+		}
+
+		private SentBounds getSentBounds() {
+			SentBounds bounds = sentBounds;
+			if (bounds == null) {
+				synchronized (this) {
+					bounds = sentBounds;
+					if (bounds == null) {
+						bounds = calculateSentBounds(players);
+						sentBounds = bounds;
+					}
+				}
+			}
+			return bounds;
+		}
+	}
+
+	/*
+	 * Bounds for the roster left after sending a combination of players, for every week
+	 */
+	private static class SentBounds {
+		private final double[] remainingChange; //optimal points of the roster without the players sent minus baseWeekTotal
+		private final boolean[] fillable; //true if the roster without the players sent can still fill every position
+		private final double[] lowestStarter; //lowest projection in the lineup of the roster without the players sent
+
+		SentBounds(int numWeeks) {
+			remainingChange = new double[numWeeks];
+			fillable = new boolean[numWeeks];
+			lowestStarter = new double[numWeeks];
+		}
+	}
+}
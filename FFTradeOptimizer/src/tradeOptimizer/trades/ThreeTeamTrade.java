@@ -0,0 +1,73 @@
+package tradeOptimizer.trades;
+
+import java.util.List;
+
+import tradeOptimizer.league.FantasyLeague;
+
+/*
+ * ThreeTeamTrade class representing a trade between three teams in a cycle, the team at each position sends its players to
+ * the team at the next position and the last team sends its players to the first. Stores the players each team sends and
+ * the projected point increase of each team.
+ */
+public class ThreeTeamTrade {
+
+	private final String[] teamNames;
+	private final List<List<Integer>> sentPlayers;
+	private final double[] pointIncreases;
+
+	ThreeTeamTrade(String[] teamNames, List<List<Integer>> sentPlayers, double[] pointIncreases) {
+		this.teamNames = teamNames;
+		this.sentPlayers = sentPlayers;
+		this.pointIncreases = pointIncreases;
+	}
+
+	/*
+	 * Returns the name of the team at a position in the cycle, 0 to 2
+	 */
+	public String getTeamName(int team) {
+		return teamNames[team];
+	}
+
+	/*
+	 * Returns the players a team sends to the next team in the cycle
+	 */
+	public List<Integer> getSentPlayers(int team) {
+		return sentPlayers.get(team);
+	}
+
+	/*
+	 * Returns the players a team receives from the previous team in the cycle
+	 */
+	public List<Integer> getReceivedPlayers(int team) {
+		return sentPlayers.get((team + 2) % 3);
+	}
+
+	public double getPointIncrease(int team) {
+		return pointIncreases[team];
+	}
+
+	public double getTotalPointIncrease() {
+		return pointIncreases[0] + pointIncreases[1] + pointIncreases[2];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder();
+		for (int team = 0; team < 3; team++) {
+			if (team > 0) {
+				description.append(", ");
+			}
+			description.append(teamNames[team]).append(" sends ");
+			List<Integer> players = sentPlayers.get(team);
+			for (int i = 0; i < players.size(); i++) {
+				description.append(i > 0 ? " and " : "").append(FantasyLeague.getPlayerById(players.get(i)).getName());
+			}
+			description.append(" to ").append(teamNames[(team + 1) % 3]);
+		}
+		description.append(" (");
+		for (int team = 0; team < 3; team++) {
+			description.append(team > 0 ? ", " : "").append(teamNames[team]).append(String.format(" %+.2f", pointIncreases[team]));
+		}
+		return description.append(")").toString();
+	}
+}
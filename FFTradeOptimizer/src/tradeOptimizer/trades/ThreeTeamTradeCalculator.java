@@ -0,0 +1,298 @@
+package tradeOptimizer.trades;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * Searches for trades in one cycle of three teams, team 0 sends players to team 1, team 1 to team 2 and team 2 to team 0.
+ * Trades must pass the same filters as two team trades for every team: each team's points increase by less than
+ * MAX_POINT_INCREASE, the total increase is more than MIN_COMBINED_INCREASE, no two teams' increases differ by
+ * MAX_INCREASE_DIFFERENCE or more and each player received is used often enough.
+ *
+ * Evaluating every combination would need combinations^3 seasons of lineups, so the SeasonBounds of each team are summed over the
+ * season for every pair of combinations it could send and receive. A cycle is only a candidate if the bounds of all three
+ * teams can pass the filters, and only the maxEvaluations candidates with the highest upper bound on the total increase are
+ * kept (a beam). Candidates are evaluated in order of that bound week by week, stopping as soon as the bounds on the remaining
+ * weeks show they can't pass, and the search ends once no remaining candidate can beat the maxTrades best trades found.
+ */
+class ThreeTeamTradeCalculator {
+
+	private final Team[] teams;
+	private final SeasonBounds[] bounds;
+	private final SeasonBounds.SentPackage[][] packages; //combinations each team can send
+	private final int maxEvaluations;
+	private final int maxTrades;
+	private final int numWeeks;
+	//bounds on each team's change in points over the season, by combination sent and combination received from the previous team
+	private final double[][][] seasonLower = new double[3][][];
+	private final double[][][] seasonUpper = new double[3][][];
+
+	ThreeTeamTradeCalculator(Team[] teams, SeasonBounds[] bounds, int maxEvaluations, int maxTrades) {
+		this.teams = teams;
+		this.bounds = bounds;
+		this.maxEvaluations = maxEvaluations;
+		this.maxTrades = maxTrades;
+		this.numWeeks = FantasyLeague.getWeeks().size();
+		packages = new SeasonBounds.SentPackage[3][];
+		for (int team = 0; team < 3; team++) {
+			packages[team] = bounds[team].getPackages(teams[team].getTradeCombinations().encodeAll());
+		}
+	}
+
+	/*
+	 * Returns the best trades found in this cycle, highest total point increase first
+	 */
+	List<ThreeTeamTrade> calculateTrades() {
+		calculateSeasonBounds();
+		List<Candidate> candidates = findCandidates();
+		List<ThreeTeamTrade> trades = new ArrayList<ThreeTeamTrade>();
+		//lowest total of the best trades found at the head, so it can be replaced
+		PriorityQueue<ThreeTeamTrade> bestTrades = new PriorityQueue<ThreeTeamTrade>(Math.max(1, maxTrades), BY_TOTAL);
+		for (Candidate candidate : candidates) {
+			if (bestTrades.size() >= maxTrades && candidate.upperTotal + 3 * TradeCalculator.BOUND_MARGIN <= bestTrades.peek().getTotalPointIncrease()) {
+				break;
+			}
+			ThreeTeamTrade trade = evaluate(candidate);
+			if (trade != null) {
+				bestTrades.add(trade);
+				if (bestTrades.size() > maxTrades) {
+					bestTrades.poll();
+				}
+			}
+		}
+		trades.addAll(bestTrades);
+		Collections.sort(trades, Collections.reverseOrder(BY_TOTAL));
+		return trades;
+	}
+
+	static final Comparator<ThreeTeamTrade> BY_TOTAL = new Comparator<ThreeTeamTrade>() {
+		@Override
+		public int compare(ThreeTeamTrade first, ThreeTeamTrade second) {
+			return Double.compare(first.getTotalPointIncrease(), second.getTotalPointIncrease());
+		}
+	};
+
+	private void calculateSeasonBounds() {
+		double[] lower = new double[numWeeks];
+		double[] upper = new double[numWeeks];
+		for (int team = 0; team < 3; team++) {
+			int from = (team + 2) % 3;
+			SeasonBounds.SentPackage[] sent = packages[team];
+			SeasonBounds.SentPackage[] received = packages[from];
+			seasonLower[team] = new double[sent.length][received.length];
+			seasonUpper[team] = new double[sent.length][received.length];
+			for (int s = 0; s < sent.length; s++) {
+				for (int r = 0; r < received.length; r++) {
+					bounds[team].getWeekBounds(sent[s], received[r], lower, upper);
+					double lowerTotal = 0.0;
+					double upperTotal = 0.0;
+					for (int w = 0; w < numWeeks; w++) {
+						lowerTotal += lower[w];
+						upperTotal += upper[w];
+					}
+					seasonLower[team][s][r] = lowerTotal;
+					seasonUpper[team][s][r] = upperTotal;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns the cycles whose season bounds can pass the filters, at most maxEvaluations with the highest upper bound on the
+	 * total increase, highest first
+	 */
+	private List<Candidate> findCandidates() {
+		PriorityQueue<Candidate> best = new PriorityQueue<Candidate>();
+		int numSent0 = packages[0].length;
+		int numSent1 = packages[1].length;
+		int numSent2 = packages[2].length;
+		double[] lower = new double[3];
+		double[] upper = new double[3];
+		int[] options = new int[numSent1];
+		for (int a = 0; a < numSent0; a++) {
+			//team 1 receives a, so the combinations it could send are checked once for each a
+			int numOptions = 0;
+			for (int b = 0; b < numSent1; b++) {
+				if (canGain(1, b, a)) {
+					options[numOptions++] = b;
+				}
+			}
+			if (numOptions == 0) {
+				continue;
+			}
+			for (int c = 0; c < numSent2; c++) {
+				if (!canGain(0, a, c)) {
+					continue;
+				}
+				lower[0] = seasonLower[0][a][c];
+				upper[0] = seasonUpper[0][a][c];
+				for (int i = 0; i < numOptions; i++) {
+					int b = options[i];
+					if (!canGain(2, c, b)) {
+						continue;
+					}
+					lower[1] = seasonLower[1][b][a];
+					upper[1] = seasonUpper[1][b][a];
+					lower[2] = seasonLower[2][c][b];
+					upper[2] = seasonUpper[2][c][b];
+					if (!canPassFilters(lower, upper)) {
+						continue;
+					}
+					double upperTotal = upper[0] + upper[1] + upper[2];
+					if (best.size() < maxEvaluations) {
+						best.add(new Candidate(a, b, c, upperTotal));
+					} else if (upperTotal > best.peek().upperTotal) {
+						best.poll();
+						best.add(new Candidate(a, b, c, upperTotal));
+					}
+				}
+			}
+		}
+		List<Candidate> candidates = new ArrayList<Candidate>(best);
+		Collections.sort(candidates, Collections.reverseOrder());
+		return candidates;
+	}
+
+	/*
+	 * Returns false if team can't gain points, or can't stay under MAX_POINT_INCREASE, sending combination sent and
+	 * receiving combination received
+	 */
+	private boolean canGain(int team, int sent, int received) {
+		return seasonUpper[team][sent][received] + TradeCalculator.BOUND_MARGIN > 0.0 &&
+				seasonLower[team][sent][received] - TradeCalculator.BOUND_MARGIN < TradeCalculator.MAX_POINT_INCREASE;
+	}
+
+	/*
+	 * Returns false if changes in points between lower and upper for each team can't pass the filters
+	 */
+	private static boolean canPassFilters(double[] lower, double[] upper) {
+		double upperTotal = 0.0;
+		for (int team = 0; team < 3; team++) {
+			double max = upper[team] + TradeCalculator.BOUND_MARGIN;
+			double min = lower[team] - TradeCalculator.BOUND_MARGIN;
+			if (max <= 0.0 || min >= TradeCalculator.MAX_POINT_INCREASE) {
+				return false;
+			}
+			upperTotal += max;
+			for (int other = 0; other < 3; other++) {
+				if (other != team && min - (upper[other] + TradeCalculator.BOUND_MARGIN) >= TradeCalculator.MAX_INCREASE_DIFFERENCE) {
+					return false;
+				}
+			}
+		}
+		return upperTotal > TradeCalculator.MIN_COMBINED_INCREASE;
+	}
+
+	/*
+	 * Calculates the season of a candidate cycle week by week, returns null as soon as it can't pass the filters
+	 */
+	private ThreeTeamTrade evaluate(Candidate candidate) {
+		SeasonBounds.SentPackage[] sentPackages = {packages[0][candidate.sent0], packages[1][candidate.sent1], packages[2][candidate.sent2]};
+		List<List<Integer>> sent = new ArrayList<List<Integer>>();
+		for (SeasonBounds.SentPackage sentPackage : sentPackages) {
+			sent.add(sentPackage.getPlayers());
+		}
+		List<WeekProjections> weeks = FantasyLeague.getWeeks();
+		int minTimesPlayerUsed = TradeCalculator.getMinTimesPlayerUsed();
+		int[][] rosters = new int[3][];
+		double[][] lowerAfter = new double[3][numWeeks + 1]; //bounds on the change over week w and all weeks after it
+		double[][] upperAfter = new double[3][numWeeks + 1];
+		List<List<Integer>> received = new ArrayList<List<Integer>>();
+		for (int team = 0; team < 3; team++) {
+			int from = (team + 2) % 3;
+			received.add(sent.get(from));
+			rosters[team] = new RosterUpdater(teams[team].getCurrentPlayers()).getUpdatedRosterIndexes(sent.get(team), sent.get(from));
+			bounds[team].getWeekBounds(sentPackages[team], sentPackages[from], lowerAfter[team], upperAfter[team]);
+			for (int w = numWeeks - 1; w >= 0; w--) {
+				lowerAfter[team][w] += lowerAfter[team][w + 1];
+				upperAfter[team][w] += upperAfter[team][w + 1];
+			}
+		}
+		double[] totals = new double[3];
+		double[] baseSoFar = new double[3];
+		int[] timesUsed = new int[3];
+		double[] lower = new double[3];
+		double[] upper = new double[3];
+		for (int w = 0; w < numWeeks; w++) {
+			WeekProjections week = weeks.get(w);
+			for (int team = 0; team < 3; team++) {
+				WeekCalculator calculator = new WeekCalculator(week.getPlayersToUse(rosters[team]), week.getTopWaiverForPositions(), received.get(team), week.getWeekNum());
+				totals[team] += calculator.getOptimizedProjectedPoints();
+				timesUsed[team] += calculator.getTimesNewPlayerUsed();
+				baseSoFar[team] += bounds[team].getBaseWeekTotal(w);
+				if (timesUsed[team] + received.get(team).size() * (numWeeks - w - 1) < received.get(team).size() * minTimesPlayerUsed) {
+					return null;
+				}
+				//teams up to this one have calculated week w
+				for (int other = 0; other < 3; other++) {
+					int nextWeek = other <= team ? w + 1 : w;
+					lower[other] = totals[other] - baseSoFar[other] + lowerAfter[other][nextWeek];
+					upper[other] = totals[other] - baseSoFar[other] + upperAfter[other][nextWeek];
+				}
+				if (!canPassFilters(lower, upper)) {
+					return null;
+				}
+			}
+		}
+		double[] increases = new double[3];
+		double lowest = Double.MAX_VALUE;
+		double highest = -Double.MAX_VALUE;
+		for (int team = 0; team < 3; team++) {
+			if (timesUsed[team] < received.get(team).size() * minTimesPlayerUsed) {
+				return null;
+			}
+			increases[team] = totals[team] - teams[team].getBaseProjectedPoints();
+			if (increases[team] <= 0.0 || increases[team] >= TradeCalculator.MAX_POINT_INCREASE) {
+				return null;
+			}
+			lowest = Math.min(lowest, increases[team]);
+			highest = Math.max(highest, increases[team]);
+		}
+		if (increases[0] + increases[1] + increases[2] <= TradeCalculator.MIN_COMBINED_INCREASE || highest - lowest >= TradeCalculator.MAX_INCREASE_DIFFERENCE) {
+			return null;
+		}
+		String[] teamNames = {teams[0].getTeamName(), teams[1].getTeamName(), teams[2].getTeamName()};
+		return new ThreeTeamTrade(teamNames, sent, increases);
+	}
+
+	/*
+	 * Indexes of the combinations each team sends in a cycle that passed the season bounds, ordered by the upper bound on the
+	 * total increase with ties broken by the indexes so the order doesn't depend on how the candidates were found
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+		private final int sent0;
+		private final int sent1;
+		private final int sent2;
+		private final double upperTotal;
+
+		Candidate(int sent0, int sent1, int sent2, double upperTotal) {
+			this.sent0 = sent0;
+			this.sent1 = sent1;
+			this.sent2 = sent2;
+			this.upperTotal = upperTotal;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			int compare = Double.compare(upperTotal, other.upperTotal);
+			if (compare == 0) {
+				compare = Integer.compare(other.sent0, sent0);
+			}
+			if (compare == 0) {
+				compare = Integer.compare(other.sent1, sent1);
+			}
+			if (compare == 0) {
+				compare = Integer.compare(other.sent2, sent2);
+			}
+			return compare;
+		}
+	}
+}
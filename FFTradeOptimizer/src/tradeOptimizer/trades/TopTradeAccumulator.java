@@ -0,0 +1,119 @@
+package tradeOptimizer.trades;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Thread safe collection of the best maxTrades trades of a Team by a TradeRanking. Trades are kept in a concurrent skip list so
+ * worker threads can add trades without sharing a lock. Once maxTrades are held, trades ranked below the worst trade kept are
+ * discarded without being stored and adding a better trade evicts the worst one, so at most maxTrades are held for long.
+ * Trades with equal scores are ordered by the other team's name and then the players in the trade, so the trades kept and
+ * their order don't depend on the order trades were added.
+ */
+public class TopTradeAccumulator {
+
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private final int maxTrades;
+	private final TradeRanking ranking;
+	private final ConcurrentSkipListSet<Trade> trades;
+	private final AtomicInteger numTrades = new AtomicInteger();
+	//worst trade kept once maxTrades are held, it can lag behind the actual worst trade which only lets through trades that are evicted later
+	private volatile Trade worstKept;
+
+	public TopTradeAccumulator() {
+		this(UNLIMITED, TradeRanking.OWN_GAIN);
+	}
+
+	public TopTradeAccumulator(int maxTrades, TradeRanking ranking) {
+		if (maxTrades < 1) {
+			throw new IllegalArgumentException("At least 1 trade must be kept: " + maxTrades);
+		}
+		this.maxTrades = maxTrades;
+		this.ranking = ranking;
+		this.trades = new ConcurrentSkipListSet<Trade>(new RankingComparator(ranking));
+	}
+
+	/*
+	 * Adds trade if it ranks among the best maxTrades trades, returns false if it was discarded
+	 */
+	public boolean add(Trade trade) {
+		Trade worst = worstKept;
+		if (worst != null && trades.comparator().compare(trade, worst) >= 0) {
+			return false;
+		}
+		if (!trades.add(trade)) {
+			return false;
+		}
+		boolean kept = true;
+		if (numTrades.incrementAndGet() > maxTrades) {
+			Trade evicted = trades.pollLast();
+			if (evicted != null) {
+				numTrades.decrementAndGet();
+				kept = evicted != trade;
+			}
+		}
+		if (numTrades.get() >= maxTrades) {
+			worstKept = trades.last();
+		}
+		return kept;
+	}
+
+	/*
+	 * Returns the trades kept, best first
+	 */
+	public List<Trade> getTrades() {
+		return new ArrayList<Trade>(trades);
+	}
+
+	public int size() {
+		return numTrades.get();
+	}
+
+	public int getMaxTrades() {
+		return maxTrades;
+	}
+
+	public TradeRanking getRanking() {
+		return ranking;
+	}
+
+	/*
+	 * Orders trades best first by ranking, ties are broken by the trade's contents
+	 */
+	private static class RankingComparator implements Comparator<Trade> {
+		private final TradeRanking ranking;
+
+		RankingComparator(TradeRanking ranking) {
+			this.ranking = ranking;
+		}
+
+		@Override
+		public int compare(Trade first, Trade second) {
+			int result = Double.compare(ranking.getScore(second), ranking.getScore(first));
+			if (result == 0) {
+				result = first.getOtherTeamName().compareTo(second.getOtherTeamName());
+			}
+			if (result == 0) {
+				result = comparePlayers(first.getThisTeamPlayers(), second.getThisTeamPlayers());
+			}
+			if (result == 0) {
+				result = comparePlayers(first.getOtherTeamPlayers(), second.getOtherTeamPlayers());
+			}
+			return result;
+		}
+
+		private static int comparePlayers(List<Integer> first, List<Integer> second) {
+			for (int i = 0; i < Math.min(first.size(), second.size()); i++) {
+				int result = first.get(i).compareTo(second.get(i));
+				if (result != 0) {
+					return result;
+				}
+			}
+			return Integer.compare(first.size(), second.size());
+		}
+	}
+}
@@ -1,23 +1,40 @@
 package tradeOptimizer.trades;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import tradeOptimizer.calc.WeekCalculator;
 import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.league.Team;
+import tradeOptimizer.league.TradePackages;
 import tradeOptimizer.projections.WeekProjections;
 
 public class TradeCalculator {
 
+	static final double MAX_POINT_INCREASE = 60.0;
+	static final double MIN_COMBINED_INCREASE = 5.0;
+	static final double MAX_INCREASE_DIFFERENCE = 10.0;
+	static final double BOUND_MARGIN = 1e-6;
+
 	private Team team1;
 	private Team team2;
-	private List<List<Integer>> team1Combinations;
-	private List<List<Integer>> team2Combinations;
+	private TradePackages team1Combinations;
+	private TradePackages team2Combinations;
+	private SeasonBounds.SentPackage[] team1Packages; //team1Combinations found in team1Bounds, set by getCandidates()
+	private SeasonBounds.SentPackage[] team2Packages;
 	private Double team1BaseTotal;
 	private Double team2BaseTotal;
-	
+	private int chunkSize = Integer.MAX_VALUE; //number of team1 combinations evaluated by a single task when run in a ForkJoinPool
+	private TradeSideMap team2BestTrades; //best trade for each team1 combination, keyed by the encoded combination
+	private TradeSideMap team1BestTrades; //best trade for each team2 combination
+	private SeasonBounds team1Bounds;
+	private SeasonBounds team2Bounds;
+	private boolean boundsPruning = true; //false calculates every week of every combination, used to check the bounds
+	private TradeSink tradeSink; //receives the trades added to each Team, null if trades are only kept by the Teams
+	private boolean skipBenchPackages = false;
+
 	public TradeCalculator(Team firstTeam, Team secondTeam) {
 		team1 = firstTeam;
 		team2 = secondTeam;
@@ -26,35 +43,203 @@ public class TradeCalculator {
 		team1BaseTotal = firstTeam.getBaseProjectedPoints();
 		team2BaseTotal = secondTeam.getBaseProjectedPoints();
 	}
-	
+
+	/*
+	 * Alternate constructor, chunkSize is the number of team1 trade combinations (each evaluated against every
+	 * team2 combination) handled by a single task when calculateTrades() is run inside a ForkJoinPool
+	 */
+	public TradeCalculator(Team firstTeam, Team secondTeam, int chunkSize) {
+		this(firstTeam, secondTeam);
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/*
+	 * Sets bounds calculated in advance for each team, otherwise they're calculated by calculateTrades()
+	 */
+	void setSeasonBounds(SeasonBounds firstTeamBounds, SeasonBounds secondTeamBounds) {
+		team1Bounds = firstTeamBounds;
+		team2Bounds = secondTeamBounds;
+	}
+
+	/*
+	 * Sets whether combinations are rejected by their bounds before every week has been calculated, the trades found
+	 * are the same either way
+	 */
+	void setBoundsPruning(boolean boundsPruning) {
+		this.boundsPruning = boundsPruning;
+	}
+
+	/*
+	 * Skips combinations made only of players who would start too rarely for either team to pass the usage filter,
+	 * see SeasonBounds.isBenchPlayer(). Can miss trades where the other team sends starters and uses a bench player instead.
+	 */
+	public void setSkipBenchPackages(boolean skipBenchPackages) {
+		this.skipBenchPackages = skipBenchPackages;
+	}
+
+	/*
+	 * Sets a sink that receives every trade as it's added to a Team
+	 */
+	public void setTradeSink(TradeSink tradeSink) {
+		this.tradeSink = tradeSink;
+	}
+
+	public Team getFirstTeam() {
+		return team1;
+	}
+
+	public Team getSecondTeam() {
+		return team2;
+	}
+
+	/*
+	 * Calculates the best trades between both teams and adds them to each Team
+	 */
 	public void getTrades() {
-		Map<List<Integer>, TradeSide> team2BestTrades = new HashMap<List<Integer>, TradeSide>();
-		Map<List<Integer>, TradeSide> team1BestTrades = new HashMap<List<Integer>, TradeSide>();
+		calculateTrades();
+		addTradesToTeams();
+	}
+
+	/*
+	 * Evaluates every combination of players between the two teams and stores the best trades found without
+	 * adding them to either Team. When called from a ForkJoinPool worker the team1 combinations are split into
+	 * chunks of chunkSize that are evaluated in parallel, otherwise all combinations are evaluated on the calling thread.
+	 * Accepted combinations are always selected in the same order as a sequential run so the stored trades are identical.
+	 */
+	public void calculateTrades() {
+		selectBestTrades(getCandidates());
+	}
+
+	/*
+	 * Evaluates every combination of players between the two teams, in parallel when called from a ForkJoinPool worker,
+	 * and returns the combinations that pass the trade filters in the order a sequential run finds them
+	 */
+	List<CandidateTrade> getCandidates() {
+		if (team1Bounds == null) {
+			team1Bounds = new SeasonBounds(team1, FantasyLeague.getWeeks());
+		}
+		if (team2Bounds == null) {
+			team2Bounds = new SeasonBounds(team2, FantasyLeague.getWeeks());
+		}
+		if (skipBenchPackages) {
+			int minWeeks = getMinTimesPlayerUsed();
+			team1Combinations = team1Combinations.skipPackagesOnlyOf(playerId -> team1Bounds.isBenchPlayer(playerId, team2Bounds, minWeeks));
+			team2Combinations = team2Combinations.skipPackagesOnlyOf(playerId -> team2Bounds.isBenchPlayer(playerId, team1Bounds, minWeeks));
+		}
+		team1Packages = team1Bounds.getPackages(team1Combinations.encodeAll());
+		team2Packages = team2Bounds.getPackages(team2Combinations.encodeAll());
+		if (ForkJoinTask.inForkJoinPool()) {
+			return new CombinationTask(0, team1Packages.length).invoke();
+		}
+		return evaluateCombinations(0, team1Packages.length);
+	}
+
+	/*
+	 * Adds the trades stored by calculateTrades() to each Team and passes them to the trade sink
+	 */
+	public void addTradesToTeams() {
+		for (int trade = team2BestTrades.firstEntry(); trade != -1; trade = team2BestTrades.nextEntry(trade)) {
+			Trade newTrade = new Trade(TradePackages.decode(team2BestTrades.getSentPackage(trade)), team1.getTeamName(), TradePackages.decode(team2BestTrades.getKey(trade)),
+					team2BestTrades.getThisTeamPointIncrease(trade), team2BestTrades.getOtherTeamPointIncrease(trade));
+			team2.addTrade(newTrade);
+			if (tradeSink != null) {
+				tradeSink.accept(team2, newTrade);
+			}
+		}
+		for (int trade = team1BestTrades.firstEntry(); trade != -1; trade = team1BestTrades.nextEntry(trade)) {
+			Trade newTrade = new Trade(TradePackages.decode(team1BestTrades.getSentPackage(trade)), team2.getTeamName(), TradePackages.decode(team1BestTrades.getKey(trade)),
+					team1BestTrades.getThisTeamPointIncrease(trade), team1BestTrades.getOtherTeamPointIncrease(trade));
+			team1.addTrade(newTrade);
+			if (tradeSink != null) {
+				tradeSink.accept(team1, newTrade);
+			}
+		}
+	}
+
+	/*
+	 * Calculates projected point totals for every team1 combination in [start, end) against every team2 combination
+	 * and returns the combinations that pass the trade filters, in the order they were evaluated. Combinations are first checked
+	 * with the season bounds from each team's lineup certificates, which need no lineups. Weeks are then calculated in order and
+	 * a combination is dropped as soon as the bounds on its remaining weeks show it can't pass the filters.
+	 */
+	List<CandidateTrade> evaluateCombinations(int start, int end) {
+		List<CandidateTrade> candidates = new ArrayList<CandidateTrade>();
 		RosterUpdater team1Updater = new RosterUpdater(team1.getCurrentPlayers());
 		RosterUpdater team2Updater = new RosterUpdater(team2.getCurrentPlayers());
-		for (List<Integer> tradePlayers : team1Combinations) {
-			for (List<Integer> otherPlayers : team2Combinations) {
-				Double currentTeam1Total = 0.0;
-				Double currentTeam2Total = 0.0;				
-				Integer[] team1Roster = team1Updater.getUpdatedRoster(tradePlayers, otherPlayers);
-				Integer[] team2Roster = team2Updater.getUpdatedRoster(otherPlayers, tradePlayers);
+		List<WeekProjections> weeks = FantasyLeague.getWeeks();
+		int numWeeks = weeks.size();
+		//bounds on the change in points for each week, converted to totals over the week and all weeks after it
+		double[] team1Lower = new double[numWeeks + 1];
+		double[] team1Upper = new double[numWeeks + 1];
+		double[] team2Lower = new double[numWeeks + 1];
+		double[] team2Upper = new double[numWeeks + 1];
+        /*Set minimum requirements for player(s) received in trade contributing to calculated projection
+		  this allows filtering of projections where the player(s) received in the trade didn't contribute to increasing
+		  projected points for the team */
+		int minTimesPlayerUsed = getMinTimesPlayerUsed();
+		for (int i = start; i < end; i++) {
+			SeasonBounds.SentPackage team1Package = team1Packages[i];
+			List<Integer> tradePlayers = team1Package.getPlayers();
+			double team1SentLower = team1Package.getSentLowerBound();
+			for (SeasonBounds.SentPackage team2Package : team2Packages) {
+				List<Integer> otherPlayers = team2Package.getPlayers();
+				if (boundsPruning) {
+					if (!canPassFilters(0.0, 0.0, team1SentLower, team1Bounds.getCertificateUpperBound(team1Package, team2Package),
+							team2Package.getSentLowerBound(), team2Bounds.getCertificateUpperBound(team2Package, team1Package))) {
+						continue;
+					}
+					team1Bounds.getWeekBounds(team1Package, team2Package, team1Lower, team1Upper);
+					team2Bounds.getWeekBounds(team2Package, team1Package, team2Lower, team2Upper);
+					for (int w = numWeeks - 1; w >= 0; w--) {
+						team1Lower[w] += team1Lower[w + 1];
+						team1Upper[w] += team1Upper[w + 1];
+						team2Lower[w] += team2Lower[w + 1];
+						team2Upper[w] += team2Upper[w + 1];
+					}
+					if (!canPassFilters(0.0, 0.0, team1Lower[0], team1Upper[0], team2Lower[0], team2Upper[0])) {
+						continue;
+					}
+				}
+				int team1UsesNeeded = otherPlayers.size() * minTimesPlayerUsed;
+				int team2UsesNeeded = tradePlayers.size() * minTimesPlayerUsed;
+				double currentTeam1Total = 0.0;
+				double currentTeam2Total = 0.0;
+				double team1BaseSoFar = 0.0;
+				double team2BaseSoFar = 0.0;
+				int[] team1Roster = team1Updater.getUpdatedRosterIndexes(tradePlayers, otherPlayers);
+				int[] team2Roster = team2Updater.getUpdatedRosterIndexes(otherPlayers, tradePlayers);
 				int team1Counter = 0;
 				int team2Counter = 0;
-				for (WeekProjections week : FantasyLeague.getWeeks()) {
-					WeekCalculator calculator = new WeekCalculator(week.getPlayersToUse(team1Roster), week.getTopWaiverForPositions(), tradePlayers, week.getWeekNum());
+				boolean canPass = true;
+				for (int w = 0; w < numWeeks && canPass; w++) {
+					WeekProjections week = weeks.get(w);
+					//each team counts how often the players it receives are used
+					WeekCalculator calculator = new WeekCalculator(week, team1Roster, otherPlayers);
 					currentTeam1Total += calculator.getOptimizedProjectedPoints();
 					team1Counter += calculator.getTimesNewPlayerUsed();
-					calculator = new WeekCalculator(week.getPlayersToUse(team2Roster), week.getTopWaiverForPositions(), otherPlayers, week.getWeekNum());
+					team1BaseSoFar += team1Bounds.getBaseWeekTotal(w);
+					int weeksLeft = numWeeks - w - 1;
+					//team2's lineup for this week is skipped if team1's already rules the combination out
+					canPass = !boundsPruning || team1Counter + otherPlayers.size() * weeksLeft >= team1UsesNeeded &&
+							canPassFilters(currentTeam1Total - team1BaseSoFar, currentTeam2Total - team2BaseSoFar,
+									team1Lower[w + 1], team1Upper[w + 1], team2Lower[w], team2Upper[w]);
+					if (!canPass) {
+						break;
+					}
+					calculator = new WeekCalculator(week, team2Roster, tradePlayers);
 					currentTeam2Total += calculator.getOptimizedProjectedPoints();
 					team2Counter += calculator.getTimesNewPlayerUsed();
+					team2BaseSoFar += team2Bounds.getBaseWeekTotal(w);
+					canPass = !boundsPruning || team2Counter + tradePlayers.size() * weeksLeft >= team2UsesNeeded &&
+							canPassFilters(currentTeam1Total - team1BaseSoFar, currentTeam2Total - team2BaseSoFar,
+									team1Lower[w + 1], team1Upper[w + 1], team2Lower[w + 1], team2Upper[w + 1]);
 				}
-                /*Set minimum requirements for player(s) received in trade contributing to calculated projection
-				  this allows filtering of projections where the player(s) received in the trade didn't contribute to increasing
-				  projected points for the team */
-				int minTimesPlayerUsed = (int)Math.ceil(((double)((16 - FantasyLeague.getCurrentWeek())*2)/3));
-				
-				if (tradePlayers.size() > 1) {
-					if (team1Counter < (tradePlayers.size()*minTimesPlayerUsed)) {
+				if (!canPass) {
+					continue;
+				}
+
+				if (otherPlayers.size() > 1) {
+					if (team1Counter < (otherPlayers.size()*minTimesPlayerUsed)) {
 						continue;
 					}
 				} else {
@@ -62,8 +247,8 @@ public class TradeCalculator {
 						continue;
 					}
 				}
-				if (otherPlayers.size() > 1) {
-					if (team2Counter <(otherPlayers.size()*minTimesPlayerUsed)) {
+				if (tradePlayers.size() > 1) {
+					if (team2Counter <(tradePlayers.size()*minTimesPlayerUsed)) {
 						continue;
 					}
 				} else {
@@ -76,42 +261,122 @@ public class TradeCalculator {
 				//Account for possible negative projection differences
 				Double projectionDifference = Math.abs(projection1Difference - projection2Difference);
 				//below should be configurable
-				if (projection1Difference > 0.0 && projection2Difference > 0.0 && projection2Difference < 60.0 && projection1Difference < 60.0 &&
-						(projection1Difference + projection2Difference) > 5.0 && projectionDifference < 10.0) {
-
-					if (team2BestTrades.containsKey(tradePlayers) &&
-							(team2BestTrades.get(tradePlayers).getPointDifference() > projectionDifference)) {
-						if (team1BestTrades.containsKey(team2BestTrades.get(tradePlayers).getThisTeamPlayers())) {
-							team1BestTrades.remove(team2BestTrades.get(tradePlayers).getThisTeamPlayers());
-						}
-							team1BestTrades.put(otherPlayers, new TradeSide(tradePlayers, projectionDifference, projection1Difference, projection2Difference));
-							team2BestTrades.put(tradePlayers, new TradeSide(otherPlayers, projectionDifference, projection2Difference, projection1Difference));
-					} else if (!team2BestTrades.containsKey(tradePlayers)){
-						if (!team1BestTrades.containsKey(otherPlayers)) {
-							team1BestTrades.put(otherPlayers, new TradeSide(tradePlayers, projectionDifference, projection1Difference, projection2Difference));
-						    team2BestTrades.put(tradePlayers, new TradeSide(otherPlayers, projectionDifference, projection2Difference, projection1Difference));
-						} else if (team1BestTrades.containsKey(otherPlayers) &&
-								(team1BestTrades.get(otherPlayers).getPointDifference() > projectionDifference)) {
-							if (team2BestTrades.containsKey(team1BestTrades.get(otherPlayers).getThisTeamPlayers())) {
-							    team2BestTrades.remove(team1BestTrades.get(otherPlayers).getThisTeamPlayers());	
-							}
-							    team1BestTrades.put(otherPlayers, new TradeSide(tradePlayers, projectionDifference, projection1Difference, projection2Difference));
-							    team2BestTrades.put(tradePlayers, new TradeSide(otherPlayers, projectionDifference, projection2Difference, projection1Difference));
-						}
-					}
+				if (projection1Difference > 0.0 && projection2Difference > 0.0 && projection2Difference < MAX_POINT_INCREASE && projection1Difference < MAX_POINT_INCREASE &&
+						(projection1Difference + projection2Difference) > MIN_COMBINED_INCREASE && projectionDifference < MAX_INCREASE_DIFFERENCE) {
+					candidates.add(new CandidateTrade(team1Package.getCode(), team2Package.getCode(), projection1Difference, projection2Difference, projectionDifference));
 				}
 			}
 		}
-		for (Map.Entry<List<Integer>, TradeSide> trade : team2BestTrades.entrySet()) {
-			Trade newTrade = new Trade(trade.getValue().getThisTeamPlayers(), team1.getTeamName(), trade.getKey(), trade.getValue().getThisTeamPointIncrease(), trade.getValue().getOtherTeamPointIncrease());
-			team2.addTrade(newTrade);
+		return candidates;
+	}
+
+	/*
+	 * Returns the number of weeks each player received in a trade must be in the optimal lineup
+	 */
+	static int getMinTimesPlayerUsed() {
+		return (int)Math.ceil(((double)((16 - FantasyLeague.getCurrentWeek())*2)/3));
+	}
+
+	/*
+	 * Returns false if a combination can't pass the point filters, team1Change and team2Change are the changes in points for the
+	 * weeks already calculated and the lower and upper values bound the change over the remaining weeks. A small margin is
+	 * allowed for rounding as the bounds are summed in a different order than the totals.
+	 */
+	private static boolean canPassFilters(double team1Change, double team2Change, double team1Lower, double team1Upper, double team2Lower, double team2Upper) {
+		double team1Min = team1Change + team1Lower - BOUND_MARGIN;
+		double team1Max = team1Change + team1Upper + BOUND_MARGIN;
+		double team2Min = team2Change + team2Lower - BOUND_MARGIN;
+		double team2Max = team2Change + team2Upper + BOUND_MARGIN;
+		return team1Max > 0.0 && team2Max > 0.0 && team1Min < MAX_POINT_INCREASE && team2Min < MAX_POINT_INCREASE &&
+				team1Max + team2Max > MIN_COMBINED_INCREASE && team1Min - team2Max < MAX_INCREASE_DIFFERENCE && team2Min - team1Max < MAX_INCREASE_DIFFERENCE;
+	}
+
+	/*
+	 * Keeps the most even trade for each combination of players on either side, candidates must be
+	 * passed in evaluation order as ties are resolved in favour of the first trade found
+	 */
+	private void selectBestTrades(List<CandidateTrade> candidates) {
+		team2BestTrades = new TradeSideMap();
+		team1BestTrades = new TradeSideMap();
+		for (CandidateTrade candidate : candidates) {
+			long tradePackage = candidate.tradePackage;
+			long otherPackage = candidate.otherPackage;
+			double projection1Difference = candidate.projection1Difference;
+			double projection2Difference = candidate.projection2Difference;
+			double projectionDifference = candidate.projectionDifference;
+			int team2Trade = team2BestTrades.getEntry(tradePackage);
+			if (team2Trade != -1) {
+				if (team2BestTrades.getPointDifference(team2Trade) > projectionDifference) {
+					team1BestTrades.remove(team2BestTrades.getSentPackage(team2Trade));
+					team1BestTrades.put(otherPackage, tradePackage, projection1Difference, projection2Difference, projectionDifference);
+					team2BestTrades.put(tradePackage, otherPackage, projection2Difference, projection1Difference, projectionDifference);
+				}
+				continue;
+			}
+			int team1Trade = team1BestTrades.getEntry(otherPackage);
+			if (team1Trade == -1) {
+				team1BestTrades.put(otherPackage, tradePackage, projection1Difference, projection2Difference, projectionDifference);
+				team2BestTrades.put(tradePackage, otherPackage, projection2Difference, projection1Difference, projectionDifference);
+			} else if (team1BestTrades.getPointDifference(team1Trade) > projectionDifference) {
+				team2BestTrades.remove(team1BestTrades.getSentPackage(team1Trade));
+				team1BestTrades.put(otherPackage, tradePackage, projection1Difference, projection2Difference, projectionDifference);
+				team2BestTrades.put(tradePackage, otherPackage, projection2Difference, projection1Difference, projectionDifference);
+			}
 		}
-		for (Map.Entry<List<Integer>, TradeSide> trade : team1BestTrades.entrySet()) {
-			Trade newTrade = new Trade(trade.getValue().getThisTeamPlayers(), team2.getTeamName(), trade.getKey(), trade.getValue().getThisTeamPointIncrease(), trade.getValue().getOtherTeamPointIncrease());
-			team1.addTrade(newTrade);
-		
+	}
+
+	/*
+	 * Combination of players from each team that passed the trade filters, holds the values needed
+	 * to select the best trades once all combinations have been evaluated
+	 */
+	static class CandidateTrade {
+		private final long tradePackage; //team1 combination, encoded by TradePackages.encode()
+		private final long otherPackage; //team2 combination
+		private final double projection1Difference;
+		private final double projection2Difference;
+		private final double projectionDifference;
+
+		CandidateTrade(long tradePackage, long otherPackage, double projection1Difference, double projection2Difference, double projectionDifference) {
+			this.tradePackage = tradePackage;
+			this.otherPackage = otherPackage;
+			this.projection1Difference = projection1Difference;
+			this.projection2Difference = projection2Difference;
+			this.projectionDifference = projectionDifference;
+		}
+
+		@Override
+		public String toString() {
+			return TradePackages.decode(tradePackage) + " " + TradePackages.decode(otherPackage) + " " + projection1Difference + " " + projection2Difference;
+		}
+	}
+
+	/*
+	 * Fork-join task evaluating a range of team1 combinations, ranges larger than chunkSize are split in half
+	 * and the candidates of both halves are joined in order
+	 */
+	private class CombinationTask extends RecursiveTask<List<CandidateTrade>> {
+		private static final long serialVersionUID = 1L;
+		private final int start;
+		private final int end;
+
+		CombinationTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected List<CandidateTrade> compute() {
+			if (end - start <= chunkSize) {
+				return evaluateCombinations(start, end);
+			}
+			int middle = (start + end) >>> 1;
+			CombinationTask firstHalf = new CombinationTask(start, middle);
+			CombinationTask secondHalf = new CombinationTask(middle, end);
+			secondHalf.fork();
+			List<CandidateTrade> candidates = firstHalf.compute();
+			candidates.addAll(secondHalf.join());
+			return candidates;
 		}
-		
 	}
 
 }
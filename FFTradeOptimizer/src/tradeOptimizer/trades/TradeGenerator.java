@@ -1,50 +1,484 @@
 package tradeOptimizer.trades;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.google.common.cache.CacheStats;
 
 import tradeOptimizer.ExcelFileGenerator;
+import tradeOptimizer.calc.LineupCache;
 import tradeOptimizer.calc.WeekCalculator;
 import tradeOptimizer.league.Team;
 import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.ProjectionChange;
 import tradeOptimizer.projections.ProjectionDataSource;
 import tradeOptimizer.projections.WeekProjections;
 
 public class TradeGenerator {
-	
+
+	private static final int DEFAULT_CHUNK_SIZE = 8;
+	public static final int DEFAULT_THREE_TEAM_SEARCH_WIDTH = 256;
+
 	private List<Team> leagueTeams;
+	private int numThreads; //number of worker threads used to calculate trades, 1 runs every calculation on the calling thread
+	private int chunkSize = DEFAULT_CHUNK_SIZE; //number of a team's trade combinations evaluated by a single parallel task
+	private int maxTradesPerTeam = TopTradeAccumulator.UNLIMITED;
+	private TradeRanking tradeRanking = TradeRanking.OWN_GAIN;
+	private TradeSink tradeSink;
+	private List<SeasonBounds> teamBounds; //bounds of each team from the last run
+	private List<TradeCalculator> pairCalculators; //trades of each pair of teams from the last run, in the order the pairs are calculated
+	private Set<Team> staleTeams = new HashSet<Team>(); //teams whose projections changed since their pairs were last calculated
+	private boolean projectionsRefreshed = false; //the next run only recalculates the pairs of stale teams
+	private int threeTeamSearchWidth = DEFAULT_THREE_TEAM_SEARCH_WIDTH;
+	private boolean skipBenchPackages = false;
+
 
-	
 	public TradeGenerator(LeagueDataSource dataSource, ProjectionDataSource projectionSource) {
+		this(dataSource, projectionSource, 1);
+	}
+
+	/*
+	 * Alternate constructor to calculate trades in parallel, numThreads is the parallelism of the ForkJoinPool
+	 * used for both the base projections and the trade calculations for each pair of teams
+	 */
+	public TradeGenerator(LeagueDataSource dataSource, ProjectionDataSource projectionSource, int numThreads) {
 	    FantasyLeague.setupLeague(dataSource, projectionSource);
+	    this.numThreads = Math.max(1, numThreads);
+	}
+
+	/*
+	 * Sets the number of trade combinations from the first team in a pair that are evaluated by a single task,
+	 * smaller chunks balance work between threads better at the cost of more tasks. Only used for parallel runs.
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+
+	/*
+	 * Caches the lineups calculated by every WeekCalculator so rosters that are calculated again, within a run or by later
+	 * calls to generateTrades(), aren't recalculated. maximumSize is the number of lineups kept, 0 disables the cache.
+	 * Rosters rarely repeat within a single run so the cache is disabled by default.
+	 */
+	public void setLineupCacheSize(long maximumSize) {
+		WeekCalculator.setLineupCache(maximumSize > 0 ? new LineupCache(maximumSize) : null);
+	}
+
+	/*
+	 * Sets the number of the most promising trades in each cycle of three teams that are fully evaluated by
+	 * generateThreeTeamTrades(), wider searches find more trades and take longer
+	 */
+	public void setThreeTeamSearchWidth(int searchWidth) {
+		this.threeTeamSearchWidth = Math.max(1, searchWidth);
+	}
+
+	/*
+	 * Sets the largest number of players each Team sends in a trade, from 1 up to TradePackages.MAX_PACKAGE_SIZE (2 by default).
+	 * Combinations of 3 players are far more numerous, setSkipBenchPackages() keeps them manageable.
+	 */
+	public void setMaxPackageSize(int maxPackageSize) {
+		for (Team team : FantasyLeague.getTeams()) {
+			team.setMaxPackageSize(maxPackageSize);
+		}
+		//bounds and trades from the last run were calculated for the old combinations
+		teamBounds = null;
+		pairCalculators = null;
+	}
+
+	/*
+	 * Skips combinations of players that rarely start for either team in a pair, see TradeCalculator.setSkipBenchPackages()
+	 */
+	public void setSkipBenchPackages(boolean skipBenchPackages) {
+		this.skipBenchPackages = skipBenchPackages;
+		//trades from the last run were calculated from the old combinations
+		pairCalculators = null;
+	}
+
+	/*
+	 * Keeps only the best maxTradesPerTeam trades for each Team by ranking, trades ranked lower are discarded as they're found
+	 * so large leagues don't hold every trade in memory. By default every trade is kept and ranked by TradeRanking.OWN_GAIN.
+	 */
+	public void setTradeLimit(int maxTradesPerTeam, TradeRanking ranking) {
+		this.maxTradesPerTeam = maxTradesPerTeam;
+		this.tradeRanking = ranking;
+	}
+
+	/*
+	 * Sets a sink that receives every trade as soon as the trades between a pair of teams are calculated, the sink is
+	 * closed once every pair is finished. The Excel file of each Team's best trades is still written.
+	 */
+	public void setTradeSink(TradeSink tradeSink) {
+		this.tradeSink = tradeSink;
+	}
+
+	/*
+	 * Replaces the league's projections with those of projectionSource and returns the weeks that changed. Only the Teams
+	 * with a player whose projection changed are affected, unless waiver values, a best available player or the weeks
+	 * projected changed, which affects every Team. The next generateTrades() or applyRosterChange() recalculates the pairs
+	 * including an affected Team and reuses the trades of the other pairs from the last run. Cached lineups of rosters the
+	 * changes don't affect are kept when the lineup cache is enabled. Must not be called while trades are being generated.
+	 */
+	public List<ProjectionChange> refreshProjections(ProjectionDataSource projectionSource) {
+		List<Integer> previousWeekNums = getWeekNums();
+		List<ProjectionChange> changes = FantasyLeague.refreshProjections(projectionSource);
+		for (ProjectionChange change : changes) {
+			System.out.println("Projections changed for " + change);
+		}
+		boolean weeksChanged = !previousWeekNums.equals(getWeekNums());
+		for (Team team : getAffectedTeams(changes, weeksChanged)) {
+			team.clearBaseProjectedPoints();
+			staleTeams.add(team);
+		}
+		projectionsRefreshed = true;
+		return changes;
 	}
-	
 
+	/*
+	 * Calculates the trades of every pair of teams. When called after refreshProjections() only the pairs including a Team
+	 * the changes affected are recalculated, unless a trade sink is set as the sink is passed the trades of every pair.
+	 */
 	public void generateTrades() {
 		leagueTeams = FantasyLeague.getTeams();
+		if (projectionsRefreshed && pairCalculators != null && tradeSink == null) {
+			updateTrades(Collections.<Team>emptySet());
+			return;
+		}
+		staleTeams.clear();
+		projectionsRefreshed = false;
 		for (Team team : leagueTeams) {
-			Double currentRosterTotal = 0.0;
-			for (WeekProjections week : FantasyLeague.getWeeks()) {
-				WeekCalculator calculator = new WeekCalculator(week.getPlayersToUse(team.getCurrentPlayers()), week.getTopWaiverForPositions(), new ArrayList<Integer>(), week.getWeekNum());
-				Double currentWeekTotal = calculator.getOptimizedProjectedPoints();
-				currentRosterTotal += currentWeekTotal;
+			team.setTradeLimit(maxTradesPerTeam, tradeRanking);
+		}
+		pairCalculators = new ArrayList<TradeCalculator>();
+		if (numThreads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(numThreads);
+			try {
+				calculateBaseProjections(pool, leagueTeams);
+				teamBounds = calculateSeasonBounds(pool, leagueTeams);
+				calculateTrades(pool);
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			teamBounds = new ArrayList<SeasonBounds>();
+			for (Team team : leagueTeams) {
+				team.setBaseProjectedPoints(getBaseProjectedPoints(team));
+				teamBounds.add(new SeasonBounds(team, FantasyLeague.getWeeks()));
+			}
+			for (int i = 0; i < leagueTeams.size() - 1; i++) {
+		        for (int j = i + 1; j < leagueTeams.size(); j++) {
+			    	TradeCalculator calculator = new TradeCalculator(leagueTeams.get(i), leagueTeams.get(j));
+			    	calculator.setSeasonBounds(teamBounds.get(i), teamBounds.get(j));
+			    	calculator.setSkipBenchPackages(skipBenchPackages);
+			    	calculator.setTradeSink(tradeSink);
+			    	calculator.getTrades();
+			    	pairCalculators.add(calculator);
+			    }
 			}
-			team.setBaseProjectedPoints(currentRosterTotal);
+		}
+		if (tradeSink != null) {
+			tradeSink.close();
+			//the sink is closed, delta runs only update the Teams
+			for (TradeCalculator calculator : pairCalculators) {
+				calculator.setTradeSink(null);
+			}
+		}
+		printCacheStats();
+		ExcelFileGenerator generator = new ExcelFileGenerator(leagueTeams);
+		generator.writeFile();
+
+	}
 
+	/*
+	 * Applies a roster change, such as an accepted trade or a waiver move, and updates the trades of every Team without
+	 * recalculating the pairs of teams the change doesn't touch. The base projections and bounds of the changed Teams and the
+	 * trades of every pair including one are recalculated, the trades stored for the other pairs by the last run are reused and
+	 * each Team's trades are ranked again, giving the same trades as a full run. The trade sink isn't passed the trades.
+	 * If generateTrades() hasn't been run yet, or the combinations changed since, every pair is calculated by generateTrades().
+	 */
+	public void applyRosterChange(RosterChange change) {
+		change.apply();
+		if (pairCalculators == null) {
+			for (Team team : change.getChangedTeams()) {
+				team.clearBaseProjectedPoints();
+			}
+			generateTrades();
+			return;
 		}
-		
-		for (int i = 0; i < leagueTeams.size() - 1; i++) {
-	        for (int j = i + 1; j < leagueTeams.size(); j++) {
-		    	Team thisTeam = leagueTeams.get(i);
-		    	Team otherTeam = leagueTeams.get(j);
-		    	TradeCalculator calculator = new TradeCalculator(thisTeam, otherTeam);
-		    	calculator.getTrades();
-		    }
+		updateTrades(change.getChangedTeams());
+	}
+
+	/*
+	 * Recalculates the base projections and bounds of the changed and stale Teams and the trades of every pair including one,
+	 * then ranks each Team's trades again using the trades of the other pairs from the last run
+	 */
+	private void updateTrades(Set<Team> changedTeams) {
+		Set<Team> teamsChanged = new HashSet<Team>(changedTeams);
+		teamsChanged.addAll(staleTeams);
+		staleTeams.clear();
+		projectionsRefreshed = false;
+		List<TradeCalculator> pairsToUpdate = new ArrayList<TradeCalculator>();
+		ForkJoinPool pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+		try {
+			updateTeams(pool, teamsChanged);
+			int pair = 0;
+			for (int i = 0; i < leagueTeams.size() - 1; i++) {
+				for (int j = i + 1; j < leagueTeams.size(); j++) {
+					if (teamsChanged.contains(leagueTeams.get(i)) || teamsChanged.contains(leagueTeams.get(j))) {
+						TradeCalculator calculator = new TradeCalculator(leagueTeams.get(i), leagueTeams.get(j), chunkSize);
+						calculator.setSeasonBounds(teamBounds.get(i), teamBounds.get(j));
+						calculator.setSkipBenchPackages(skipBenchPackages);
+						pairCalculators.set(pair, calculator);
+						pairsToUpdate.add(calculator);
+					}
+					pair++;
+				}
+			}
+			if (pool != null) {
+				List<ForkJoinTask<?>> pairTasks = new ArrayList<ForkJoinTask<?>>();
+				for (final TradeCalculator calculator : pairsToUpdate) {
+					pairTasks.add(pool.submit(() -> calculator.calculateTrades()));
+				}
+				for (ForkJoinTask<?> task : pairTasks) {
+					task.join();
+				}
+			} else {
+				for (TradeCalculator calculator : pairsToUpdate) {
+					calculator.calculateTrades();
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		System.out.println("Recalculated trades for " + pairsToUpdate.size() + " of " + pairCalculators.size() + " pairs of teams");
+		for (Team team : leagueTeams) {
+			team.setTradeLimit(maxTradesPerTeam, tradeRanking);
 		}
+		for (TradeCalculator calculator : pairCalculators) {
+			calculator.addTradesToTeams();
+		}
+		printCacheStats();
 		ExcelFileGenerator generator = new ExcelFileGenerator(leagueTeams);
 		generator.writeFile();
+	}
 
+	/*
+	 * Recalculates the base projections and bounds of teams, the pool is null for sequential runs
+	 */
+	private void updateTeams(ForkJoinPool pool, Set<Team> teams) {
+		List<Team> teamsToUpdate = new ArrayList<Team>();
+		for (Team team : leagueTeams) {
+			if (teams.contains(team)) {
+				team.clearBaseProjectedPoints();
+				teamsToUpdate.add(team);
+			}
+		}
+		List<SeasonBounds> updatedBounds;
+		if (pool != null) {
+			calculateBaseProjections(pool, teamsToUpdate);
+			updatedBounds = calculateSeasonBounds(pool, teamsToUpdate);
+		} else {
+			updatedBounds = new ArrayList<SeasonBounds>();
+			for (Team team : teamsToUpdate) {
+				team.setBaseProjectedPoints(getBaseProjectedPoints(team));
+				updatedBounds.add(new SeasonBounds(team, FantasyLeague.getWeeks()));
+			}
+		}
+		for (int t = 0; t < teamsToUpdate.size(); t++) {
+			teamBounds.set(leagueTeams.indexOf(teamsToUpdate.get(t)), updatedBounds.get(t));
+		}
+	}
+
+	/*
+	 * Returns the Teams whose rosters the projection changes affect, every Team if the weeks projected changed or a
+	 * change affects a best available player, as these can be added to any roster
+	 */
+	private List<Team> getAffectedTeams(List<ProjectionChange> changes, boolean weeksChanged) {
+		List<Team> teams = FantasyLeague.getTeams();
+		if (weeksChanged || affectsRoster(changes, FantasyLeague.getBestAvailablePlayerIds())) {
+			return teams;
+		}
+		List<Team> affectedTeams = new ArrayList<Team>();
+		for (Team team : teams) {
+			int[] roster = new int[team.getCurrentPlayers().length];
+			int i = 0;
+			for (int playerId : team.getCurrentPlayers()) {
+				roster[i++] = playerId;
+			}
+			Arrays.sort(roster);
+			if (affectsRoster(changes, roster)) {
+				affectedTeams.add(team);
+			}
+		}
+		return affectedTeams;
+	}
+
+	private static boolean affectsRoster(List<ProjectionChange> changes, int[] sortedPlayerIds) {
+		for (ProjectionChange change : changes) {
+			if (change.affectsRoster(sortedPlayerIds)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Integer> getWeekNums() {
+		List<Integer> weekNums = new ArrayList<Integer>();
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			weekNums.add(week.getWeekNum());
+		}
+		return weekNums;
+	}
+
+	/*
+	 * Searches for trades between three teams in a cycle, each team sends one or two players to the next team and receives
+	 * them from the previous one. Both directions of every set of three teams are searched, see ThreeTeamTradeCalculator.
+	 * Returns the best maxTrades trades by total point increase, these aren't added to the Teams or the trade sink.
+	 * Uses the base projections and bounds of the last run, so it's fastest after generateTrades(). The bounds of Teams
+	 * affected by refreshProjections() are recalculated, their pairs are still recalculated by the next generateTrades().
+	 */
+	public List<ThreeTeamTrade> generateThreeTeamTrades(int maxTrades) {
+		leagueTeams = FantasyLeague.getTeams();
+		ForkJoinPool pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+		List<ThreeTeamTrade> trades = new ArrayList<ThreeTeamTrade>();
+		try {
+			if (teamBounds == null) {
+				for (Team team : leagueTeams) {
+					team.clearBaseProjectedPoints();
+				}
+				if (pool != null) {
+					calculateBaseProjections(pool, leagueTeams);
+					teamBounds = calculateSeasonBounds(pool, leagueTeams);
+				} else {
+					teamBounds = new ArrayList<SeasonBounds>();
+					for (Team team : leagueTeams) {
+						team.setBaseProjectedPoints(getBaseProjectedPoints(team));
+						teamBounds.add(new SeasonBounds(team, FantasyLeague.getWeeks()));
+					}
+				}
+			} else {
+				updateTeams(pool, staleTeams);
+			}
+			List<ThreeTeamTradeCalculator> calculators = new ArrayList<ThreeTeamTradeCalculator>();
+			for (int i = 0; i < leagueTeams.size() - 2; i++) {
+				for (int j = i + 1; j < leagueTeams.size() - 1; j++) {
+					for (int k = j + 1; k < leagueTeams.size(); k++) {
+						calculators.add(createThreeTeamCalculator(i, j, k, maxTrades));
+						calculators.add(createThreeTeamCalculator(i, k, j, maxTrades));
+					}
+				}
+			}
+			if (pool != null) {
+				List<ForkJoinTask<List<ThreeTeamTrade>>> cycleTasks = new ArrayList<ForkJoinTask<List<ThreeTeamTrade>>>();
+				for (final ThreeTeamTradeCalculator calculator : calculators) {
+					cycleTasks.add(pool.submit(() -> calculator.calculateTrades()));
+				}
+				for (ForkJoinTask<List<ThreeTeamTrade>> task : cycleTasks) {
+					trades.addAll(task.join());
+				}
+			} else {
+				for (ThreeTeamTradeCalculator calculator : calculators) {
+					trades.addAll(calculator.calculateTrades());
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		//stable sort, trades with the same total stay in the order their cycles were searched
+		Collections.sort(trades, Collections.reverseOrder(ThreeTeamTradeCalculator.BY_TOTAL));
+		if (trades.size() > maxTrades) {
+			trades = new ArrayList<ThreeTeamTrade>(trades.subList(0, maxTrades));
+		}
+		printCacheStats();
+		return trades;
+	}
+
+	private ThreeTeamTradeCalculator createThreeTeamCalculator(int first, int second, int third, int maxTrades) {
+		Team[] teams = {leagueTeams.get(first), leagueTeams.get(second), leagueTeams.get(third)};
+		SeasonBounds[] bounds = {teamBounds.get(first), teamBounds.get(second), teamBounds.get(third)};
+		return new ThreeTeamTradeCalculator(teams, bounds, threeTeamSearchWidth, maxTrades);
+	}
+
+	private void printCacheStats() {
+		LineupCache cache = WeekCalculator.getLineupCache();
+		if (cache != null) {
+			CacheStats stats = cache.getStats();
+			System.out.println("Lineup cache hit rate: " + String.format("%.1f%%", stats.hitRate() * 100) + " (" + stats.hitCount() + " hits, " + stats.missCount() + " misses)");
+		}
+	}
+
+	/*
+	 * Returns the projected points for the remainder of the season using a team's current roster
+	 */
+	private Double getBaseProjectedPoints(Team team) {
+		Double currentRosterTotal = 0.0;
+		int[] roster = team.getCurrentPlayerIndexes();
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			WeekCalculator calculator = new WeekCalculator(week, roster, new ArrayList<Integer>());
+			Double currentWeekTotal = calculator.getOptimizedProjectedPoints();
+			currentRosterTotal += currentWeekTotal;
+		}
+		return currentRosterTotal;
+	}
+
+	/*
+	 * Calculates base projections for teams in parallel, all must be set before any trades are calculated
+	 */
+	private void calculateBaseProjections(ForkJoinPool pool, List<Team> teams) {
+		List<ForkJoinTask<Double>> baseTasks = new ArrayList<ForkJoinTask<Double>>();
+		for (final Team team : teams) {
+			baseTasks.add(pool.submit(() -> getBaseProjectedPoints(team)));
+		}
+		for (int i = 0; i < teams.size(); i++) {
+			teams.get(i).setBaseProjectedPoints(baseTasks.get(i).join());
+		}
+	}
+
+	/*
+	 * Calculates the bounds used to reject trade combinations early for teams in parallel
+	 */
+	private List<SeasonBounds> calculateSeasonBounds(ForkJoinPool pool, List<Team> teams) {
+		List<ForkJoinTask<SeasonBounds>> boundsTasks = new ArrayList<ForkJoinTask<SeasonBounds>>();
+		for (final Team team : teams) {
+			boundsTasks.add(pool.submit(() -> new SeasonBounds(team, FantasyLeague.getWeeks())));
+		}
+		List<SeasonBounds> teamBounds = new ArrayList<SeasonBounds>();
+		for (ForkJoinTask<SeasonBounds> task : boundsTasks) {
+			teamBounds.add(task.join());
+		}
+		return teamBounds;
+	}
+
+	/*
+	 * Submits a task for each pair of teams, each task splits its team's combinations into chunks
+	 * that are evaluated by the other workers in the pool. Each task adds its trades to both Teams as soon as it finishes,
+	 * the trades kept by each Team are ranked so they don't depend on which task finished first.
+	 */
+	private void calculateTrades(ForkJoinPool pool) {
+		List<ForkJoinTask<?>> pairTasks = new ArrayList<ForkJoinTask<?>>();
+		for (int i = 0; i < leagueTeams.size() - 1; i++) {
+	        for (int j = i + 1; j < leagueTeams.size(); j++) {
+		    	final TradeCalculator calculator = new TradeCalculator(leagueTeams.get(i), leagueTeams.get(j), chunkSize);
+		    	calculator.setSeasonBounds(teamBounds.get(i), teamBounds.get(j));
+		    	calculator.setSkipBenchPackages(skipBenchPackages);
+		    	calculator.setTradeSink(tradeSink);
+		    	pairTasks.add(pool.submit(() -> calculator.getTrades()));
+		    	pairCalculators.add(calculator);
+		    }
+		}
+		for (ForkJoinTask<?> task : pairTasks) {
+			task.join();
+		}
 	}
 
 }
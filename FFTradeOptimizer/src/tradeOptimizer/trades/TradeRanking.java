@@ -0,0 +1,39 @@
+package tradeOptimizer.trades;
+
+/*
+ * Orders in which a Team's trades can be ranked, each gives a trade a score and trades with higher scores rank first
+ */
+public enum TradeRanking {
+
+	/*
+	 * Largest projected point increase for the team holding the trade first, the order used by Trade.compareTo()
+	 */
+	OWN_GAIN {
+		@Override
+		public double getScore(Trade trade) {
+			return trade.getThisTeamPointIncrease();
+		}
+	},
+
+	/*
+	 * Smallest difference between both teams' point increases first
+	 */
+	FAIRNESS {
+		@Override
+		public double getScore(Trade trade) {
+			return -Math.abs(trade.getThisTeamPointIncrease() - trade.getOtherTeamPointIncrease());
+		}
+	},
+
+	/*
+	 * Largest total point increase of both teams first
+	 */
+	COMBINED_GAIN {
+		@Override
+		public double getScore(Trade trade) {
+			return trade.getThisTeamPointIncrease() + trade.getOtherTeamPointIncrease();
+		}
+	};
+
+	public abstract double getScore(Trade trade);
+}
@@ -0,0 +1,172 @@
+package tradeOptimizer.trades;
+
+import java.util.Arrays;
+
+/*
+ * Map used by TradeCalculator to keep the best trade found for each package of players a Team receives. Keys and the packages
+ * sent are encoded by TradePackages.encode(), and the point values of each trade are stored in parallel arrays, so an entry
+ * is a few primitives rather than a list key, a TradeSide and its boxed Doubles. Keys are found by open addressing with linear
+ * probing in a table of entry numbers.
+ *
+ * Entries are iterated in the order their keys were added, a key that's removed and added again goes to the end.
+ */
+class TradeSideMap {
+
+	private static final int INITIAL_CAPACITY = 16; //must be a power of 2
+	private static final int NO_ENTRY = -1;
+
+	private int[] table; //entry number for each slot, NO_ENTRY if the slot is empty
+	private long[] keys; //key of each entry, 0 once removed
+	private long[] sentPackages;
+	private double[] thisTeamPointIncreases;
+	private double[] otherTeamPointIncreases;
+	private double[] pointDifferences;
+	private int numEntries = 0; //entries added, including removed ones
+	private int size = 0;
+
+	TradeSideMap() {
+		table = new int[INITIAL_CAPACITY * 2];
+		Arrays.fill(table, NO_ENTRY);
+		keys = new long[INITIAL_CAPACITY];
+		sentPackages = new long[INITIAL_CAPACITY];
+		thisTeamPointIncreases = new double[INITIAL_CAPACITY];
+		otherTeamPointIncreases = new double[INITIAL_CAPACITY];
+		pointDifferences = new double[INITIAL_CAPACITY];
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean containsKey(long key) {
+		return table[findSlot(key)] != NO_ENTRY;
+	}
+
+	/*
+	 * Returns the entry of key, NO_ENTRY (-1) if key isn't in the map
+	 */
+	int getEntry(long key) {
+		return table[findSlot(key)];
+	}
+
+	/*
+	 * Adds or replaces the trade for key, a replaced trade keeps its place in the iteration order
+	 */
+	void put(long key, long sentPackage, double thisTeamPointIncrease, double otherTeamPointIncrease, double pointDifference) {
+		int slot = findSlot(key);
+		int entry = table[slot];
+		if (entry == NO_ENTRY) {
+			if (numEntries == keys.length) {
+				growEntries();
+			}
+			entry = numEntries++;
+			keys[entry] = key;
+			table[slot] = entry;
+			size++;
+			if (size * 2 > table.length) {
+				rehash(table.length * 2);
+			}
+		}
+		sentPackages[entry] = sentPackage;
+		thisTeamPointIncreases[entry] = thisTeamPointIncrease;
+		otherTeamPointIncreases[entry] = otherTeamPointIncrease;
+		pointDifferences[entry] = pointDifference;
+	}
+
+	void remove(long key) {
+		int slot = findSlot(key);
+		int entry = table[slot];
+		if (entry == NO_ENTRY) {
+			return;
+		}
+		keys[entry] = 0L;
+		size--;
+		//shift back any entries after the removed one that would no longer be found past the empty slot
+		int mask = table.length - 1;
+		int empty = slot;
+		int next = (slot + 1) & mask;
+		while (table[next] != NO_ENTRY) {
+			int home = hash(keys[table[next]]) & mask;
+			if (((next - home) & mask) >= ((next - empty) & mask)) {
+				table[empty] = table[next];
+				empty = next;
+			}
+			next = (next + 1) & mask;
+		}
+		table[empty] = NO_ENTRY;
+	}
+
+	/*
+	 * Entries are numbered in the order they were added, removed entries are skipped:
+	 * for (int entry = map.firstEntry(); entry != -1; entry = map.nextEntry(entry))
+	 */
+	int firstEntry() {
+		return nextEntry(-1);
+	}
+
+	int nextEntry(int entry) {
+		for (int next = entry + 1; next < numEntries; next++) {
+			if (keys[next] != 0L) {
+				return next;
+			}
+		}
+		return NO_ENTRY;
+	}
+
+	long getKey(int entry) {
+		return keys[entry];
+	}
+
+	long getSentPackage(int entry) {
+		return sentPackages[entry];
+	}
+
+	double getThisTeamPointIncrease(int entry) {
+		return thisTeamPointIncreases[entry];
+	}
+
+	double getOtherTeamPointIncrease(int entry) {
+		return otherTeamPointIncreases[entry];
+	}
+
+	double getPointDifference(int entry) {
+		return pointDifferences[entry];
+	}
+
+	/*
+	 * Returns the slot holding key, or the empty slot where it would be added
+	 */
+	private int findSlot(long key) {
+		int mask = table.length - 1;
+		int slot = hash(key) & mask;
+		while (table[slot] != NO_ENTRY && keys[table[slot]] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int hash(long key) {
+		//mixes the bits of every player index in the package into the low bits used for the slot
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return (int)(mixed ^ (mixed >>> 32));
+	}
+
+	private void growEntries() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		sentPackages = Arrays.copyOf(sentPackages, capacity);
+		thisTeamPointIncreases = Arrays.copyOf(thisTeamPointIncreases, capacity);
+		otherTeamPointIncreases = Arrays.copyOf(otherTeamPointIncreases, capacity);
+		pointDifferences = Arrays.copyOf(pointDifferences, capacity);
+	}
+
+	private void rehash(int tableSize) {
+		table = new int[tableSize];
+		Arrays.fill(table, NO_ENTRY);
+		for (int entry = 0; entry < numEntries; entry++) {
+			if (keys[entry] != 0L) {
+				table[findSlot(keys[entry])] = entry;
+			}
+		}
+	}
+}
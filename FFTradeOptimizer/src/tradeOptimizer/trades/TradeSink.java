@@ -0,0 +1,21 @@
+package tradeOptimizer.trades;
+
+import java.io.Closeable;
+
+import tradeOptimizer.league.Team;
+
+/*
+ * Destination for trades as they're found. TradeCalculator passes each trade to the sink as soon as the trades between a pair of
+ * teams are calculated, so accept() can be called from multiple threads. close() is called once every trade has been passed
+ * and must not return until they've all been written.
+ */
+public interface TradeSink extends Closeable {
+
+	/*
+	 * Receives a trade found for team, trade is from team's point of view
+	 */
+	public void accept(Team team, Trade trade);
+
+	@Override
+	public void close();
+}
@@ -0,0 +1,234 @@
+package tradeOptimizer.yahoo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/*
+ * Downloads and parses Yahoo pages on a pool of threads. At most maxConcurrentRequests downloads are open at once and downloads
+ * are started at no more than requestsPerSecond, with bursts of up to a second's worth of requests (a token bucket). A download only
+ * holds its permit while the page is read, so pages are parsed while other pages are still downloading.
+ * Failed downloads, and pages that can't be parsed, are retried up to maxRetries times after an exponential backoff with full jitter.
+ *
+ * Pages are requested gzip compressed and read to the end without disconnecting, so HttpURLConnection returns each connection to its
+ * keep-alive pool and later requests to the same host reuse it. The JDK keeps up to 5 idle connections per host (the
+ * http.maxConnections system property), so more concurrent requests than that open some new connections.
+ * With a ResponseCache, fresh pages are read from disk without a request or permit and stale pages are revalidated.
+ */
+public class PageFetcher {
+
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+	public static final double DEFAULT_REQUESTS_PER_SECOND = 8.0;
+	public static final int DEFAULT_MAX_RETRIES = 5;
+	private static final long BASE_BACKOFF_MILLIS = 500;
+	private static final long MAX_BACKOFF_MILLIS = 30000;
+	private static final int TIMEOUT_MILLIS = 15000;
+
+	/*
+	 * Reads the value wanted from a downloaded page, runs on the fetcher's threads. Any RuntimeException, such as a
+	 * NullPointerException from a page missing the expected elements, retries the page.
+	 */
+	public interface PageParser<T> {
+		T parse(Document page);
+	}
+
+	public static final PageParser<Document> DOCUMENT = page -> page;
+
+	private final Semaphore permits;
+	private final RateLimiter rateLimiter;
+	private final ExecutorService executor;
+	private final int maxRetries;
+	private ResponseCache cache;
+	private long cacheTtlMillis;
+
+	public PageFetcher() {
+		this(DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_REQUESTS_PER_SECOND, DEFAULT_MAX_RETRIES);
+	}
+
+	public PageFetcher(int maxConcurrentRequests, double requestsPerSecond, int maxRetries) {
+		if (maxConcurrentRequests < 1 || requestsPerSecond <= 0.0 || maxRetries < 0) {
+			throw new IllegalArgumentException("Invalid fetch limits: " + maxConcurrentRequests + " requests, " + requestsPerSecond + " per second, " + maxRetries + " retries");
+		}
+		this.permits = new Semaphore(maxConcurrentRequests);
+		this.rateLimiter = RateLimiter.create(requestsPerSecond);
+		this.maxRetries = maxRetries;
+		//extra threads parse pages while maxConcurrentRequests threads are downloading
+		int numThreads = maxConcurrentRequests + Runtime.getRuntime().availableProcessors();
+		this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder().setNameFormat("page-fetcher-%d").setDaemon(true).build());
+	}
+
+	/*
+	 * Serves pages from cache while they're less than ttlMillis old and stores the pages downloaded, set before any page is fetched
+	 */
+	public void setResponseCache(ResponseCache cache, long ttlMillis) {
+		this.cache = cache;
+		this.cacheTtlMillis = ttlMillis;
+	}
+
+	/*
+	 * Queues a GET request for url with the query parameters in params, in their iteration order.
+	 * The Future returns the parsed page, or throws an ExecutionException once every retry has failed.
+	 */
+	public <T> Future<T> fetch(String url, Map<String, String> params, PageParser<T> parser) {
+		final String requestUrl = url + "?" + getQueryString(params);
+		return executor.submit(() -> fetchWithRetries(requestUrl, parser));
+	}
+
+	/*
+	 * Stops the threads once queued requests finish
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private <T> T fetchWithRetries(String url, PageParser<T> parser) throws IOException, InterruptedException {
+		ResponseCache.Entry cached = null;
+		if (cache != null) {
+			cached = cache.isOffline() ? cache.getOffline(url) : cache.get(url);
+			if (cached != null && (cache.isOffline() || cached.isFresh(cacheTtlMillis))) {
+				return parser.parse(Jsoup.parse(new ByteArrayInputStream(cached.getBody()), null, url));
+			}
+		}
+		for (int attempt = 0; ; attempt++) {
+			try {
+				HttpURLConnection connection;
+				byte[] body;
+				permits.acquire();
+				try {
+					rateLimiter.acquire();
+					connection = (HttpURLConnection) new URL(url).openConnection();
+					connection.setConnectTimeout(TIMEOUT_MILLIS);
+					connection.setReadTimeout(TIMEOUT_MILLIS);
+					connection.setRequestProperty("Accept-Encoding", "gzip");
+					if (cached != null && cached.getETag() != null) {
+						connection.setRequestProperty("If-None-Match", cached.getETag());
+					}
+					if (cached != null && cached.getLastModified() != null) {
+						connection.setRequestProperty("If-Modified-Since", cached.getLastModified());
+					}
+					body = readBody(connection);
+				} finally {
+					permits.release();
+				}
+				if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+					T page = parser.parse(Jsoup.parse(new ByteArrayInputStream(cached.getBody()), null, url));
+					updateCache(url, null, cached, connection);
+					return page;
+				}
+				T page = parser.parse(Jsoup.parse(new ByteArrayInputStream(body), getCharset(connection.getContentType()), url));
+				//only pages that could be parsed are cached, not error or throttling pages
+				if (cache != null) {
+					updateCache(url, body, null, connection);
+				}
+				return page;
+			} catch (IOException | RuntimeException e) {
+				if (attempt >= maxRetries) {
+					throw e;
+				}
+				System.out.println("Retrying " + url + " after: " + e);
+				Thread.sleep(getBackoffMillis(attempt));
+			}
+		}
+	}
+
+	/*
+	 * Stores a downloaded page, or marks a revalidated page as fresh. A page that can't be cached is still used.
+	 */
+	private void updateCache(String url, byte[] body, ResponseCache.Entry revalidated, HttpURLConnection connection) {
+		try {
+			if (revalidated != null) {
+				cache.markRevalidated(revalidated);
+			} else {
+				cache.put(url, body, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Reads the whole response, error responses are also read to the end so the connection can be reused
+	 */
+	private static byte[] readBody(HttpURLConnection connection) throws IOException {
+		int responseCode = connection.getResponseCode();
+		InputStream stream = responseCode < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if (stream != null) {
+			try {
+				if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+					stream = new GZIPInputStream(stream);
+				}
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = stream.read(buffer)) != -1) {
+					body.write(buffer, 0, read);
+				}
+			} finally {
+				stream.close();
+			}
+		}
+		if (responseCode >= 400) {
+			throw new IOException("HTTP " + responseCode + " for " + connection.getURL());
+		}
+		return body.toByteArray();
+	}
+
+	/*
+	 * Returns a random delay up to BASE_BACKOFF_MILLIS * 2^attempt, capped at MAX_BACKOFF_MILLIS, so retries from many
+	 * requests that failed together are spread out
+	 */
+	private static long getBackoffMillis(int attempt) {
+		long maxDelay = MAX_BACKOFF_MILLIS;
+		if (attempt < 16) {
+			maxDelay = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+		}
+		return ThreadLocalRandom.current().nextLong(maxDelay + 1);
+	}
+
+	//null if the content type doesn't give a charset, Jsoup then reads it from the page or uses UTF-8
+	private static String getCharset(String contentType) {
+		if (contentType == null) {
+			return null;
+		}
+		int index = contentType.toLowerCase().indexOf("charset=");
+		if (index < 0) {
+			return null;
+		}
+		String charset = contentType.substring(index + "charset=".length()).trim();
+		int end = charset.indexOf(';');
+		return (end < 0 ? charset : charset.substring(0, end)).replace("\"", "").trim();
+	}
+
+	private static String getQueryString(Map<String, String> params) {
+		StringBuilder query = new StringBuilder();
+		try {
+			for (Map.Entry<String, String> param : params.entrySet()) {
+				if (query.length() > 0) {
+					query.append('&');
+				}
+				query.append(URLEncoder.encode(param.getKey(), "UTF-8")).append('=').append(URLEncoder.encode(param.getValue(), "UTF-8"));
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return query.toString();
+	}
+}
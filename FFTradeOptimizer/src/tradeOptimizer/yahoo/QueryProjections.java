@@ -1,13 +1,17 @@
 package tradeOptimizer.yahoo;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -16,11 +20,18 @@ import tradeOptimizer.league.Player;
 import tradeOptimizer.league.Position;
 import tradeOptimizer.league.FantasyLeague;
 import tradeOptimizer.projections.ProjectionCSVWriter;
+import tradeOptimizer.projections.ProjectionChange;
 import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.ProjectionSnapshot;
 import tradeOptimizer.projections.WeekProjections;
 
 public class QueryProjections implements ProjectionDataSource {
-    
+
+	private static final int NUM_OFFENSE_PAGES = 13;
+	private static final int NUM_AVAILABLE_PAGES = 15;
+	private static final int PLAYERS_PER_PAGE = 25;
+	public static final long PROJECTIONS_CACHE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
 	private int startWeekProjections = 1;
 	private int numPlayersInLeague;
 	private Map<Integer, Integer> playersOnByeForWeekProjections;
@@ -30,7 +41,12 @@ public class QueryProjections implements ProjectionDataSource {
 	private String baseURL;
 	private boolean writeToCsv = false;
 	private HashMap<Position, Player> bestAvailablePlayersByPosition;
-	
+	private int maxConcurrentRequests = PageFetcher.DEFAULT_MAX_CONCURRENT_REQUESTS;
+	private double requestsPerSecond = PageFetcher.DEFAULT_REQUESTS_PER_SECOND;
+	private int maxRetries = PageFetcher.DEFAULT_MAX_RETRIES;
+	private ResponseCache responseCache;
+	private File snapshotFile;
+
 	public QueryProjections(int startWeekProjections, boolean writeToCsv, int leagueId) {
 		this.startWeekProjections = startWeekProjections;
 		this.bestAvailablePlayersByPosition = new HashMap<Position, Player>();
@@ -45,231 +61,261 @@ public class QueryProjections implements ProjectionDataSource {
             }
 		}
 	}
-	
+
 	public void setPlayersOnBye(Map<Integer,Integer> playersByeWeekProjectionsMap) {
 		this.playersOnByeForWeekProjections = playersByeWeekProjectionsMap;
 	}
-	
+
 	public void setNumDefenses(int number) {
 		this.numDefenses = number;
 	}
-	
+
+	/*
+	 * Sets how hard Yahoo is queried: at most maxConcurrentRequests pages are downloaded at once, no more than requestsPerSecond
+	 * requests are started each second and a page that fails is retried maxRetries times before it's skipped
+	 */
+	public void setFetchLimits(int maxConcurrentRequests, double requestsPerSecond, int maxRetries) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.requestsPerSecond = requestsPerSecond;
+		this.maxRetries = maxRetries;
+	}
+
+	/*
+	 * Serves projection pages from cache while they're less than PROJECTIONS_CACHE_TTL_MILLIS old, in the cache's offline
+	 * mode no requests are sent
+	 */
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/*
+	 * Writes the projections loaded to a ProjectionSnapshot, later runs can open the snapshot instead of querying Yahoo.
+	 * If the file already holds a snapshot each week is versioned against it and the changes are printed before it's replaced.
+	 */
+	public void setSnapshotFile(File snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
 	public HashMap<Position, Player> getBestAvailablePlayersByPosition() {
 		return this.bestAvailablePlayersByPosition;
 	}
-	
+
+	/*
+	 * Every page of every week is requested up front and downloaded concurrently within the fetch limits, each week's
+	 * projections are then added in page order so the results are the same as loading the pages one at a time
+	 */
 	public List<WeekProjections> getWeekProjections() {
 		List<WeekProjections> weeks = new ArrayList<WeekProjections>();
-		getBestAvailablePlayers();
-        numPlayersInLeague = FantasyLeague.getPlayerCount();
-		for (int i = this.startWeekProjections; i < 17; i++) {
-			WeekProjections thisWeekProjections = queryProjectionsForWeek(i,0);
-			weeks.add(thisWeekProjections);
+		PageFetcher fetcher = new PageFetcher(maxConcurrentRequests, requestsPerSecond, maxRetries);
+		if (responseCache != null) {
+			fetcher.setResponseCache(responseCache, PROJECTIONS_CACHE_TTL_MILLIS);
+		}
+		try {
+			getBestAvailablePlayers(fetcher);
+			numPlayersInLeague = FantasyLeague.getPlayerCount();
+			Map<Integer, List<Future<List<ProjectionRow>>>> pagesForWeek = new HashMap<Integer, List<Future<List<ProjectionRow>>>>();
+			for (int i = this.startWeekProjections; i < 17; i++) {
+				pagesForWeek.put(i, queryPagesForWeek(fetcher, i));
+			}
+			for (int i = this.startWeekProjections; i < 17; i++) {
+				WeekProjections thisWeekProjections = loadProjectionsForWeek(i, pagesForWeek.get(i));
+				weeks.add(thisWeekProjections);
+			}
+		} finally {
+			fetcher.shutdown();
+			if (writeToCsv) {
+				writer.close();
+			}
+		}
+		if (snapshotFile != null) {
+			if (snapshotFile.isFile()) {
+				versionAgainstSnapshot(weeks);
+			}
+			try {
+				ProjectionSnapshot.write(snapshotFile, weeks, bestAvailablePlayersByPosition);
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.out.println("Warning, failed to write projection snapshot " + snapshotFile);
+			}
 		}
         return weeks;
-	}		
-			
-	private WeekProjections queryProjectionsForWeek(int weekNum, int numRetries) {
-		if (numRetries != 0) {
-			System.out.println("Retrying projection queries for week: " + String.valueOf(weekNum));
+	}
+
+	/*
+	 * Sets the version of each week from the snapshot written by an earlier run, a week keeps its version if its projections
+	 * are unchanged
+	 */
+	private void versionAgainstSnapshot(List<WeekProjections> weeks) {
+		try {
+			List<ProjectionChange> changes = ProjectionChange.versionWeeks(new ProjectionSnapshot(snapshotFile).getWeekProjections(), weeks);
+			for (ProjectionChange change : changes) {
+				System.out.println("Projections changed for " + change);
+			}
+		} catch (IOException e) {
+			System.out.println("Warning, couldn't version projections against " + snapshotFile + ": " + e.getMessage());
 		}
-			int numPlayersToLoad = numPlayersInLeague - playersOnByeForWeekProjections.get(weekNum) - numDefenses;
-			int playersLoaded = 0;
-			WeekProjections thisWeekProjections = new WeekProjections(weekNum);
-			HashMap<Integer, Double> projectionsForPlayers = new HashMap<Integer, Double>();
+	}
 
-			try {
-				for (int j = 0; j < 13; j++) {
-					Document doc;
-					if (j == 0) {
-				        doc = Jsoup.connect(baseURL)
-						        .data("status", "ALL")
-							    .data("pos", "O")
-							    //.data("cut_type", "9")
-							    .data("sdir", "1")
-							    .data("stat1", "S_PW_" + String.valueOf(weekNum))
-							    .data("sort", "PTS")
-							    .timeout(15000)
-							    .get();
-					}
-					else {
-						doc = Jsoup.connect(baseURL)
-							    .data("status", "ALL")
-								.data("pos", "O")
-								//.data("cut_type", "9")
-								.data("sdir", "1")
-								.data("stat1", "S_PW_" + String.valueOf(weekNum))
-								.data("sort", "PTS")
-								.data("count", String.valueOf(25*j))
-								.timeout(15000)
-								.get();
+	/*
+	 * Requests the offense pages for a week followed by the defense page
+	 */
+	private List<Future<List<ProjectionRow>>> queryPagesForWeek(PageFetcher fetcher, int weekNum) {
+		List<Future<List<ProjectionRow>>> pages = new ArrayList<Future<List<ProjectionRow>>>();
+		for (int j = 0; j < NUM_OFFENSE_PAGES; j++) {
+			pages.add(fetcher.fetch(baseURL, getPageParams("O", "S_PW_" + String.valueOf(weekNum), j), page -> parseProjectionRows(page, true)));
+		}
+		//Query Defenses separately
+		pages.add(fetcher.fetch(baseURL, getPageParams("DEF", "S_PW_" + String.valueOf(weekNum), 0), page -> parseProjectionRows(page, false)));
+		return pages;
+	}
+
+	private static Map<String, String> getPageParams(String position, String stat, int pageNum) {
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		params.put("status", "ALL");
+		params.put("pos", position);
+		//params.put("cut_type", "9");
+		params.put("sdir", "1");
+		params.put("stat1", stat);
+		params.put("sort", "PTS");
+		if (pageNum > 0) {
+			params.put("count", String.valueOf(PLAYERS_PER_PAGE * pageNum));
+		}
+		return params;
+	}
+
+	private WeekProjections loadProjectionsForWeek(int weekNum, List<Future<List<ProjectionRow>>> pages) {
+		int numPlayersToLoad = numPlayersInLeague - playersOnByeForWeekProjections.get(weekNum) - numDefenses;
+		int playersLoaded = 0;
+		WeekProjections thisWeekProjections = new WeekProjections(weekNum);
+		HashMap<Integer, Double> projectionsForPlayers = new HashMap<Integer, Double>();
+
+		for (int j = 0; j < NUM_OFFENSE_PAGES; j++) {
+			List<ProjectionRow> playerRows = getPage(pages.get(j), weekNum);
+			for (ProjectionRow row : playerRows) {
+				if (row.inLeague) {
+					if (row.projectedPoints == 0.0) {
+						System.out.println("WARNING: Couldnt get projection for: " + String.valueOf(row.playerId));
 					}
-				Element playersTableElement = doc.select("div#players-table").first();
-				Element playersElement = playersTableElement.select("div.players").first();
-				Element playersDataTable = playersElement.select("TABLE").first().select("TBODY").first();
-				Elements playerRows = playersDataTable.select("TR");
-				
-				for (Element element : playerRows) {
-					boolean addPlayerProjection = false;
-					Double projectedPointsValue = 0.0;
-					int playerID = -1;
-					String waiverPlayerPosition = "";
-					Element playerStart = element.select(".player.Ta-start.Bdrend").first();
-					Elements aElements = playerStart.getElementsByTag("A");
-					for (Element aElement : aElements) {
-						if (aElement.hasAttr("data-ys-playerid")) {
-							String playerId = aElement.attr("data-ys-playerid");
-							playerID = Integer.valueOf(playerId);
-							if (FantasyLeague.isValidPlayer(playerID)) {
-								addPlayerProjection = true;
-								break;
-							}
-							
-						}
+					projectionsForPlayers.put(row.playerId, row.projectedPoints);
+					playersLoaded++;
+					if (playersLoaded == numPlayersToLoad) {
+						break;
 					}
-					if (!addPlayerProjection) {
-						Elements spanElements = playerStart.getElementsByTag("SPAN");
-						if (spanElements.hasClass("Fz-xxs")) {
-							Element positionText = spanElements.select(".Fz-xxs").first();
-							String teamAndPosition = positionText.ownText();
-							waiverPlayerPosition = teamAndPosition.substring(teamAndPosition.length() - 2, teamAndPosition.length());
-						}
-					}
-					Elements elements = element.select("TD.Alt.Ta-end.Nowrap");
-					for (Element e : elements) {
-						Elements childElements = e.getElementsByTag("SPAN");
-						if (!childElements.isEmpty() && childElements.hasClass("Fw-b")) {
-							Element projectedPoints = childElements.select(".Fw-b").first();
-							String pointsTextVal = projectedPoints.ownText();
-							projectedPointsValue = Double.valueOf(pointsTextVal);
-							break;
-						}
-					}
-					
-					if (addPlayerProjection) {
-						if (projectedPointsValue == 0.0) {
-							System.out.println("WARNING: Couldnt get projection for: " + String.valueOf(playerID));
-						}
-						projectionsForPlayers.put(playerID, projectedPointsValue);
-						playersLoaded++;
-						if (playersLoaded == numPlayersToLoad) {
-							break;
-						}
-					} else if (projectedPointsValue != 0.0 && playerID != 0 && !waiverPlayerPosition.equals("")) {
-						if (Position.isValidPosition(waiverPlayerPosition)) {
-							Position position = Position.valueOf(waiverPlayerPosition);
-						    thisWeekProjections.tryAddTopWaiverPositionValue(projectedPointsValue, position);
-						}
+				} else if (row.projectedPoints != 0.0 && row.playerId != 0 && !row.waiverPosition.equals("")) {
+					if (Position.isValidPosition(row.waiverPosition)) {
+						Position position = Position.valueOf(row.waiverPosition);
+					    thisWeekProjections.tryAddTopWaiverPositionValue(row.projectedPoints, position);
 					}
 				}
-				
+			}
+		}
+
+		List<ProjectionRow> defenseRows = getPage(pages.get(NUM_OFFENSE_PAGES), weekNum);
+		for (ProjectionRow row : defenseRows) {
+			if (row.inLeague) {
+				if (row.projectedPoints == 0.0) {
+					System.out.println("WARNING: Couldnt get projection for: " + String.valueOf(row.playerId));
 				}
-				
-				//Query Defenses separately
-				Document doc = Jsoup.connect(baseURL)
-					    .data("status", "ALL")
-						.data("pos", "DEF")
-						//.data("cut_type", "9")
-						.data("sdir", "1")
-						.data("stat1", "S_PW_" + String.valueOf(weekNum))
-						.data("sort", "PTS")
-						.timeout(15000)
-						.get();
-				Element playersTableElement = doc.select("div#players-table").first();
-				Element playersElement = playersTableElement.select("div.players").first();
-				Element playersDataTable = playersElement.select("TABLE").first().select("TBODY").first();
-				Elements playerRows = playersDataTable.select("TR");
-				
-				for (Element element : playerRows) {
-					boolean addPlayerProjection = false;
-					Double projectedPointsValue = 0.0;
-					int defPlayerID = -1;
-					Element playerStart = element.select(".player.Ta-start.Bdrend").first();
-					Elements aElements = playerStart.getElementsByTag("A");
-					for (Element aElement : aElements) {
-						if (aElement.hasAttr("data-ys-playerid")) {
-							String defPlayerId = aElement.attr("data-ys-playerid");
-							defPlayerID = Integer.valueOf(defPlayerId);
-							if (FantasyLeague.isValidPlayer(defPlayerID)) {
-								addPlayerProjection = true;
-								break;
-							}
-							
-						}
-					}
-					Elements elements = element.select("TD.Alt.Ta-end.Nowrap");
-					for (Element e : elements) {
-						Elements childElements = e.getElementsByTag("SPAN");
-						if (!childElements.isEmpty() && childElements.hasClass("Fw-b")) {
-							Element projectedPoints = childElements.select(".Fw-b").first();
-							String pointsTextVal = projectedPoints.ownText();
-							projectedPointsValue = Double.valueOf(pointsTextVal);
-							break;
-						}
-					}
-					if (addPlayerProjection) {
-						if (projectedPointsValue == 0.0) {
-							System.out.println("WARNING: Couldnt get projection for: " + String.valueOf(defPlayerID));
-						}
-						projectionsForPlayers.put(defPlayerID, projectedPointsValue);
-						playersLoaded++;
-					} else if (projectedPointsValue != 0.0 && defPlayerID != 0) {
-						thisWeekProjections.tryAddTopWaiverPositionValue(projectedPointsValue, Position.DEF);
+				projectionsForPlayers.put(row.playerId, row.projectedPoints);
+				playersLoaded++;
+			} else if (row.projectedPoints != 0.0 && row.playerId != 0) {
+				thisWeekProjections.tryAddTopWaiverPositionValue(row.projectedPoints, Position.DEF);
+			}
+		}
+
+		int totalExpected = numPlayersToLoad + numDefenses;
+		System.out.println("Total projections loaded for week: " + String.valueOf(weekNum) + " " + String.valueOf(playersLoaded) + " / " + String.valueOf(totalExpected));
+		thisWeekProjections.addProjectionsForWeek(projectionsForPlayers);
+		if (writeToCsv) {
+		    writer.writeWeekProjections(weekNum, projectionsForPlayers, thisWeekProjections.getTopWaiverForPositions());
+		}
+		return thisWeekProjections;
+	}
+
+	/*
+	 * Waits for a page's rows, a page that still failed after every retry is skipped
+	 */
+	private static List<ProjectionRow> getPage(Future<List<ProjectionRow>> page, int weekNum) {
+		try {
+			return page.get();
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+			System.out.println("WARNING: Couldnt load a projections page for week: " + String.valueOf(weekNum));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return new ArrayList<ProjectionRow>();
+	}
+
+	/*
+	 * Reads the player Id and projected points of every row in a page of players, readPosition also reads the
+	 * position of players that aren't in the league. Runs on the fetcher's threads.
+	 */
+	private static List<ProjectionRow> parseProjectionRows(Document doc, boolean readPosition) {
+		List<ProjectionRow> rows = new ArrayList<ProjectionRow>();
+		Element playersTableElement = doc.select("div#players-table").first();
+		Element playersElement = playersTableElement.select("div.players").first();
+		Element playersDataTable = playersElement.select("TABLE").first().select("TBODY").first();
+		Elements playerRows = playersDataTable.select("TR");
+
+		for (Element element : playerRows) {
+			ProjectionRow row = new ProjectionRow();
+			Element playerStart = element.select(".player.Ta-start.Bdrend").first();
+			Elements aElements = playerStart.getElementsByTag("A");
+			for (Element aElement : aElements) {
+				if (aElement.hasAttr("data-ys-playerid")) {
+					String playerId = aElement.attr("data-ys-playerid");
+					row.playerId = Integer.valueOf(playerId);
+					if (FantasyLeague.isValidPlayer(row.playerId)) {
+						row.inLeague = true;
+						break;
 					}
-					
+
 				}
-				
-				int totalExpected = numPlayersToLoad + numDefenses;
-				System.out.println("Total projections loaded for week: " + String.valueOf(weekNum) + " " + String.valueOf(playersLoaded) + " / " + String.valueOf(totalExpected));
-			} catch (IOException e) {
-				e.printStackTrace();
-				return queryProjectionsForWeek(weekNum, ++numRetries);
-			} catch (NullPointerException e) {
-				e.printStackTrace();
-				return queryProjectionsForWeek(weekNum, ++numRetries);
 			}
-			thisWeekProjections.addProjectionsForWeek(projectionsForPlayers);
-			if (writeToCsv) {
-			    writer.writeWeekProjections(weekNum, projectionsForPlayers, thisWeekProjections.getTopWaiverForPositions());
+			if (!row.inLeague && readPosition) {
+				Elements spanElements = playerStart.getElementsByTag("SPAN");
+				if (spanElements.hasClass("Fz-xxs")) {
+					Element positionText = spanElements.select(".Fz-xxs").first();
+					String teamAndPosition = positionText.ownText();
+					row.waiverPosition = teamAndPosition.substring(teamAndPosition.length() - 2, teamAndPosition.length());
+				}
 			}
-			return thisWeekProjections;
+			Elements elements = element.select("TD.Alt.Ta-end.Nowrap");
+			for (Element e : elements) {
+				Elements childElements = e.getElementsByTag("SPAN");
+				if (!childElements.isEmpty() && childElements.hasClass("Fw-b")) {
+					Element projectedPoints = childElements.select(".Fw-b").first();
+					String pointsTextVal = projectedPoints.ownText();
+					row.projectedPoints = Double.valueOf(pointsTextVal);
+					break;
+				}
+			}
+			rows.add(row);
 		}
-	
-	private void getBestAvailablePlayers() {
+		return rows;
+	}
+
+	/*
+	 * Finds the best player available at each position from the season rankings. Pages are read in order until every
+	 * position is found, up to maxConcurrentRequests pages ahead of the page being read are requested so they're ready.
+	 */
+	private void getBestAvailablePlayers(PageFetcher fetcher) {
+		List<Future<Document>> pages = new ArrayList<Future<Document>>();
 		try {
 			List<String> positionsToFind = new ArrayList<String>(Arrays.asList("QB", "WR", "RB", "TE"));
 			boolean foundAllPositions = false;
-			for (int j = 0; j < 15; j++) {
-				Document doc;
-				if (j == 0) {
-			        doc = Jsoup.connect(baseURL)
-					        .data("status", "ALL")
-						    .data("pos", "O")
-						    .data("sdir", "1")
-						    .data("stat1", "S_PSR_2016")
-						    .data("sort", "PTS")
-						    .timeout(15000)
-						    .get();
-				}
-				else {
-					doc = Jsoup.connect(baseURL)
-						    .data("status", "ALL")
-							.data("pos", "O")
-							.data("sdir", "1")
-							.data("stat1", "S_PSR_2016")
-							.data("sort", "PTS")
-							.data("count", String.valueOf(25*j))
-							.timeout(15000)
-							.get();
+			for (int j = 0; j < NUM_AVAILABLE_PAGES; j++) {
+				while (pages.size() < NUM_AVAILABLE_PAGES && pages.size() <= j + maxConcurrentRequests) {
+					pages.add(fetcher.fetch(baseURL, getPageParams("O", "S_PSR_2016", pages.size()), PageFetcher.DOCUMENT));
 				}
+				Document doc = pages.get(j).get();
 				Element playersTableElement = doc.select("div#players-table").first();
 				Element playersElement = playersTableElement.select("div.players").first();
 				Element playersDataTable = playersElement.select("TABLE").first().select("TBODY").first();
 				Elements playerRows = playersDataTable.select("TR");
-				
+
 				for (Element element : playerRows) {
-					boolean addPlayerProjection = false;
-					Double projectedPointsValue = 0.0;
 					int playerID = -1;
 					String waiverPlayerPosition = "";
 					String playerName = "";
@@ -284,7 +330,6 @@ public class QueryProjections implements ProjectionDataSource {
 							//System.out.println("Found ID: " + playerId);
 							playerID = Integer.valueOf(playerId);
 							if (!FantasyLeague.isValidPlayer(playerID)) {
-								//addPlayerProjection = true;
 								Elements spanElements = playerStart.getElementsByTag("SPAN");
 								if (spanElements.hasClass("Fz-xxs")) {
 									Element positionText = spanElements.select(".Fz-xxs").first();
@@ -302,7 +347,7 @@ public class QueryProjections implements ProjectionDataSource {
 										}
 									}
 								}
-								
+
 							} else {
 								break;
 							}
@@ -314,7 +359,7 @@ public class QueryProjections implements ProjectionDataSource {
 						}
 					}
 					if (getPoints) {
-						this.bestAvailablePlayersByPosition.put(Position.valueOf(waiverPlayerPosition), new Player("Add: " + playerName, Position.valueOf(waiverPlayerPosition), byeWeek, playerID));
+						this.bestAvailablePlayersByPosition.put(Position.valueOf(waiverPlayerPosition), new Player("Add: " + playerName, Position.valueOf(waiverPlayerPosition), playerID, byeWeek));
 					    if (positionsToFind.size() == FantasyLeague.getAvailablePlayersCount()) {
 							foundAllPositions = true;
 							break;
@@ -328,12 +373,29 @@ public class QueryProjections implements ProjectionDataSource {
 					break;
 				}
 			}
-				
-			} catch (IOException e) {
-				e.printStackTrace();
-			} catch (NullPointerException e) {
-				e.printStackTrace();
+
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (NullPointerException e) {
+			e.printStackTrace();
+		} finally {
+			//pages requested ahead that weren't needed
+			for (Future<Document> page : pages) {
+				page.cancel(true);
 			}
+		}
+	}
+
+	/*
+	 * A row of a page of players, waiverPosition is only read for players that aren't in the league
+	 */
+	private static class ProjectionRow {
+		int playerId = -1;
+		boolean inLeague = false;
+		double projectedPoints = 0.0;
+		String waiverPosition = "";
 	}
 
 }
@@ -1,25 +1,23 @@
 package tradeOptimizer.yahoo;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.w3c.dom.CharacterData;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import tradeOptimizer.league.LeaguePosition;
 import tradeOptimizer.league.Player;
@@ -28,6 +26,7 @@ import tradeOptimizer.league.Team;
 import tradeOptimizer.league.data.LeagueDataSource;
 
 import com.github.scribejava.apis.YahooApi;
+import com.google.common.io.ByteStreams;
 import com.github.scribejava.core.builder.ServiceBuilder;
 import com.github.scribejava.core.model.OAuth1AccessToken;
 import com.github.scribejava.core.model.OAuth1RequestToken;
@@ -39,10 +38,16 @@ import com.github.scribejava.core.oauth.OAuth10aService;
 
 public class QueryYahooData implements LeagueDataSource {
 	
+	private static final String BASE_URL = "http://fantasysports.yahooapis.com/fantasy/v2/";
+	public static final int DEFAULT_ROSTER_BATCH_SIZE = 32; //larger than any league so rosters are loaded with one request
+	private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+	public static final long SETTINGS_CACHE_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+	public static final long ROSTERS_CACHE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+	
 	static OAuth1AccessToken accessToken;
 	static OAuth10aService service;
 	private List<Team> teamList = new ArrayList<Team>();
-	private List<LeaguePosition> leaguePositions;
+	private List<LeaguePosition> leaguePositions = new ArrayList<LeaguePosition>();
 	private Map<Integer,Player> playersById = new HashMap<Integer,Player>();
 	private Map<Integer, Integer> numPlayersOnByeForWeek = new HashMap<Integer, Integer>();
 	private QueryProjections projectionsQuery;
@@ -53,12 +58,45 @@ public class QueryYahooData implements LeagueDataSource {
 	private String oaApiKey;
 	private String oaApiSecret;
 	private String leagueName;
+	private int rosterBatchSize = DEFAULT_ROSTER_BATCH_SIZE; //number of teams whose rosters are requested together
+	private ResponseCache responseCache;
+	private boolean authenticated = false;
 	
 	
 	public QueryYahooData(int leagueId, String oaApiKey, String oaApiSecret) {
 		this.yahooLeagueId = leagueId;
 		this.oaApiKey = oaApiKey;
 		this.oaApiSecret = oaApiSecret;
+		for (int i = 4; i < 17; i++) {
+			numPlayersOnByeForWeek.put(i, 0);
+		}
+	}
+	
+	/*
+	 * Responses are parsed with a shared StAX factory, it's thread safe once configured. DTDs and external entities aren't read.
+	 */
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+	
+	/*
+	 * Sets the number of teams whose rosters are loaded by a single request, a league with more teams than batchSize
+	 * uses more than one request
+	 */
+	public void setRosterBatchSize(int batchSize) {
+		this.rosterBatchSize = Math.max(1, batchSize);
+	}
+	
+	/*
+	 * Serves league settings and rosters from cache when they're fresh, settings are cached for SETTINGS_CACHE_TTL_MILLIS
+	 * and rosters for ROSTERS_CACHE_TTL_MILLIS. In the cache's offline mode no requests are sent.
+	 */
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
 	}
 	
 	/*
@@ -121,167 +159,301 @@ public class QueryYahooData implements LeagueDataSource {
 		
 	public void getLeagueData() {
 		
-		OAuthentication();
-		
-		String LeagueURL = "http://fantasysports.yahooapis.com/fantasy/v2/league/nfl.l." + String.valueOf(yahooLeagueId) + "/settings";
-		final OAuthRequest requestTeams = new OAuthRequest(Verb.GET, LeagueURL, service);
-		service.signRequest(accessToken, requestTeams); // the access token from step 4
-		final Response leagueResponse = requestTeams.send();
+		String LeagueURL = BASE_URL + "league/nfl.l." + String.valueOf(yahooLeagueId) + "/settings";
 		
 		try {
-			InputSource input = new InputSource();
-			String teamsXML = leagueResponse.getBody();
-			input.setCharacterStream(new StringReader(teamsXML));
-			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			Document league = builder.parse(input);
-			NodeList leagueNodes = league.getElementsByTagName("league");
-			Element leagueNode = (Element) leagueNodes.item(0);
-			leagueName = getCharacterDataFromElement((Element)leagueNode.getElementsByTagName("name").item(0));
-			numTeams = Integer.valueOf(getCharacterDataFromElement((Element) leagueNode.getElementsByTagName("num_teams").item(0)));
-			currentWeek = Integer.valueOf(getCharacterDataFromElement((Element) leagueNode.getElementsByTagName("current_week").item(0)));
-			Element positions = (Element) leagueNode.getElementsByTagName("roster_positions").item(0);
-			NodeList rosterPositions = positions.getElementsByTagName("roster_position");
-			for (int i = 0; i < rosterPositions.getLength(); i++) {
-				Element position = (Element) rosterPositions.item(i);
-				String positionName = getCharacterDataFromElement((Element) position.getElementsByTagName("position").item(0));
-				if (Position.isValidPosition(positionName)) {
-					String count = getCharacterDataFromElement((Element) position.getElementsByTagName("count").item(0));
-					if (Integer.valueOf(count) > 1) {
-						for (int j = 1; j <= Integer.valueOf(count); j++) {
-							this.leaguePositions.add(new LeaguePosition(positionName + j, Arrays.asList(Position.valueOf(positionName))));
-						}
-					} else {
-					    this.leaguePositions.add(new LeaguePosition(positionName + count, Arrays.asList(Position.valueOf(positionName))));
-					}
-				} else {
-					String count = getCharacterDataFromElement((Element) position.getElementsByTagName("count").item(0));
-					List<Position> possiblePositions = new ArrayList<Position>();
-					for (String posssiblePosition : positionName.split("/")) {
-						if (posssiblePosition.equals("W")) {
-							possiblePositions.add(Position.WR);
-						} else if (posssiblePosition.equals("R")) {
-							possiblePositions.add(Position.RB);
-						} else if (posssiblePosition.equals("T")) {
-							possiblePositions.add(Position.TE);
-						} else if (posssiblePosition.equals("Q")) {
-							possiblePositions.add(Position.QB);
-						}
-					}if (Integer.valueOf(count) > 1) {
-						for (int j = 1; j <= Integer.valueOf(count); j++) {
-							this.leaguePositions.add(new LeaguePosition(positionName + j, possiblePositions));
-						}
-					} else {
-						this.leaguePositions.add(new LeaguePosition(positionName + count, possiblePositions));
-					}
-					
-				}
-			}
-			
-		} catch (IOException e1) {
-			// TODO Auto-generated catch block
-			e1.printStackTrace();
-		} catch (SAXException e) {
+			parseSettings(getResource(LeagueURL, SETTINGS_CACHE_TTL_MILLIS));
+		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
-		} catch (ParserConfigurationException e) {
+		} catch (XMLStreamException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
 		
-		String PlayersURLbase = "http://fantasysports.yahooapis.com/fantasy/v2/team/nfl.l." + String.valueOf(this.yahooLeagueId) + ".t.";
-		
+		int numberDefenses = 0;
 		
-		for (int i = 4; i < 17; i++) {
-			numPlayersOnByeForWeek.put(i, 0);
+		//rosters are requested for rosterBatchSize teams at a time rather than one request per team
+		for (int firstTeam = 1; firstTeam <= numTeams; firstTeam += rosterBatchSize) {
+			int lastTeam = Math.min(numTeams, firstTeam + rosterBatchSize - 1);
+			try {
+				numberDefenses += parseRosters(getResource(getRostersURL(firstTeam, lastTeam), ROSTERS_CACHE_TTL_MILLIS));
+			} catch (IOException e) {
+				// TODO Auto-generated catch block
+				e.printStackTrace();
+			} catch (XMLStreamException e) {
+				// TODO Auto-generated catch block
+				e.printStackTrace();
+			}
 		}
-		
+		numDefenses = numberDefenses;
+	}
+	
+	/*
+	 * Returns the URL of the rosters of teams firstTeam to lastTeam, every team in the league is a single league collection request
+	 * and smaller batches use a teams collection with the key of each team
+	 */
+	String getRostersURL(int firstTeam, int lastTeam) {
+		String leagueKey = "nfl.l." + String.valueOf(yahooLeagueId);
+		if (firstTeam == 1 && lastTeam >= numTeams) {
+			return BASE_URL + "league/" + leagueKey + "/teams/roster";
+		}
+		StringBuilder teamKeys = new StringBuilder();
+		for (int i = firstTeam; i <= lastTeam; i++) {
+			if (i > firstTeam) {
+				teamKeys.append(',');
+			}
+			teamKeys.append(leagueKey).append(".t.").append(i);
+		}
+		return BASE_URL + "teams;team_keys=" + teamKeys + "/roster";
+	}
+	
+	/*
+	 * Returns the body of the response to a GET request for url. With a ResponseCache, a response fetched less than ttlMillis ago
+	 * is read from disk without a request and a stale one is revalidated, in offline mode only the cache is used.
+	 */
+	private InputStream getResource(String url, long ttlMillis) throws IOException {
+		if (responseCache == null) {
+			return getResponseStream(sendRequest(url, null));
+		}
+		if (responseCache.isOffline()) {
+			return responseCache.getOffline(url).openBody();
+		}
+		ResponseCache.Entry cached = responseCache.get(url);
+		if (cached != null && cached.isFresh(ttlMillis)) {
+			return cached.openBody();
+		}
+		final Response response = sendRequest(url, cached);
+		if (response.getCode() == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+			return responseCache.markRevalidated(cached).openBody();
+		}
+		byte[] body;
+		InputStream stream = getResponseStream(response);
+		try {
+			body = ByteStreams.toByteArray(stream);
+		} finally {
+			stream.close();
+		}
+		if (response.isSuccessful()) {
+			responseCache.put(url, body, response.getHeader("ETag"), response.getHeader("Last-Modified"));
+		}
+		return new ByteArrayInputStream(body);
+	}
+	
+	/*
+	 * Sends a signed request, cached is the stale cached response to revalidate or null.
+	 * The OAuth flow is only run once a request can't be served from the cache.
+	 */
+	private Response sendRequest(String url, ResponseCache.Entry cached) {
+		if (!authenticated) {
+			OAuthentication();
+			authenticated = true;
+		}
+		final OAuthRequest request = new OAuthRequest(Verb.GET, url, service);
+		if (cached != null && cached.getETag() != null) {
+			request.addHeader("If-None-Match", cached.getETag());
+		}
+		if (cached != null && cached.getLastModified() != null) {
+			request.addHeader("If-Modified-Since", cached.getLastModified());
+		}
+		service.signRequest(accessToken, request);
+		return request.send();
+	}
+	
+	/*
+	 * Returns the body of a response as a stream, Response.getStream() doesn't decompress gzipped bodies like getBody() does
+	 */
+	private static InputStream getResponseStream(Response response) throws IOException {
+		InputStream stream = response.getStream();
+		String encoding = response.getHeader("Content-Encoding");
+		if (encoding != null && encoding.toLowerCase().contains("gzip")) {
+			stream = new GZIPInputStream(stream);
+		}
+		return stream;
+	}
+	
+	/*
+	 * Reads the league name, number of teams, current week and league positions from a league settings response.
+	 * The response is read in a single pass with StAX and closed once it's parsed.
+	 */
+	public void parseSettings(InputStream settingsXML) throws XMLStreamException, IOException {
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(settingsXML);
+		try {
+			//names of the elements enclosing the current element, league's name is its own <name> child rather than a stat's
+			Deque<String> parents = new ArrayDeque<String>();
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.END_ELEMENT) {
+					parents.pop();
+				} else if (event == XMLStreamConstants.START_ELEMENT) {
+					String element = reader.getLocalName();
+					if ("league".equals(parents.peek()) && element.equals("name") && leagueName == null) {
+						leagueName = reader.getElementText();
+					} else if ("league".equals(parents.peek()) && element.equals("num_teams")) {
+						numTeams = Integer.valueOf(reader.getElementText().trim());
+					} else if ("league".equals(parents.peek()) && element.equals("current_week")) {
+						currentWeek = Integer.valueOf(reader.getElementText().trim());
+					} else if (element.equals("roster_position")) {
+						parseRosterPosition(reader);
+					} else {
+						parents.push(element);
+					}
+				}
+			}
+		} finally {
+			reader.close();
+			settingsXML.close();
+		}
+	}
+	
+	/*
+	 * Adds the league positions for a <roster_position>, reader is left at its end element
+	 */
+	private void parseRosterPosition(XMLStreamReader reader) throws XMLStreamException {
+		String positionName = null;
+		String count = null;
+		int depth = 0;
+		while (depth >= 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				if (reader.getLocalName().equals("position") && positionName == null) {
+					positionName = reader.getElementText();
+				} else if (reader.getLocalName().equals("count") && count == null) {
+					count = reader.getElementText();
+				} else {
+					depth++;
+				}
+			}
+		}
+		List<Position> possiblePositions = new ArrayList<Position>();
+		if (Position.isValidPosition(positionName)) {
+			possiblePositions.add(Position.valueOf(positionName));
+		} else {
+			//flex positions are listed as the first letter of each position they allow, e.g. W/R/T
+			for (String posssiblePosition : positionName.split("/")) {
+				if (posssiblePosition.equals("W")) {
+					possiblePositions.add(Position.WR);
+				} else if (posssiblePosition.equals("R")) {
+					possiblePositions.add(Position.RB);
+				} else if (posssiblePosition.equals("T")) {
+					possiblePositions.add(Position.TE);
+				} else if (posssiblePosition.equals("Q")) {
+					possiblePositions.add(Position.QB);
+				}
+			}
+		}
+		if (Integer.valueOf(count.trim()) > 1) {
+			for (int j = 1; j <= Integer.valueOf(count.trim()); j++) {
+				this.leaguePositions.add(new LeaguePosition(positionName + j, possiblePositions));
+			}
+		} else {
+			this.leaguePositions.add(new LeaguePosition(positionName + count, possiblePositions));
+		}
+	}
+	
+	/*
+	 * Adds the teams and players in a response containing one or more team rosters, returns the number of defenses added.
+	 * The response is read in a single pass with StAX and closed once it's parsed.
+	 */
+	public int parseRosters(InputStream rostersXML) throws XMLStreamException, IOException {
 		int numberDefenses = 0;
-		
-		for (int i = 1; i <= numTeams; i++) {
-		
-		String PlayersURL = PlayersURLbase + String.valueOf(i) + "/roster";
-		final OAuthRequest requestRosters = new OAuthRequest(Verb.GET, PlayersURL, service);
-		service.signRequest(accessToken, requestRosters);
-		final Response playersResponse = requestRosters.send();
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(rostersXML);
 		try {
-			InputSource input = new InputSource();
-			String teamsXML = playersResponse.getBody();
-			input.setCharacterStream(new StringReader(teamsXML));
-			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			Document teams = builder.parse(input);
-			NodeList teamNodes = teams.getElementsByTagName("team");
-			
-			
-		    for (int j = 0; j < teamNodes.getLength(); j++) {
-		        Element team = (Element) teamNodes.item(j);
-		        
-		        NodeList name = team.getElementsByTagName("name");
-		        String teamName = getCharacterDataFromElement((Element) name.item(0));
-		        Team thisTeam = new Team(teamName);
-		        
-		        NodeList rosterNode = team.getElementsByTagName("roster");
-		        Element roster = (Element) rosterNode.item(0);
-		        
-		        NodeList playersNode = roster.getElementsByTagName("players");
-		        NodeList playerNodes = ((Element) playersNode.item(0)).getElementsByTagName("player");
-		        for (int k = 0; k < playerNodes.getLength(); k++) {
-		        	Element player = (Element) playerNodes.item(k);
-		        	
-			        NodeList playerIdNode = player.getElementsByTagName("player_id");
-			        String playerIdText = getCharacterDataFromElement((Element) playerIdNode.item(0));
-			        int playerId = Integer.valueOf(playerIdText);
-		        	
-		        	NodeList playerInfo = player.getElementsByTagName("name");
-		        	NodeList fullName = ((Element) playerInfo.item(0)).getElementsByTagName("full");
-		        	String playerName = getCharacterDataFromElement(((Element) fullName.item(0)));
-		        	
-		        	NodeList positionNode = player.getElementsByTagName("display_position");
-		        	String playerPosition = getCharacterDataFromElement(((Element) positionNode.item(0)));
-		        	
-		        	NodeList byeWeekProjectionssNode = player.getElementsByTagName("bye_weeks");
-		        	NodeList byeWeekProjectionsNode = ((Element) byeWeekProjectionssNode.item(0)).getElementsByTagName("week");
-		        	String week = getCharacterDataFromElement(((Element) byeWeekProjectionsNode.item(0)));
-		        	if (playerPosition.equals("DEF")) {
-		        		int byeWeekProjectionsNumber = Integer.valueOf(week);
-		        		Player thisPlayer = new Player(playerName, Position.DEF, byeWeekProjectionsNumber, playerId);
-		        		this.playersById.put(playerId, thisPlayer);
-		        		thisTeam.addPlayer(playerId);
-		        		numberDefenses++;
-		        	} else if (Position.isValidPosition(playerPosition)) {
-		        	    int byeWeekProjectionsNumber = Integer.valueOf(week);
-		            	int currentNumPlayersOnBye = numPlayersOnByeForWeek.get(byeWeekProjectionsNumber);
-		            	numPlayersOnByeForWeek.put(byeWeekProjectionsNumber, currentNumPlayersOnBye + 1);
-		        	    Player thisPlayer = new Player(playerName, Position.valueOf(playerPosition), byeWeekProjectionsNumber, playerId);
-		        	    this.playersById.put(playerId, thisPlayer);
-		        	    thisTeam.addPlayer(playerId);
-		        	}
-		        }
-		        teamList.add(thisTeam);
-		    }
-		} catch (IOException e1) {
-			// TODO Auto-generated catch block
-			e1.printStackTrace();
-		} catch (SAXException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (ParserConfigurationException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("team")) {
+					numberDefenses += parseTeam(reader);
+				}
+			}
+		} finally {
+			reader.close();
+			rostersXML.close();
 		}
-		
-		
+		return numberDefenses;
+	}
+	
+	/*
+	 * Adds the Team and players of a <team>, reader is left at its end element. Returns the number of defenses on the team.
+	 */
+	private int parseTeam(XMLStreamReader reader) throws XMLStreamException {
+		int numberDefenses = 0;
+		String teamName = null;
+		List<Player> players = new ArrayList<Player>();
+		Deque<String> parents = new ArrayDeque<String>();
+		while (true) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				if (parents.isEmpty()) {
+					break;
+				}
+				parents.pop();
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				String element = reader.getLocalName();
+				if (parents.isEmpty() && element.equals("name") && teamName == null) {
+					teamName = reader.getElementText();
+				} else if ("players".equals(parents.peek()) && element.equals("player")) {
+					Player player = parsePlayer(reader);
+					if (player != null) {
+						players.add(player);
+					}
+				} else {
+					parents.push(element);
+				}
+			}
 		}
-		numDefenses = numberDefenses;
+		Team thisTeam = new Team(teamName);
+		for (Player player : players) {
+			if (player.getFootballPositions().contains(Position.DEF)) {
+				numberDefenses++;
+			} else {
+				int currentNumPlayersOnBye = numPlayersOnByeForWeek.get(player.getByeWeek());
+				numPlayersOnByeForWeek.put(player.getByeWeek(), currentNumPlayersOnBye + 1);
+			}
+			this.playersById.put(player.getPlayerId(), player);
+			thisTeam.addPlayer(player.getPlayerId());
+		}
+		teamList.add(thisTeam);
+		return numberDefenses;
 	}
 	
-	  public static String getCharacterDataFromElement(Element e) {
-		    Node child = e.getFirstChild();
-		    if (child instanceof CharacterData) {
-		        CharacterData cd = (CharacterData) child;
-		        return cd.getData();
-		    } else {
-		        return "";
-		    }
-	  }
+	/*
+	 * Returns the Player for a <player>, or null if the player's position isn't used. reader is left at its end element.
+	 */
+	private static Player parsePlayer(XMLStreamReader reader) throws XMLStreamException {
+		String playerId = null;
+		String playerName = null;
+		String playerPosition = null;
+		String week = null;
+		Deque<String> parents = new ArrayDeque<String>();
+		while (true) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				if (parents.isEmpty()) {
+					break;
+				}
+				parents.pop();
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				String element = reader.getLocalName();
+				if (parents.isEmpty() && element.equals("player_id")) {
+					playerId = reader.getElementText();
+				} else if ("name".equals(parents.peek()) && parents.size() == 1 && element.equals("full")) {
+					playerName = reader.getElementText();
+				} else if (parents.isEmpty() && element.equals("display_position")) {
+					playerPosition = reader.getElementText();
+				} else if ("bye_weeks".equals(parents.peek()) && element.equals("week") && week == null) {
+					week = reader.getElementText();
+				} else {
+					parents.push(element);
+				}
+			}
+		}
+		if (playerPosition.equals("DEF")) {
+			return new Player(playerName, Position.DEF, Integer.valueOf(playerId.trim()), Integer.valueOf(week.trim()));
+		} else if (Position.isValidPosition(playerPosition)) {
+			return new Player(playerName, Position.valueOf(playerPosition), Integer.valueOf(playerId.trim()), Integer.valueOf(week.trim()));
+		}
+		return null;
+	}
 
 }
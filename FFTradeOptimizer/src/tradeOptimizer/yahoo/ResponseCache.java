@@ -0,0 +1,206 @@
+package tradeOptimizer.yahoo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import com.google.common.hash.Hashing;
+
+/*
+ * On-disk cache of the responses to Yahoo requests, shared between runs. Each response body is stored once under the SHA-256 of
+ * its content in bodies/, and each request under the SHA-256 of its URL and parameters in entries/, pointing at the body with the
+ * time it was fetched and the ETag and Last-Modified headers used to revalidate it.
+ *
+ * Callers decide how long a response stays fresh, a fresh response is used without a request and a stale one is revalidated
+ * with a conditional request where the server supports it. In offline mode every request is served from the cache however old
+ * the response is, and a request that isn't cached fails with a CacheMissException, so a recorded cache can stand in for Yahoo.
+ * Files are written to a temporary file and moved into place, so concurrent requests and interrupted runs never leave a partial entry.
+ */
+public class ResponseCache {
+
+	private final File entriesDirectory;
+	private final File bodiesDirectory;
+	private volatile boolean offline = false;
+
+	public ResponseCache(File directory) {
+		entriesDirectory = new File(directory, "entries");
+		bodiesDirectory = new File(directory, "bodies");
+		entriesDirectory.mkdirs();
+		bodiesDirectory.mkdirs();
+		if (!entriesDirectory.isDirectory() || !bodiesDirectory.isDirectory()) {
+			System.out.println("Warning, failed to create response cache in " + directory);
+		}
+	}
+
+	/*
+	 * Serves every request from the cache without connecting, requests that aren't cached fail
+	 */
+	public void setOffline(boolean offline) {
+		this.offline = offline;
+	}
+
+	public boolean isOffline() {
+		return offline;
+	}
+
+	/*
+	 * Returns the cached response to the request identified by key (its URL and parameters), or null if it isn't cached
+	 */
+	public Entry get(String key) {
+		File entryFile = getEntryFile(key);
+		if (!entryFile.isFile()) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try {
+			InputStream in = new FileInputStream(entryFile);
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
+			}
+			//hash collisions between keys are treated as a miss
+			if (!key.equals(properties.getProperty("key"))) {
+				return null;
+			}
+			File bodyFile = new File(bodiesDirectory, properties.getProperty("body"));
+			if (!bodyFile.isFile()) {
+				return null;
+			}
+			return new Entry(key, bodyFile, Long.parseLong(properties.getProperty("fetched")),
+					properties.getProperty("etag"), properties.getProperty("lastModified"));
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/*
+	 * Returns a cached response, or throws CacheMissException if it isn't cached. Used in offline mode.
+	 */
+	public Entry getOffline(String key) throws CacheMissException {
+		Entry entry = get(key);
+		if (entry == null) {
+			throw new CacheMissException(key);
+		}
+		return entry;
+	}
+
+	/*
+	 * Stores the response to a request and returns its entry, etag and lastModified are null if the response didn't have them
+	 */
+	public Entry put(String key, byte[] body, String etag, String lastModified) throws IOException {
+		String bodyHash = Hashing.sha256().hashBytes(body).toString();
+		File bodyFile = new File(bodiesDirectory, bodyHash);
+		if (!bodyFile.isFile()) {
+			writeAtomically(bodyFile, body);
+		}
+		return writeEntry(new Entry(key, bodyFile, System.currentTimeMillis(), etag, lastModified));
+	}
+
+	/*
+	 * Records that a stale response was revalidated by the server, so it's fresh again
+	 */
+	public Entry markRevalidated(Entry entry) throws IOException {
+		return writeEntry(new Entry(entry.key, entry.bodyFile, System.currentTimeMillis(), entry.etag, entry.lastModified));
+	}
+
+	private Entry writeEntry(Entry entry) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty("key", entry.key);
+		properties.setProperty("body", entry.bodyFile.getName());
+		properties.setProperty("fetched", String.valueOf(entry.fetchedMillis));
+		if (entry.etag != null) {
+			properties.setProperty("etag", entry.etag);
+		}
+		if (entry.lastModified != null) {
+			properties.setProperty("lastModified", entry.lastModified);
+		}
+		File temp = File.createTempFile("entry", ".tmp", entriesDirectory);
+		OutputStream out = new FileOutputStream(temp);
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+		Files.move(temp.toPath(), getEntryFile(entry.key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return entry;
+	}
+
+	private void writeAtomically(File file, byte[] content) throws IOException {
+		File temp = File.createTempFile("body", ".tmp", bodiesDirectory);
+		Files.write(temp.toPath(), content);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private File getEntryFile(String key) {
+		return new File(entriesDirectory, Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString());
+	}
+
+	/*
+	 * A cached response
+	 */
+	public static class Entry {
+		private final String key;
+		private final File bodyFile;
+		private final long fetchedMillis;
+		private final String etag;
+		private final String lastModified;
+
+		Entry(String key, File bodyFile, long fetchedMillis, String etag, String lastModified) {
+			this.key = key;
+			this.bodyFile = bodyFile;
+			this.fetchedMillis = fetchedMillis;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		/*
+		 * Returns true if the response was fetched or revalidated less than ttlMillis ago
+		 */
+		public boolean isFresh(long ttlMillis) {
+			return System.currentTimeMillis() - fetchedMillis < ttlMillis;
+		}
+
+		/*
+		 * Returns true if the response can be revalidated with a conditional request
+		 */
+		public boolean hasValidator() {
+			return etag != null || lastModified != null;
+		}
+
+		public byte[] getBody() throws IOException {
+			return Files.readAllBytes(bodyFile.toPath());
+		}
+
+		public InputStream openBody() throws IOException {
+			return new FileInputStream(bodyFile);
+		}
+
+		public String getETag() {
+			return etag;
+		}
+
+		public String getLastModified() {
+			return lastModified;
+		}
+	}
+
+	/*
+	 * Thrown in offline mode for a request that isn't cached
+	 */
+	public static class CacheMissException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public CacheMissException(String key) {
+			super("Not in response cache: " + key);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import tradeOptimizer.league.Team;
+import tradeOptimizer.trades.AsyncTradeSink;
+import tradeOptimizer.trades.Trade;
+
+public class TestAsyncTradeSink {
+
+	@Test(timeout = 10000)
+	public void testRuntimeExceptionDoesNotBlockProducers() {
+		FailingSink sink = new FailingSink();
+		Trade trade = new Trade(Arrays.asList(1), "Other Team", Arrays.asList(2), 5.0, 4.0);
+		//many more trades than the queue holds, accept() would block forever if the writer thread had stopped
+		for (int i = 0; i < 1000; i++) {
+			sink.accept(null, trade);
+		}
+		sink.close();
+		assertEquals(1, sink.tradesWritten);
+		assertTrue(sink.finished);
+	}
+
+	private static class FailingSink extends AsyncTradeSink {
+		private int tradesWritten = 0;
+		private boolean finished = false;
+
+		FailingSink() {
+			super("FailingSink", 2);
+		}
+
+		@Override
+		protected void writeTrade(Team team, Trade trade) throws IOException {
+			tradesWritten++;
+			throw new IllegalStateException("writer failed");
+		}
+
+		@Override
+		protected void flush() throws IOException {
+		}
+
+		@Override
+		protected void finish() throws IOException {
+			finished = true;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tradeOptimizer.calc.LineupCache;
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+
+public class TestLineupCache {
+
+	private static final int WEEK = 16;
+	private static final List<Integer> ADDED_PLAYERS = Arrays.asList(2, 5);
+
+	private LineupCache cache;
+
+	@Before
+	public void enableCache() {
+		cache = new LineupCache();
+		WeekCalculator.setLineupCache(cache);
+	}
+
+	@After
+	public void disableCache() {
+		WeekCalculator.setLineupCache(null);
+		FantasyLeague.clearLeague();
+	}
+
+	@Test
+	public void testCachedLineupMatchesCalculation() {
+		setupLeague(new double[] {20.0, 15.5, 12.0, 9.25, 8.0, 7.5, 3.0});
+		WeekCalculator calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK);
+		double points = calculator.getOptimizedProjectedPoints();
+		int timesNewPlayerUsed = calculator.getTimesNewPlayerUsed();
+		assertEquals(0, cache.getStats().hitCount());
+		assertEquals(1, cache.size());
+
+		//the same players in another order are the same roster
+		List<PlayerProjection> reversedRoster = getRoster();
+		Collections.reverse(reversedRoster);
+		calculator = new WeekCalculator(reversedRoster, getWaiverValues(), ADDED_PLAYERS, WEEK);
+		assertEquals(points, calculator.getOptimizedProjectedPoints(), 0.0);
+		assertEquals(timesNewPlayerUsed, calculator.getTimesNewPlayerUsed());
+		assertEquals(1, cache.getStats().hitCount());
+
+		//another week isn't served from the cache
+		calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK - 1);
+		calculator.getOptimizedProjectedPoints();
+		assertEquals(1, cache.getStats().hitCount());
+		assertEquals(2, cache.size());
+
+		WeekCalculator.setLineupCache(null);
+		calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK);
+		assertEquals(points, calculator.getOptimizedProjectedPoints(), 0.0);
+		assertEquals(timesNewPlayerUsed, calculator.getTimesNewPlayerUsed());
+	}
+
+	@Test
+	public void testNewLeagueClearsCache() {
+		setupLeague(new double[] {20.0, 15.5, 12.0, 9.25, 8.0, 7.5, 3.0});
+		double firstLeaguePoints = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK).getOptimizedProjectedPoints();
+		assertEquals(1, cache.size());
+
+		//same Player Ids and week with different projections
+		FantasyLeague.clearLeague();
+		setupLeague(new double[] {4.0, 3.5, 30.0, 2.0, 1.0, 11.0, 6.5});
+		assertEquals(0, cache.size());
+		WeekCalculator calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK);
+		double secondLeaguePoints = calculator.getOptimizedProjectedPoints();
+		int timesNewPlayerUsed = calculator.getTimesNewPlayerUsed();
+		assertEquals(0, cache.getStats().hitCount());
+		assertNotEquals(firstLeaguePoints, secondLeaguePoints, 0.0);
+
+		WeekCalculator.setLineupCache(null);
+		calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK);
+		assertEquals(secondLeaguePoints, calculator.getOptimizedProjectedPoints(), 0.0);
+		assertEquals(timesNewPlayerUsed, calculator.getTimesNewPlayerUsed());
+	}
+
+	@Test
+	public void testRefreshInvalidatesChangedRosters() {
+		double[] projections = {20.0, 15.5, 12.0, 9.25, 8.0, 7.5, 3.0};
+		setupLeague(projections);
+		double points = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK).getOptimizedProjectedPoints();
+		assertEquals(1, cache.size());
+
+		//the same projections keep the cached lineup
+		assertTrue(FantasyLeague.refreshProjections(createProjections(projections)).isEmpty());
+		assertEquals(1, cache.size());
+		assertEquals(points, new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK).getOptimizedProjectedPoints(), 0.0);
+		assertEquals(1, cache.getStats().hitCount());
+
+		//lineups of a roster without the changed player and of another week, player indexes are assigned in Player Id order
+		int[] otherRoster = {2, 3};
+		int[] otherWeekRoster = {0, 1};
+		cache.put(WEEK, otherRoster, otherRoster.length, 21.25, otherRoster);
+		cache.put(WEEK - 1, otherWeekRoster, otherWeekRoster.length, 35.5, otherWeekRoster);
+
+		//Player 2, a starter on the roster, projected for 10 more points
+		double[] changedProjections = projections.clone();
+		changedProjections[1] += 10.0;
+		assertEquals(1, FantasyLeague.refreshProjections(createProjections(changedProjections)).size());
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get(WEEK, otherRoster, otherRoster.length));
+		assertNotNull(cache.get(WEEK - 1, otherWeekRoster, otherWeekRoster.length));
+		WeekCalculator calculator = new WeekCalculator(getRoster(), getWaiverValues(), ADDED_PLAYERS, WEEK);
+		assertEquals(points + 10.0, calculator.getOptimizedProjectedPoints(), 1e-9);
+		assertEquals(3, cache.getStats().hitCount());
+	}
+
+	/*
+	 * Roster of the league's only team sorted by this week's projections, it has no TE so a waiver player is added
+	 */
+	private static List<PlayerProjection> getRoster() {
+		return FantasyLeague.getWeeks().get(0).getPlayersToUse(FantasyLeague.getTeams().get(0).getCurrentPlayers());
+	}
+
+	private static Map<Position, Double> getWaiverValues() {
+		return FantasyLeague.getWeeks().get(0).getTopWaiverForPositions();
+	}
+
+	/*
+	 * Sets up a league of one team with a QB, 3 RBs and 3 WRs with the given projections
+	 */
+	private static void setupLeague(double[] projections) {
+		final List<LeaguePosition> positions = new ArrayList<LeaguePosition>();
+		positions.add(new LeaguePosition("QB1", Arrays.asList(Position.QB)));
+		positions.add(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+		positions.add(new LeaguePosition("WR1", Arrays.asList(Position.WR)));
+		positions.add(new LeaguePosition("TE1", Arrays.asList(Position.TE)));
+		positions.add(new LeaguePosition("W/R/T1", Arrays.asList(Position.WR, Position.RB, Position.TE)));
+		Position[] playerPositions = {Position.QB, Position.RB, Position.RB, Position.RB, Position.WR, Position.WR, Position.WR};
+		final Map<Integer, Player> players = new HashMap<Integer, Player>();
+		final Team team = new Team("Team 1");
+		for (int i = 0; i < playerPositions.length; i++) {
+			players.put(i + 1, new Player("Player " + (i + 1), playerPositions[i], i + 1));
+			team.addPlayer(i + 1);
+		}
+		FantasyLeague.setupLeague(new LeagueDataSource() {
+			public List<Team> getTeams() {
+				return Arrays.asList(team);
+			}
+
+			public List<LeaguePosition> getLeaguePositions() {
+				return positions;
+			}
+
+			public Map<Integer, Integer> getNumPlayersOnByeForWeek() {
+				return new HashMap<Integer, Integer>();
+			}
+
+			public Map<Integer, Player> getPlayersById() {
+				return players;
+			}
+
+			public int getCurrentWeek() {
+				return WEEK;
+			}
+
+			public String getLeagueName() {
+				return "TestLeague";
+			}
+		}, createProjections(projections));
+	}
+
+	/*
+	 * Projections for the week with a TE waiver value, projections holds the projection of each Player Id from 1
+	 */
+	private static ProjectionDataSource createProjections(double[] projections) {
+		Map<Integer, Double> weekProjections = new HashMap<Integer, Double>();
+		for (int i = 0; i < projections.length; i++) {
+			weekProjections.put(i + 1, projections[i]);
+		}
+		WeekProjections week = new WeekProjections(WEEK);
+		week.addProjectionsForWeek(weekProjections);
+		week.tryAddTopWaiverPositionValue(5.0, Position.TE);
+		final List<WeekProjections> weeks = Arrays.asList(week);
+		return new ProjectionDataSource() {
+			public List<WeekProjections> getWeekProjections() {
+				return weeks;
+			}
+
+			public Map<Position, Player> getBestAvailablePlayersByPosition() {
+				return new HashMap<Position, Player>();
+			}
+		};
+	}
+}
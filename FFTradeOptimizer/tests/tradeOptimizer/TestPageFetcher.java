@@ -0,0 +1,182 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import tradeOptimizer.yahoo.PageFetcher;
+import tradeOptimizer.yahoo.ResponseCache;
+
+/*
+ * Runs PageFetcher against a local server that answers /page?n=X with a gzipped page containing X, /flaky fails
+ * twice before it answers and /etag answers conditional requests with 304
+ */
+public class TestPageFetcher {
+
+	private HttpServer server;
+	private String baseUrl;
+	private final AtomicInteger openRequests = new AtomicInteger();
+	private final AtomicInteger maxOpenRequests = new AtomicInteger();
+	private final AtomicInteger flakyRequests = new AtomicInteger();
+	private final AtomicInteger etagRequests = new AtomicInteger();
+	private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+	@Rule
+	public TemporaryFolder cacheFolder = new TemporaryFolder();
+
+	@Before
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/page", exchange -> {
+			//counted until the response is sent, the fetcher holds its permit until the response is read
+			int open = openRequests.incrementAndGet();
+			maxOpenRequests.accumulateAndGet(open, Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				openRequests.decrementAndGet();
+			}
+			String n = exchange.getRequestURI().getQuery().substring(2);
+			respond(exchange, 200, "<html><body><div id=\"n\">" + n + "</div></body></html>");
+		});
+		server.createContext("/flaky", exchange -> {
+			if (flakyRequests.incrementAndGet() <= 2) {
+				respond(exchange, 503, "busy");
+			} else {
+				respond(exchange, 200, "<html><body><div id=\"n\">ok</div></body></html>");
+			}
+		});
+		server.createContext("/etag", exchange -> {
+			etagRequests.incrementAndGet();
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModifiedResponses.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+			} else {
+				exchange.getResponseHeaders().set("ETag", "\"v1\"");
+				respond(exchange, 200, "<html><body><div id=\"n\">cached</div></body></html>");
+			}
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@After
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+		gzip.write(body.getBytes("UTF-8"));
+		gzip.close();
+		exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+		exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+		exchange.sendResponseHeaders(status, compressed.size());
+		OutputStream out = exchange.getResponseBody();
+		out.write(compressed.toByteArray());
+		out.close();
+	}
+
+	@Test
+	public void testPagesInOrderWithinLimit() throws Exception {
+		PageFetcher fetcher = new PageFetcher(3, 1000.0, 0);
+		List<Future<String>> pages = new ArrayList<Future<String>>();
+		for (int i = 0; i < 20; i++) {
+			Map<String, String> params = new LinkedHashMap<String, String>();
+			params.put("n", String.valueOf(i));
+			pages.add(fetcher.fetch(baseUrl + "/page", params, page -> page.getElementById("n").text()));
+		}
+		for (int i = 0; i < 20; i++) {
+			assertEquals(String.valueOf(i), pages.get(i).get());
+		}
+		fetcher.shutdown();
+		assertTrue(maxOpenRequests.get() <= 3);
+		assertTrue(maxOpenRequests.get() > 1);
+	}
+
+	@Test
+	public void testRetries() throws Exception {
+		PageFetcher fetcher = new PageFetcher(1, 1000.0, 2);
+		Future<String> page = fetcher.fetch(baseUrl + "/flaky", new LinkedHashMap<String, String>(), doc -> doc.getElementById("n").text());
+		assertEquals("ok", page.get());
+		assertEquals(3, flakyRequests.get());
+		fetcher.shutdown();
+	}
+
+	@Test
+	public void testFailsAfterMaxRetries() throws Exception {
+		PageFetcher fetcher = new PageFetcher(1, 1000.0, 1);
+		Future<String> page = fetcher.fetch(baseUrl + "/flaky", new LinkedHashMap<String, String>(), doc -> doc.getElementById("n").text());
+		try {
+			page.get();
+			fail("Expected the page to fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		assertEquals(2, flakyRequests.get());
+		fetcher.shutdown();
+	}
+
+	@Test
+	public void testResponseCache() throws Exception {
+		ResponseCache cache = new ResponseCache(cacheFolder.getRoot());
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		params.put("week", "1");
+		PageFetcher fetcher = new PageFetcher(1, 1000.0, 0);
+		fetcher.setResponseCache(cache, 60000);
+		assertEquals("cached", fetcher.fetch(baseUrl + "/etag", params, doc -> doc.getElementById("n").text()).get());
+		//fresh, read from disk
+		assertEquals("cached", fetcher.fetch(baseUrl + "/etag", params, doc -> doc.getElementById("n").text()).get());
+		assertEquals(1, etagRequests.get());
+		fetcher.shutdown();
+
+		//stale, revalidated with the ETag
+		PageFetcher staleFetcher = new PageFetcher(1, 1000.0, 0);
+		staleFetcher.setResponseCache(cache, 0);
+		assertEquals("cached", staleFetcher.fetch(baseUrl + "/etag", params, doc -> doc.getElementById("n").text()).get());
+		assertEquals(2, etagRequests.get());
+		assertEquals(1, notModifiedResponses.get());
+		staleFetcher.shutdown();
+
+		//offline, only the cache is used however old the page is
+		cache.setOffline(true);
+		PageFetcher offlineFetcher = new PageFetcher(1, 1000.0, 3);
+		offlineFetcher.setResponseCache(cache, 0);
+		assertEquals("cached", offlineFetcher.fetch(baseUrl + "/etag", params, doc -> doc.getElementById("n").text()).get());
+		params.put("week", "2");
+		try {
+			offlineFetcher.fetch(baseUrl + "/etag", params, doc -> doc.getElementById("n").text()).get();
+			fail("Expected a cache miss");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ResponseCache.CacheMissException);
+		}
+		assertEquals(2, etagRequests.get());
+		offlineFetcher.shutdown();
+	}
+}
@@ -0,0 +1,75 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.projections.ProjectionChange;
+import tradeOptimizer.projections.ProjectionSnapshot;
+import tradeOptimizer.projections.WeekProjections;
+
+public class TestProjectionChange {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testVersionWeeks() {
+		List<WeekProjections> previous = Arrays.asList(createWeek(5, 10.0, 4.5), createWeek(6, 10.0, 4.5));
+		List<WeekProjections> current = Arrays.asList(createWeek(5, 10.0, 4.5), createWeek(6, 12.0, 4.5), createWeek(7, 10.0, 4.5));
+		List<ProjectionChange> changes = ProjectionChange.versionWeeks(previous, current);
+		assertEquals(1, current.get(0).getVersion());
+		assertEquals(current.get(0).getContentHash(), previous.get(0).getContentHash());
+		assertEquals(2, changes.size());
+
+		ProjectionChange changed = changes.get(0);
+		assertEquals(6, changed.getWeekNum());
+		assertEquals(2, changed.getVersion());
+		assertEquals(2, current.get(1).getVersion());
+		assertArrayEquals(new int[] {1}, changed.getChangedPlayerIds());
+		assertFalse(changed.getWaiverValuesChanged());
+		assertTrue(changed.affectsRoster(new int[] {1, 3}));
+		assertFalse(changed.affectsRoster(new int[] {2, 3}));
+		assertTrue(changes.get(1).isNewWeek());
+
+		//versions carry over to later refreshes
+		List<WeekProjections> next = Arrays.asList(createWeek(6, 12.0, 5.0));
+		changes = ProjectionChange.versionWeeks(current, next);
+		assertEquals(3, next.get(0).getVersion());
+		assertEquals(0, changes.get(0).getChangedPlayerIds().length);
+		assertTrue(changes.get(0).affectsRoster(new int[] {2}));
+	}
+
+	@Test
+	public void testSnapshotKeepsVersions() throws IOException {
+		WeekProjections week = createWeek(5, 10.0, 4.5);
+		ProjectionChange.versionWeeks(Arrays.asList(createWeek(5, 9.0, 4.5)), Arrays.asList(week));
+		File file = folder.newFile("projections.snapshot");
+		ProjectionSnapshot.write(file, Arrays.asList(week), new HashMap<Position, Player>());
+		WeekProjections read = new ProjectionSnapshot(file).getWeekProjections().get(0);
+		assertEquals(2, read.getVersion());
+		assertEquals(week.getContentHash(), read.getContentHash());
+	}
+
+	private static WeekProjections createWeek(int weekNum, double firstProjection, double waiverValue) {
+		WeekProjections week = new WeekProjections(weekNum);
+		Map<Integer, Double> projections = new HashMap<Integer, Double>();
+		projections.put(1, firstProjection);
+		projections.put(2, 8.0);
+		projections.put(3, 6.0);
+		week.addProjectionsForWeek(projections);
+		week.tryAddTopWaiverPositionValue(waiverValue, Position.WR);
+		return week;
+	}
+}
@@ -0,0 +1,69 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.ProjectionSnapshot;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+
+public class TestProjectionSnapshot {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSnapshotMatchesSource() throws IOException {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(11);
+		settings.setWeeks(5, 16);
+		SyntheticLeagueData league = new SyntheticLeagueData(settings);
+		SyntheticProjections source = new SyntheticProjections(league);
+		File file = folder.newFile("projections.snapshot");
+		ProjectionSnapshot.write(file, source);
+
+		ProjectionSnapshot snapshot = new ProjectionSnapshot(file);
+		List<WeekProjections> expectedWeeks = source.getWeekProjections();
+		List<WeekProjections> weeks = snapshot.getWeekProjections();
+		assertEquals(expectedWeeks.size(), weeks.size());
+		Integer[] allPlayers = league.getPlayersById().keySet().toArray(new Integer[0]);
+		for (int w = 0; w < weeks.size(); w++) {
+			assertEquals(expectedWeeks.get(w).getWeekNum(), weeks.get(w).getWeekNum());
+			assertEquals(expectedWeeks.get(w).getTopWaiverForPositions(), weeks.get(w).getTopWaiverForPositions());
+			List<PlayerProjection> expected = expectedWeeks.get(w).getPlayersToUse(allPlayers);
+			List<PlayerProjection> actual = weeks.get(w).getPlayersToUse(allPlayers);
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).getPlayerId(), actual.get(i).getPlayerId());
+				assertEquals(expected.get(i).getProjection(), actual.get(i).getProjection(), 0.0);
+			}
+		}
+		for (Map.Entry<Position, Player> available : source.getBestAvailablePlayersByPosition().entrySet()) {
+			Player player = snapshot.getBestAvailablePlayersByPosition().get(available.getKey());
+			assertEquals(available.getValue().getName(), player.getName());
+			assertEquals(available.getValue().getPlayerId(), player.getPlayerId());
+			assertEquals(available.getValue().getByeWeek(), player.getByeWeek());
+		}
+		assertEquals(source.getBestAvailablePlayersByPosition().size(), snapshot.getBestAvailablePlayersByPosition().size());
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		File file = folder.newFile("projections.csv");
+		Files.write(file.toPath(), "WEEK,5\n1,10.5\n1,10.5\n1,10.5\n".getBytes("UTF-8"));
+		new ProjectionSnapshot(file);
+	}
+}
@@ -0,0 +1,84 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.projections.ReadProjectionsCSV;
+import tradeOptimizer.projections.WeekProjections;
+
+public class TestReadProjectionsCSV {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadsProjectionCSVWriterFormat() throws IOException {
+		ReadProjectionsCSV reader = read(
+				"\"BESTWAIVERPLAYERS\"\n" +
+				"\"QB\",\"Joe \"\"Wildcat\"\" Smith\",\"7\",\"101\"\n" +
+				"\"RB\",\"Bad Id\",\"7\",\"x\"\n" +
+				"\"WEEK\",\"3\"\n" +
+				"\"1\",\"12.5\"\n" +
+				"2,-0.75\r\n" +
+				"\"1\",\"14.25\"\n" +
+				"\"3\",\"1e1\"\n" +
+				"\"4\",\"n/a\"\n" +
+				"\"5\"\n" +
+				"\"WEEKWAIVERS\",\"3\"\n" +
+				"\"WR\",\"6.5\"\n" +
+				"\"WEEK\",\"4\"\n" +
+				"\"1\",\"0.1\"\n" +
+				"\"WEEKWAIVERS\",\"5\"\n" +
+				"\"WR\",\"9.0\"\n");
+		List<WeekProjections> weeks = reader.getWeekProjections();
+		assertEquals(2, weeks.size());
+		assertEquals(3, weeks.get(0).getWeekNum());
+		//the last row for a player is used
+		assertEquals(14.25, getProjection(weeks.get(0), 1), 0.0);
+		assertEquals(-0.75, getProjection(weeks.get(0), 2), 0.0);
+		assertEquals(10.0, getProjection(weeks.get(0), 3), 0.0);
+		assertEquals(0.0, getProjection(weeks.get(0), 4), 0.0);
+		assertEquals(Double.valueOf(6.5), weeks.get(0).getTopWaiverForPositions().get(Position.WR));
+		assertEquals(4, weeks.get(1).getWeekNum());
+		assertEquals(0.1, getProjection(weeks.get(1), 1), 0.0);
+		//waivers for the wrong week are skipped
+		assertTrue(weeks.get(1).getTopWaiverForPositions().isEmpty());
+
+		Player qb = reader.getBestAvailablePlayersByPosition().get(Position.QB);
+		assertEquals("Joe \"Wildcat\" Smith", qb.getName());
+		assertEquals(101, qb.getPlayerId());
+		assertFalse(reader.getBestAvailablePlayersByPosition().containsKey(Position.RB));
+		//bad player Id, bad projection and short row
+		assertEquals(3, reader.getMalformedRowCount());
+	}
+
+	@Test
+	public void testMissingFile() {
+		ReadProjectionsCSV reader = new ReadProjectionsCSV(new File(folder.getRoot(), "missing.csv").getPath());
+		assertFalse(reader.isCreated());
+		assertTrue(reader.getWeekProjections().isEmpty());
+	}
+
+	private ReadProjectionsCSV read(String content) throws IOException {
+		File file = folder.newFile("projections.csv");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		ReadProjectionsCSV reader = new ReadProjectionsCSV(file.getPath());
+		assertTrue(reader.isCreated());
+		return reader;
+	}
+
+	private static double getProjection(WeekProjections week, int playerId) {
+		return week.getPlayersToUse(new Integer[] {playerId}).get(0).getProjection();
+	}
+}
@@ -0,0 +1,257 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tradeOptimizer.calc.OptimalLineupCalculator;
+import tradeOptimizer.calc.SlotClassLineupCalculator;
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * Compares SlotClassLineupCalculator with OptimalLineupCalculator and an exhaustive search over every set of players
+ * on random rosters. Projections are multiples of 0.25 so that sums are exact and ties are common.
+ */
+public class TestSlotClassLineupCalculator {
+
+	private static final int NUM_PLAYERS = 60;
+	private static final int NUM_ROSTERS = 2000;
+
+	private static final List<Position> QB = Arrays.asList(Position.QB);
+	private static final List<Position> RB = Arrays.asList(Position.RB);
+	private static final List<Position> WR = Arrays.asList(Position.WR);
+	private static final List<Position> TE = Arrays.asList(Position.TE);
+	private static final List<Position> DEF = Arrays.asList(Position.DEF);
+	private static final List<Position> WRT = Arrays.asList(Position.WR, Position.RB, Position.TE);
+	private static final List<Position> QWRT = Arrays.asList(Position.QB, Position.WR, Position.RB, Position.TE);
+
+	private static List<LeaguePosition> overlappingPositions;
+
+	@BeforeClass
+	public static void setupLeague() {
+		overlappingPositions = createPositions(QB, RB, WR, TE, Arrays.asList(Position.WR, Position.RB), Arrays.asList(Position.WR, Position.TE));
+		final Map<Integer, Player> players = new HashMap<Integer, Player>();
+		List<List<Position>> playerPositions = Arrays.asList(QB, RB, WR, TE, DEF, Arrays.asList(Position.WR, Position.RB), Arrays.asList(Position.RB, Position.TE));
+		for (int id = 1; id <= NUM_PLAYERS; id++) {
+			players.put(id, new Player("Player " + id, playerPositions.get(id % playerPositions.size()), id));
+		}
+		FantasyLeague.setupLeague(new LeagueDataSource() {
+			public List<Team> getTeams() {
+				return new ArrayList<Team>();
+			}
+
+			public List<LeaguePosition> getLeaguePositions() {
+				return overlappingPositions;
+			}
+
+			public Map<Integer, Integer> getNumPlayersOnByeForWeek() {
+				return new HashMap<Integer, Integer>();
+			}
+
+			public Map<Integer, Player> getPlayersById() {
+				return players;
+			}
+
+			public int getCurrentWeek() {
+				return 16;
+			}
+
+			public String getLeagueName() {
+				return "TestLeague";
+			}
+		}, new ProjectionDataSource() {
+			public List<WeekProjections> getWeekProjections() {
+				return new ArrayList<WeekProjections>();
+			}
+
+			public Map<Position, Player> getBestAvailablePlayersByPosition() {
+				return new HashMap<Position, Player>();
+			}
+		});
+	}
+
+	@Test
+	public void testStandardPositions() {
+		checkRandomRosters(createPositions(QB, RB, RB, WR, WR, TE, WRT, DEF), 1);
+	}
+
+	@Test
+	public void testSuperflexPositions() {
+		checkRandomRosters(createPositions(QB, RB, WR, WR, TE, WRT, QWRT), 2);
+	}
+
+	@Test
+	public void testOverlappingFlexPositions() {
+		checkRandomRosters(overlappingPositions, 3);
+	}
+
+	/*
+	 * Whenever the slot class lineup is reported as exact it must be the unique optimal lineup with every position filled,
+	 * and WeekCalculator's total must always match the Hungarian algorithm
+	 */
+	private static void checkRandomRosters(List<LeaguePosition> positions, long seed) {
+		Random random = new Random(seed);
+		int exactCount = 0;
+		int tieOrEmptyCount = 0;
+		for (int n = 0; n < NUM_ROSTERS; n++) {
+			List<PlayerProjection> roster = createRoster(random, positions.size() + random.nextInt(4));
+			ExhaustiveLineup exhaustive = new ExhaustiveLineup(roster, positions);
+			OptimalLineupCalculator hungarian = new OptimalLineupCalculator(roster, positions);
+			double hungarianPoints = hungarian.getOptimalProjPoints();
+			assertEquals(exhaustive.bestPoints, hungarianPoints, 0.0);
+			SlotClassLineupCalculator slotCalc = new SlotClassLineupCalculator(roster, positions);
+			if (slotCalc.hasExactSolution()) {
+				exactCount++;
+				assertTrue(exhaustive.allFilled);
+				assertEquals(1, exhaustive.bestLineups.size());
+				assertEquals(hungarianPoints, slotCalc.getOptimalProjPoints(), 0.0);
+				assertEquals(hungarian.getPlayersUsed(), slotCalc.getPlayersUsed());
+				assertEquals(exhaustive.bestLineups.iterator().next(), slotCalc.getPlayersUsed());
+			} else {
+				assertTrue(!exhaustive.allFilled || exhaustive.bestLineups.size() > 1 || exhaustive.hasTie);
+				tieOrEmptyCount++;
+			}
+			if (positions == overlappingPositions) {
+				//no waiver values so nothing is added to the roster and the totals are comparable
+				WeekCalculator weekCalc = new WeekCalculator(new ArrayList<PlayerProjection>(roster), new HashMap<Position, Double>(), new ArrayList<Integer>(), 16);
+				assertEquals(hungarianPoints, weekCalc.getOptimizedProjectedPoints(), 0.0);
+			}
+		}
+		assertTrue(exactCount > NUM_ROSTERS / 20);
+		assertTrue(tieOrEmptyCount > NUM_ROSTERS / 20);
+	}
+
+	/*
+	 * Random roster of distinct players sorted from highest to lowest projection, like the lists built by WeekProjections
+	 */
+	private static List<PlayerProjection> createRoster(Random random, int size) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (int id = 1; id <= NUM_PLAYERS; id++) {
+			ids.add(id);
+		}
+		List<PlayerProjection> roster = new ArrayList<PlayerProjection>();
+		for (int i = 0; i < size; i++) {
+			int playerId = ids.remove(random.nextInt(ids.size()));
+			double projection = random.nextInt(8) == 0 ? 0.0 : random.nextInt(100) * 0.25;
+			roster.add(new PlayerProjection(playerId, projection));
+		}
+		Collections.sort(roster);
+		return roster;
+	}
+
+	@SafeVarargs
+	private static List<LeaguePosition> createPositions(List<Position>... possiblePositions) {
+		List<LeaguePosition> positions = new ArrayList<LeaguePosition>();
+		for (int i = 0; i < possiblePositions.length; i++) {
+			positions.add(new LeaguePosition("P" + i, possiblePositions[i]));
+		}
+		return positions;
+	}
+
+	/*
+	 * Finds every set of players with positive projections that can start together and has the highest total
+	 */
+	private static class ExhaustiveLineup {
+		private double bestPoints = 0.0;
+		private Set<Set<Integer>> bestLineups = new HashSet<Set<Integer>>();
+		private boolean allFilled = false;
+		private boolean hasTie = false; //a starter in the best lineup has the same projection as a player left out
+
+		ExhaustiveLineup(List<PlayerProjection> roster, List<LeaguePosition> positions) {
+			int numPlayers = roster.size();
+			for (int subset = 0; subset < (1 << numPlayers); subset++) {
+				List<PlayerProjection> lineup = new ArrayList<PlayerProjection>();
+				double points = 0.0;
+				for (int i = 0; i < numPlayers; i++) {
+					if ((subset & (1 << i)) != 0) {
+						lineup.add(roster.get(i));
+						points += roster.get(i).getProjection();
+					}
+				}
+				if (lineup.size() > positions.size() || !canStartTogether(lineup, positions) || hasZeroProjection(lineup)) {
+					continue;
+				}
+				if (lineup.size() == positions.size()) {
+					allFilled = true;
+				}
+				Set<Integer> playerIds = new HashSet<Integer>();
+				for (PlayerProjection player : lineup) {
+					playerIds.add(player.getPlayerId());
+				}
+				if (points > bestPoints) {
+					bestPoints = points;
+					bestLineups.clear();
+				}
+				if (points == bestPoints && points > 0.0) {
+					bestLineups.add(playerIds);
+				}
+			}
+			for (Set<Integer> lineup : bestLineups) {
+				for (PlayerProjection used : roster) {
+					for (PlayerProjection unused : roster) {
+						if (lineup.contains(used.getPlayerId()) && !lineup.contains(unused.getPlayerId())
+								&& used.getProjection().equals(unused.getProjection())) {
+							hasTie = true;
+						}
+					}
+				}
+			}
+		}
+
+		private static boolean hasZeroProjection(List<PlayerProjection> lineup) {
+			for (PlayerProjection player : lineup) {
+				if (player.getProjection() <= 0.0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/*
+		 * Simple augmenting path matching of every player in lineup to a different position
+		 */
+		private static boolean canStartTogether(List<PlayerProjection> lineup, List<LeaguePosition> positions) {
+			int[] playerForPosition = new int[positions.size()];
+			Arrays.fill(playerForPosition, -1);
+			for (int i = 0; i < lineup.size(); i++) {
+				if (!placePlayer(i, lineup, positions, playerForPosition, new boolean[positions.size()])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean placePlayer(int player, List<PlayerProjection> lineup, List<LeaguePosition> positions, int[] playerForPosition, boolean[] visited) {
+			for (int p = 0; p < positions.size(); p++) {
+				if (!visited[p] && lineup.get(player).getPlayer().canBeUsedInPosition(positions.get(p))) {
+					visited[p] = true;
+					if (playerForPosition[p] == -1 || placePlayer(playerForPosition[p], lineup, positions, playerForPosition, visited)) {
+						playerForPosition[p] = player;
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+
+public class TestSyntheticLeague {
+
+	@Test
+	public void testSameSeedSameLeague() {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(42);
+		settings.setNumTeams(20);
+		settings.setRosterSize(25);
+		SyntheticLeagueData first = new SyntheticLeagueData(settings);
+		SyntheticLeagueData second = new SyntheticLeagueData(settings);
+		assertEquals(20, first.getTeams().size());
+		for (int t = 0; t < first.getTeams().size(); t++) {
+			assertEquals(25, first.getTeams().get(t).getCurrentPlayers().length);
+			assertArrayEquals(first.getTeams().get(t).getCurrentPlayers(), second.getTeams().get(t).getCurrentPlayers());
+		}
+		List<WeekProjections> firstWeeks = new SyntheticProjections(first).getWeekProjections();
+		List<WeekProjections> secondWeeks = new SyntheticProjections(second).getWeekProjections();
+		assertEquals(16, firstWeeks.size());
+		for (int w = 0; w < firstWeeks.size(); w++) {
+			assertEquals(firstWeeks.get(w).getTopWaiverForPositions(), secondWeeks.get(w).getTopWaiverForPositions());
+		}
+	}
+
+	@Test
+	public void testIdpSuperflexRosters() {
+		List<LeaguePosition> positions = new ArrayList<LeaguePosition>();
+		positions.add(new LeaguePosition("QB1", Arrays.asList(Position.QB)));
+		positions.add(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+		positions.add(new LeaguePosition("WR1", Arrays.asList(Position.WR)));
+		positions.add(new LeaguePosition("Q/W/R/T1", Arrays.asList(Position.QB, Position.WR, Position.RB, Position.TE)));
+		positions.add(new LeaguePosition("D1", Arrays.asList(Position.D)));
+		positions.add(new LeaguePosition("D2", Arrays.asList(Position.D)));
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setLeaguePositions(positions);
+		settings.setRosterSize(12);
+		settings.setMultiPositionRate(0.0);
+		SyntheticLeagueData league = new SyntheticLeagueData(settings);
+		for (Team team : league.getTeams()) {
+			int numIdp = 0;
+			for (Integer playerId : team.getCurrentPlayers()) {
+				Player player = league.getPlayersById().get(playerId);
+				assertFalse(player.getFootballPositions().contains(Position.DEF));
+				if (player.getFootballPositions().contains(Position.D)) {
+					numIdp++;
+				}
+			}
+			assertTrue(numIdp >= 2);
+		}
+		assertTrue(league.getBestAvailablePlayers().containsKey(Position.D));
+	}
+
+	@Test
+	public void testBestAvailablePlayersNotRostered() {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setNumTeams(4);
+		SyntheticLeagueData league = new SyntheticLeagueData(settings);
+		assertEquals(4 * settings.getRosterSize(), league.getPlayersById().size());
+		for (Team team : league.getTeams()) {
+			for (Integer playerId : team.getCurrentPlayers()) {
+				assertTrue(league.getPlayersById().containsKey(playerId));
+			}
+		}
+		//FantasyLeague adds the best available players itself and warns about Ids already in use
+		assertFalse(league.getBestAvailablePlayers().isEmpty());
+		for (Player player : league.getBestAvailablePlayers().values()) {
+			assertFalse(league.getPlayersById().containsKey(player.getPlayerId()));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tradeOptimizer.trades.TopTradeAccumulator;
+import tradeOptimizer.trades.Trade;
+import tradeOptimizer.trades.TradeRanking;
+
+public class TestTopTradeAccumulator {
+
+	@Test
+	public void testConcurrentAddsKeepBestTrades() throws InterruptedException {
+		final List<Trade> allTrades = new ArrayList<Trade>();
+		Random random = new Random(3);
+		for (int i = 0; i < 20000; i++) {
+			allTrades.add(new Trade(Arrays.asList(i), "Team " + (i % 7), Arrays.asList(i + 100000), (double) random.nextInt(500), random.nextDouble() * 10));
+		}
+		final TopTradeAccumulator accumulator = new TopTradeAccumulator(50, TradeRanking.OWN_GAIN);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 4; t++) {
+			final int first = t;
+			Thread thread = new Thread(() -> {
+				for (int i = first; i < allTrades.size(); i += 4) {
+					accumulator.add(allTrades.get(i));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		List<Trade> kept = accumulator.getTrades();
+		assertEquals(50, kept.size());
+		List<Trade> sorted = new ArrayList<Trade>(allTrades);
+		Collections.sort(sorted);
+		//only the 50th score can be shared with trades that weren't kept
+		for (int i = 0; i < kept.size(); i++) {
+			assertEquals(sorted.get(i).getThisTeamPointIncrease(), kept.get(i).getThisTeamPointIncrease());
+		}
+	}
+
+	@Test
+	public void testFairnessRanking() {
+		TopTradeAccumulator accumulator = new TopTradeAccumulator(2, TradeRanking.FAIRNESS);
+		accumulator.add(new Trade(Arrays.asList(1), "Team 1", Arrays.asList(2), 10.0, 2.0));
+		accumulator.add(new Trade(Arrays.asList(3), "Team 1", Arrays.asList(4), 5.0, 5.5));
+		accumulator.add(new Trade(Arrays.asList(5), "Team 2", Arrays.asList(6), 3.0, 4.0));
+		assertFalse(accumulator.add(new Trade(Arrays.asList(7), "Team 2", Arrays.asList(8), 1.0, 9.0)));
+		List<Trade> kept = accumulator.getTrades();
+		assertEquals(2, kept.size());
+		assertEquals(Arrays.asList(3), kept.get(0).getThisTeamPlayers());
+		assertEquals(Arrays.asList(5), kept.get(1).getThisTeamPlayers());
+	}
+}
@@ -0,0 +1,175 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.projections.ProjectionChange;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+import tradeOptimizer.trades.RosterChange;
+import tradeOptimizer.trades.Trade;
+import tradeOptimizer.trades.TradeGenerator;
+
+public class TestTradeGenerator {
+
+	private static final long SEED = 11;
+	private static final int NUM_TEAMS = 4;
+	private static final int ROSTER_SIZE = 9;
+	private static final int CURRENT_WEEK = 15;
+
+	private static SyntheticLeagueData league;
+	private static SyntheticProjections projections;
+
+	/*
+	 * The league is only set up once, so every test uses the same seeded league
+	 */
+	@BeforeClass
+	public static void setupLeague() {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(SEED);
+		settings.setNumTeams(NUM_TEAMS);
+		settings.setRosterSize(ROSTER_SIZE);
+		settings.setWeeks(CURRENT_WEEK, 16);
+		league = new SyntheticLeagueData(settings);
+		projections = new SyntheticProjections(league);
+		FantasyLeague.setupLeague(league, projections);
+	}
+
+	@After
+	public void deleteExcelFile() {
+		new File(FantasyLeague.getLeagueName() + "_fantasy_trades.xlsx").delete();
+	}
+
+	@Test
+	public void testParallelMatchesSequential() {
+		Map<String, List<String>> sequentialTrades = getFullRunTrades(1, 1);
+		int numTrades = 0;
+		for (List<String> trades : sequentialTrades.values()) {
+			numTrades += trades.size();
+		}
+		assertTrue(numTrades > 0);
+		//small chunks split every pair's combinations between several tasks
+		assertEquals(sequentialTrades, getFullRunTrades(4, 7));
+		assertEquals(sequentialTrades, getFullRunTrades(3, 1000));
+	}
+
+	@Test
+	public void testRefreshMatchesFullRun() {
+		TradeGenerator generator = new TradeGenerator(league, projections);
+		generator.generateTrades();
+		//the first team's best player starts every week, so both its base projection and its trades change
+		int changedPlayer = getBestPlayer(FantasyLeague.getTeams().get(0));
+		List<ProjectionChange> changes = generator.refreshProjections(createChangedProjections(changedPlayer));
+		assertFalse(changes.isEmpty());
+		generator.generateTrades();
+		Map<String, List<String>> refreshedTrades = getTrades();
+		assertEquals(getFullRunTrades(1, 1), refreshedTrades);
+	}
+
+	@Test
+	public void testRosterChangeMatchesFullRun() {
+		for (int numThreads : new int[] {1, 4}) {
+			TradeGenerator generator = new TradeGenerator(league, projections, numThreads);
+			generator.generateTrades();
+			Team team = FantasyLeague.getTeams().get(numThreads % FantasyLeague.getTeams().size());
+			assertFalse(team.getTrades().isEmpty());
+			generator.applyRosterChange(RosterChange.fromTrade(team, team.getTrades().get(0)));
+			Map<String, List<String>> changedTrades = getTrades();
+			assertEquals(getFullRunTrades(1, 1), changedTrades);
+		}
+		//without a previous run every pair is calculated
+		Team team = FantasyLeague.getTeams().get(0);
+		TradeGenerator generator = new TradeGenerator(league, projections);
+		generator.applyRosterChange(new RosterChange().movePlayer(team.getCurrentPlayers()[0], team, FantasyLeague.getTeams().get(1)));
+		Map<String, List<String>> changedTrades = getTrades();
+		assertEquals(getFullRunTrades(1, 1), changedTrades);
+	}
+
+	/*
+	 * Returns the trades of a new TradeGenerator, which calculates the base projections and trades of every Team
+	 */
+	private static Map<String, List<String>> getFullRunTrades(int numThreads, int chunkSize) {
+		for (Team team : FantasyLeague.getTeams()) {
+			team.clearBaseProjectedPoints();
+		}
+		TradeGenerator generator = new TradeGenerator(league, projections, numThreads);
+		generator.setChunkSize(chunkSize);
+		generator.generateTrades();
+		return getTrades();
+	}
+
+	private static int getBestPlayer(Team team) {
+		WeekProjections week = FantasyLeague.getWeeks().get(0);
+		int bestPlayer = team.getCurrentPlayers()[0];
+		for (int playerId : team.getCurrentPlayers()) {
+			if (week.getProjectionForPlayer(playerId) > week.getProjectionForPlayer(bestPlayer)) {
+				bestPlayer = playerId;
+			}
+		}
+		return bestPlayer;
+	}
+
+	/*
+	 * Projections of the league's current weeks where playerId is projected for 5 more points each week
+	 */
+	private static ProjectionDataSource createChangedProjections(int playerId) {
+		List<Integer> playerIds = new ArrayList<Integer>(league.getPlayersById().keySet());
+		for (Player player : league.getBestAvailablePlayers().values()) {
+			playerIds.add(player.getPlayerId());
+		}
+		final List<WeekProjections> weeks = new ArrayList<WeekProjections>();
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			Map<Integer, Double> weekProjections = new HashMap<Integer, Double>();
+			for (int id : playerIds) {
+				weekProjections.put(id, week.getProjectionForPlayer(id) + (id == playerId ? 5.0 : 0.0));
+			}
+			WeekProjections changedWeek = new WeekProjections(week.getWeekNum());
+			changedWeek.addProjectionsForWeek(weekProjections);
+			for (Map.Entry<Position, Double> waiverValue : week.getTopWaiverForPositions().entrySet()) {
+				changedWeek.tryAddTopWaiverPositionValue(waiverValue.getValue(), waiverValue.getKey());
+			}
+			weeks.add(changedWeek);
+		}
+		return new ProjectionDataSource() {
+			public List<WeekProjections> getWeekProjections() {
+				return weeks;
+			}
+
+			public Map<Position, Player> getBestAvailablePlayersByPosition() {
+				return league.getBestAvailablePlayers();
+			}
+		};
+	}
+
+	/*
+	 * Returns a description of each Team's trades in ranked order
+	 */
+	private static Map<String, List<String>> getTrades() {
+		Map<String, List<String>> tradesForTeam = new HashMap<String, List<String>>();
+		for (Team team : FantasyLeague.getTeams()) {
+			List<String> trades = new ArrayList<String>();
+			for (Trade trade : team.getTrades()) {
+				trades.add(trade.getThisTeamPlayers() + " " + trade.getOtherTeamName() + " " + trade.getOtherTeamPlayers()
+						+ " " + trade.getThisTeamPointIncrease() + " " + trade.getOtherTeamPointIncrease());
+			}
+			tradesForTeam.put(team.getTeamName(), trades);
+		}
+		return tradesForTeam;
+	}
+}
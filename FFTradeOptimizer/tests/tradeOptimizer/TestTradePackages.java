@@ -0,0 +1,124 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.TradePackages;
+import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+
+public class TestTradePackages {
+
+	private static final List<Integer> ROSTER = Arrays.asList(11, 12, 13, 14, 15, 16, 17);
+
+	/*
+	 * Packages are encoded by player index, so the roster's players are set up in a league without teams
+	 */
+	@BeforeClass
+	public static void setupLeague() {
+		final Map<Integer, Player> players = new HashMap<Integer, Player>();
+		for (int playerId : ROSTER) {
+			players.put(playerId, new Player("Player " + playerId, Position.RB, playerId));
+		}
+		FantasyLeague.setupLeague(new LeagueDataSource() {
+			public List<Team> getTeams() {
+				return new ArrayList<Team>();
+			}
+
+			public List<LeaguePosition> getLeaguePositions() {
+				return Arrays.asList(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+			}
+
+			public Map<Integer, Integer> getNumPlayersOnByeForWeek() {
+				return new HashMap<Integer, Integer>();
+			}
+
+			public Map<Integer, Player> getPlayersById() {
+				return players;
+			}
+
+			public int getCurrentWeek() {
+				return 16;
+			}
+
+			public String getLeagueName() {
+				return "TestLeague";
+			}
+		}, new ProjectionDataSource() {
+			public List<WeekProjections> getWeekProjections() {
+				return new ArrayList<WeekProjections>();
+			}
+
+			public Map<Position, Player> getBestAvailablePlayersByPosition() {
+				return new HashMap<Position, Player>();
+			}
+		});
+	}
+
+	@AfterClass
+	public static void clearLeague() {
+		FantasyLeague.clearLeague();
+	}
+
+	@Test
+	public void testPairsInRosterOrder() {
+		List<List<Integer>> expected = new ArrayList<List<Integer>>();
+		for (int i = 0; i < ROSTER.size(); i++) {
+			for (int j = i + 1; j < ROSTER.size(); j++) {
+				expected.add(Arrays.asList(ROSTER.get(i), ROSTER.get(j)));
+			}
+			expected.add(Arrays.asList(ROSTER.get(i)));
+		}
+		assertEquals(expected, decodeAll(new TradePackages(ROSTER, 2)));
+	}
+
+	@Test
+	public void testEveryPackageOfThree() {
+		TradePackages packages = new TradePackages(ROSTER, 3);
+		long[] codes = packages.encodeAll();
+		List<List<Integer>> all = decodeAll(packages);
+		//7 + 21 + 35 packages of 1, 2 and 3 players
+		assertEquals(63, packages.size());
+		assertEquals(63, codes.length);
+		assertEquals(63, new HashSet<List<Integer>>(all).size());
+		for (int i = 0; i < codes.length; i++) {
+			assertEquals(codes[i], TradePackages.encode(all.get(i)));
+		}
+	}
+
+	@Test
+	public void testSkipPackagesOnlyOf() {
+		TradePackages packages = new TradePackages(ROSTER, 3).skipPackagesOnlyOf(playerId -> playerId != 11);
+		List<List<Integer>> kept = decodeAll(packages);
+		for (List<Integer> tradePackage : kept) {
+			assertTrue(tradePackage.contains(11));
+		}
+		//packages with player 11 and up to 2 of the other 6
+		assertEquals(1 + 6 + 15, kept.size());
+		assertEquals(63, packages.size());
+	}
+
+	private static List<List<Integer>> decodeAll(TradePackages packages) {
+		List<List<Integer>> list = new ArrayList<List<Integer>>();
+		for (long code : packages.encodeAll()) {
+			list.add(TradePackages.decode(code));
+		}
+		return list;
+	}
+}
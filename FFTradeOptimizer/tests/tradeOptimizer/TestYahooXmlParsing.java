@@ -0,0 +1,99 @@
+package tradeOptimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.yahoo.QueryYahooData;
+
+/*
+ * Parses saved Yahoo responses in tests/tradeOptimizer/fixtures, expected values are the ones the previous DOM parser read from the same files
+ */
+public class TestYahooXmlParsing {
+
+	private static final File FIXTURES = new File("tests/tradeOptimizer/fixtures");
+
+	private QueryYahooData league;
+	private int numDefenses;
+
+	@Before
+	public void parseFixtures() throws Exception {
+		league = new QueryYahooData(123456, null, null);
+		league.parseSettings(new FileInputStream(new File(FIXTURES, "league_settings.xml")));
+		numDefenses = league.parseRosters(new FileInputStream(new File(FIXTURES, "league_rosters.xml")));
+	}
+
+	@Test
+	public void testSettings() {
+		assertEquals("Fixture & Friends League", league.getLeagueName());
+		assertEquals(8, league.getCurrentWeek());
+		List<String> names = new ArrayList<String>();
+		for (LeaguePosition position : league.getLeaguePositions()) {
+			names.add(position.getPositionName());
+		}
+		assertEquals(Arrays.asList("QB1", "WR1", "WR2", "WR3", "RB1", "RB2", "TE1", "W/R/T1", "Q/W/R/T1", "DEF1", "BN1", "BN2"), names);
+		LeaguePosition flex = league.getLeaguePositions().get(7);
+		assertEquals(3, flex.getPossiblePositions().size());
+		assertTrue(flex.getPossiblePositions().containsAll(Arrays.asList(Position.WR, Position.RB, Position.TE)));
+		LeaguePosition superflex = league.getLeaguePositions().get(8);
+		assertEquals(4, superflex.getPossiblePositions().size());
+		assertTrue(superflex.getPossiblePositions().contains(Position.QB));
+	}
+
+	@Test
+	public void testRosters() {
+		List<Team> teams = league.getTeams();
+		assertEquals(4, teams.size());
+		assertEquals("Touchdown Makers", teams.get(0).getTeamName());
+		assertEquals("Bob's <Best> Team", teams.get(1).getTeamName());
+		assertEquals("The CDATA Team", teams.get(3).getTeamName());
+		//each roster lists 14 players, the WR,RB player isn't added
+		for (Team team : teams) {
+			assertEquals(13, team.getCurrentPlayers().length);
+		}
+		assertEquals(Integer.valueOf(1001), teams.get(0).getCurrentPlayers()[0]);
+		assertEquals(Integer.valueOf(1013), teams.get(0).getCurrentPlayers()[12]);
+		assertNull(league.getPlayersById().get(1014));
+		assertEquals(52, league.getPlayersById().size());
+		assertEquals(4, numDefenses);
+	}
+
+	@Test
+	public void testPlayers() {
+		Player quarterback = league.getPlayersById().get(1001);
+		assertEquals("A.J. Player1001", quarterback.getName());
+		assertEquals(Arrays.asList(Position.QB), quarterback.getFootballPositions());
+		assertEquals(8, quarterback.getByeWeek());
+		Player defense = league.getPlayersById().get(1012);
+		assertEquals("Team 1012", defense.getName());
+		assertEquals(Arrays.asList(Position.DEF), defense.getFootballPositions());
+		assertEquals(8, defense.getByeWeek());
+		Player kicker = league.getPlayersById().get(1013);
+		assertEquals("Le'Veon Player1013", kicker.getName());
+		assertEquals(Arrays.asList(Position.K), kicker.getFootballPositions());
+		assertEquals(10, kicker.getByeWeek());
+		assertEquals("D'Andre Player1007", league.getPlayersById().get(1007).getName());
+	}
+
+	@Test
+	public void testByeWeeks() {
+		//defenses aren't counted
+		int[] expected = {6, 3, 5, 7, 6, 10, 3, 4, 2, 2, 0, 0, 0};
+		Map<Integer, Integer> numOnBye = league.getNumPlayersOnByeForWeek();
+		for (int week = 4; week <= 16; week++) {
+			assertEquals(Integer.valueOf(expected[week - 4]), numOnBye.get(week));
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package tradeOptimizer.trades;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.TradePackages;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+
+public class TestThreeTeamTradeCalculator {
+
+	private static final int MAX_TRADES = 50;
+
+	@BeforeClass
+	public static void setupLeague() {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(7);
+		settings.setNumTeams(6);
+		settings.setRosterSize(10);
+		settings.setWeeks(14, 16);
+		SyntheticLeagueData league = new SyntheticLeagueData(settings);
+		FantasyLeague.setupLeague(league, new SyntheticProjections(league));
+	}
+
+	@Test
+	public void testPrunedSearchMatchesEnumeration() {
+		List<Team> leagueTeams = FantasyLeague.getTeams();
+		Team[] teams = {leagueTeams.get(0), leagueTeams.get(2), leagueTeams.get(1)};
+		SeasonBounds[] bounds = new SeasonBounds[3];
+		for (int team = 0; team < 3; team++) {
+			teams[team].clearBaseProjectedPoints();
+			teams[team].setBaseProjectedPoints(getSeasonTotal(teams[team], new ArrayList<Integer>(), new ArrayList<Integer>())[0]);
+			bounds[team] = new SeasonBounds(teams[team], FantasyLeague.getWeeks());
+		}
+		//a search wide enough to keep every candidate only loses trades if the bounds prune them
+		List<ThreeTeamTrade> trades = new ThreeTeamTradeCalculator(teams, bounds, Integer.MAX_VALUE, MAX_TRADES).calculateTrades();
+		List<Double> expected = getEnumeratedTotals(teams);
+		assertTrue(expected.size() > MAX_TRADES);
+		assertEquals(MAX_TRADES, trades.size());
+		for (int i = 0; i < MAX_TRADES; i++) {
+			assertEquals(expected.get(i), trades.get(i).getTotalPointIncrease(), 1e-9);
+		}
+	}
+
+	/*
+	 * Returns the total point increase of every trade in the cycle that passes the filters, highest first
+	 */
+	private static List<Double> getEnumeratedTotals(Team[] teams) {
+		List<List<List<Integer>>> packages = new ArrayList<List<List<Integer>>>();
+		for (Team team : teams) {
+			List<List<Integer>> teamPackages = new ArrayList<List<Integer>>();
+			for (long code : team.getTradeCombinations().encodeAll()) {
+				teamPackages.add(TradePackages.decode(code));
+			}
+			packages.add(teamPackages);
+		}
+		//season total and times the received players are used for each team, by package sent and package received
+		double[][][][] seasons = new double[3][][][];
+		for (int team = 0; team < 3; team++) {
+			List<List<Integer>> sent = packages.get(team);
+			List<List<Integer>> received = packages.get((team + 2) % 3);
+			seasons[team] = new double[sent.size()][received.size()][];
+			for (int s = 0; s < sent.size(); s++) {
+				for (int r = 0; r < received.size(); r++) {
+					seasons[team][s][r] = getSeasonTotal(teams[team], sent.get(s), received.get(r));
+				}
+			}
+		}
+		int minTimesPlayerUsed = TradeCalculator.getMinTimesPlayerUsed();
+		List<Double> totals = new ArrayList<Double>();
+		int[] sent = new int[3];
+		double[] increases = new double[3];
+		for (sent[0] = 0; sent[0] < packages.get(0).size(); sent[0]++) {
+			for (sent[1] = 0; sent[1] < packages.get(1).size(); sent[1]++) {
+				for (sent[2] = 0; sent[2] < packages.get(2).size(); sent[2]++) {
+					boolean passes = true;
+					double lowest = Double.MAX_VALUE;
+					double highest = -Double.MAX_VALUE;
+					for (int team = 0; team < 3; team++) {
+						int from = (team + 2) % 3;
+						double[] season = seasons[team][sent[team]][sent[from]];
+						increases[team] = season[0] - teams[team].getBaseProjectedPoints();
+						lowest = Math.min(lowest, increases[team]);
+						highest = Math.max(highest, increases[team]);
+						passes &= season[1] >= packages.get(from).get(sent[from]).size() * minTimesPlayerUsed;
+						passes &= increases[team] > 0.0 && increases[team] < TradeCalculator.MAX_POINT_INCREASE;
+					}
+					double total = increases[0] + increases[1] + increases[2];
+					if (passes && total > TradeCalculator.MIN_COMBINED_INCREASE && highest - lowest < TradeCalculator.MAX_INCREASE_DIFFERENCE) {
+						totals.add(total);
+					}
+				}
+			}
+		}
+		Collections.sort(totals, Collections.reverseOrder());
+		return totals;
+	}
+
+	/*
+	 * Returns the points a team scores over the season after a trade and the number of times the players received are used
+	 */
+	private static double[] getSeasonTotal(Team team, List<Integer> sent, List<Integer> received) {
+		int[] roster = new RosterUpdater(team.getCurrentPlayers()).getUpdatedRosterIndexes(sent, received);
+		double total = 0.0;
+		int timesUsed = 0;
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			WeekCalculator calculator = new WeekCalculator(week.getPlayersToUse(roster), week.getTopWaiverForPositions(), received, week.getWeekNum());
+			total += calculator.getOptimizedProjectedPoints();
+			timesUsed += calculator.getTimesNewPlayerUsed();
+		}
+		return new double[] {total, timesUsed};
+	}
+}
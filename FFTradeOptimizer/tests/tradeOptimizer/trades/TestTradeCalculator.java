@@ -0,0 +1,112 @@
+package tradeOptimizer.trades;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+
+/*
+ * Checks that rejecting combinations by their SeasonBounds, both the certificate bounds and the week bounds, finds the same
+ * trades as calculating every week of every combination
+ */
+public class TestTradeCalculator {
+
+	private static final int NUM_TEAMS = 3;
+	private static final int ROSTER_SIZE = 12;
+	private static final double MULTI_POSITION_RATE = 0.2; //players that can fill 2 positions make the fillable checks harder
+
+	@After
+	public void clearLeague() {
+		FantasyLeague.clearLeague();
+	}
+
+	@Test
+	public void testPrunedMatchesFullEnumeration() {
+		checkPrunedTrades(createLeague(5, 5));
+		checkPrunedTrades(createLeague(2, 12));
+	}
+
+	@Test
+	public void testSuperflexPrunedMatchesFullEnumeration() {
+		LeaguePosition superflex = new LeaguePosition("Q/W/R/T1", Arrays.asList(Position.QB, Position.WR, Position.RB, Position.TE));
+		checkPrunedTrades(createLeague(2, 5, superflex));
+		checkPrunedTrades(createLeague(1, 9, superflex));
+	}
+
+	@Test
+	public void testOverlappingFlexPrunedMatchesFullEnumeration() {
+		LeaguePosition wrFlex = new LeaguePosition("W/R1", Arrays.asList(Position.WR, Position.RB));
+		LeaguePosition wtFlex = new LeaguePosition("W/T1", Arrays.asList(Position.WR, Position.TE));
+		checkPrunedTrades(createLeague(3, 6, wrFlex, wtFlex));
+		checkPrunedTrades(createLeague(4, 11, wrFlex, wtFlex));
+	}
+
+	/*
+	 * Small synthetic league from currentWeek to week 16 with flexPositions added to the default positions
+	 */
+	private static SyntheticLeagueData createLeague(long seed, int currentWeek, LeaguePosition... flexPositions) {
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(seed);
+		settings.setNumTeams(NUM_TEAMS);
+		settings.setRosterSize(ROSTER_SIZE);
+		settings.setWeeks(currentWeek, 16);
+		settings.setMultiPositionRate(MULTI_POSITION_RATE);
+		List<LeaguePosition> positions = new ArrayList<LeaguePosition>(settings.getLeaguePositions());
+		positions.addAll(Arrays.asList(flexPositions));
+		settings.setLeaguePositions(positions);
+		return new SyntheticLeagueData(settings);
+	}
+
+	private static void checkPrunedTrades(SyntheticLeagueData league) {
+		FantasyLeague.clearLeague();
+		FantasyLeague.setupLeague(league, new SyntheticProjections(league));
+		List<Team> teams = FantasyLeague.getTeams();
+		List<SeasonBounds> teamBounds = new ArrayList<SeasonBounds>();
+		for (Team team : teams) {
+			team.setBaseProjectedPoints(getBaseProjectedPoints(team));
+			teamBounds.add(new SeasonBounds(team, FantasyLeague.getWeeks()));
+		}
+		for (int i = 0; i < teams.size() - 1; i++) {
+			for (int j = i + 1; j < teams.size(); j++) {
+				assertEquals(getCandidates(teams, teamBounds, i, j, false), getCandidates(teams, teamBounds, i, j, true));
+			}
+		}
+	}
+
+	private static List<String> getCandidates(List<Team> teams, List<SeasonBounds> teamBounds, int i, int j, boolean boundsPruning) {
+		TradeCalculator calculator = new TradeCalculator(teams.get(i), teams.get(j));
+		calculator.setSeasonBounds(teamBounds.get(i), teamBounds.get(j));
+		calculator.setBoundsPruning(boundsPruning);
+		List<String> candidates = new ArrayList<String>();
+		for (TradeCalculator.CandidateTrade candidate : calculator.getCandidates()) {
+			candidates.add(candidate.toString());
+		}
+		return candidates;
+	}
+
+	/*
+	 * Total for the current roster calculated the same way as TradeGenerator
+	 */
+	private static Double getBaseProjectedPoints(Team team) {
+		Double total = 0.0;
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			WeekCalculator calculator = new WeekCalculator(week.getPlayersToUse(team.getCurrentPlayers()), week.getTopWaiverForPositions(), new ArrayList<Integer>(), week.getWeekNum());
+			total += calculator.getOptimizedProjectedPoints();
+		}
+		return total;
+	}
+}
@@ -0,0 +1,149 @@
+package tradeOptimizer.trades;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Player;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.league.data.LeagueDataSource;
+import tradeOptimizer.projections.ProjectionDataSource;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * Ranks the trades TradeCalculator finds between two small teams. With a QB, RB and TE position and one week left
+ * Team 1 (QB 18, QB 19, RB 7, TE 2) has a base of 28 points and Team 2 (QB 9, RB 9, RB 17, TE 8) has 34 points.
+ * Team 1 keeps three trades:
+ *   send [1, 3] for [5, 6]: Team 1 30 (+2), Team 2 43 (+9)
+ *   send [2] for [5, 8]:    Team 1 33 (+5), Team 2 36 (+2)
+ *   send [2, 3] for [6, 8]: Team 1 35 (+7), Team 2 36 (+2)
+ */
+public class TestTradeRanking {
+
+	private static final int WEEK = 16;
+
+	private Team team1;
+	private Team team2;
+
+	@Before
+	public void setupLeague() {
+		team1 = new Team("Team 1");
+		team2 = new Team("Team 2");
+		final Map<Integer, Player> players = new HashMap<Integer, Player>();
+		Position[] playerPositions = {Position.QB, Position.QB, Position.RB, Position.TE, Position.QB, Position.RB, Position.RB, Position.TE};
+		double[] projections = {18.0, 19.0, 7.0, 2.0, 9.0, 9.0, 17.0, 8.0};
+		Map<Integer, Double> weekProjections = new HashMap<Integer, Double>();
+		for (int i = 0; i < playerPositions.length; i++) {
+			int playerId = i + 1;
+			players.put(playerId, new Player("Player " + playerId, playerPositions[i], playerId));
+			weekProjections.put(playerId, projections[i]);
+			(i < 4 ? team1 : team2).addPlayer(playerId);
+		}
+		final List<LeaguePosition> positions = new ArrayList<LeaguePosition>();
+		positions.add(new LeaguePosition("QB1", Arrays.asList(Position.QB)));
+		positions.add(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+		positions.add(new LeaguePosition("TE1", Arrays.asList(Position.TE)));
+		WeekProjections week = new WeekProjections(WEEK);
+		week.addProjectionsForWeek(weekProjections);
+		final List<WeekProjections> weeks = Arrays.asList(week);
+		FantasyLeague.setupLeague(new LeagueDataSource() {
+			public List<Team> getTeams() {
+				return Arrays.asList(team1, team2);
+			}
+
+			public List<LeaguePosition> getLeaguePositions() {
+				return positions;
+			}
+
+			public Map<Integer, Integer> getNumPlayersOnByeForWeek() {
+				return new HashMap<Integer, Integer>();
+			}
+
+			public Map<Integer, Player> getPlayersById() {
+				return players;
+			}
+
+			public int getCurrentWeek() {
+				return WEEK;
+			}
+
+			public String getLeagueName() {
+				return "TestLeague";
+			}
+		}, new ProjectionDataSource() {
+			public List<WeekProjections> getWeekProjections() {
+				return weeks;
+			}
+
+			public Map<Position, Player> getBestAvailablePlayersByPosition() {
+				return new HashMap<Position, Player>();
+			}
+		});
+		team1.setBaseProjectedPoints(28.0);
+		team2.setBaseProjectedPoints(34.0);
+	}
+
+	@After
+	public void clearLeague() {
+		FantasyLeague.clearLeague();
+	}
+
+	@Test
+	public void testPointIncreases() {
+		List<Trade> trades = getTeam1Trades(TradeRanking.OWN_GAIN);
+		assertEquals(3, trades.size());
+		assertEquals(Arrays.asList(6, 8), trades.get(0).getOtherTeamPlayers());
+		assertEquals(7.0, trades.get(0).getThisTeamPointIncrease(), 0.0);
+		assertEquals(2.0, trades.get(0).getOtherTeamPointIncrease(), 0.0);
+		//Team 2 holds the same trade from its side
+		for (Trade trade : team2.getTrades()) {
+			if (trade.getThisTeamPlayers().equals(Arrays.asList(6, 8))) {
+				assertEquals(2.0, trade.getThisTeamPointIncrease(), 0.0);
+				assertEquals(7.0, trade.getOtherTeamPointIncrease(), 0.0);
+				return;
+			}
+		}
+		fail("Team 2 is missing the trade of [6, 8] for [2, 3]");
+	}
+
+	@Test
+	public void testOwnGainOrder() {
+		assertEquals(Arrays.asList(Arrays.asList(2, 3), Arrays.asList(2), Arrays.asList(1, 3)), getSentPlayers(TradeRanking.OWN_GAIN));
+	}
+
+	@Test
+	public void testFairnessOrder() {
+		assertEquals(Arrays.asList(Arrays.asList(2), Arrays.asList(2, 3), Arrays.asList(1, 3)), getSentPlayers(TradeRanking.FAIRNESS));
+	}
+
+	@Test
+	public void testCombinedGainOrder() {
+		assertEquals(Arrays.asList(Arrays.asList(1, 3), Arrays.asList(2, 3), Arrays.asList(2)), getSentPlayers(TradeRanking.COMBINED_GAIN));
+	}
+
+	private List<List<Integer>> getSentPlayers(TradeRanking ranking) {
+		List<List<Integer>> sentPlayers = new ArrayList<List<Integer>>();
+		for (Trade trade : getTeam1Trades(ranking)) {
+			sentPlayers.add(trade.getThisTeamPlayers());
+		}
+		return sentPlayers;
+	}
+
+	private List<Trade> getTeam1Trades(TradeRanking ranking) {
+		team1.setTradeLimit(TopTradeAccumulator.UNLIMITED, ranking);
+		team2.setTradeLimit(TopTradeAccumulator.UNLIMITED, ranking);
+		new TradeCalculator(team1, team2).getTrades();
+		return team1.getTrades();
+	}
+}
@@ -0,0 +1,105 @@
+package tradeOptimizer.trades;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestTradeSideMap {
+
+	private static final int TABLE_SIZE = 32; //slots in a new map's table
+
+	@Test
+	public void testRemoveFromCluster() {
+		//keys with the same home slot are placed one after another, removing one must leave the others reachable
+		List<Long> keys = getKeysWithSlot(5, 4);
+		TradeSideMap map = new TradeSideMap();
+		for (long key : keys) {
+			map.put(key, key + 100, key, -key, 0.5);
+		}
+		map.remove(keys.get(1));
+		assertFalse(map.containsKey(keys.get(1)));
+		assertEquals(-1, map.getEntry(keys.get(1)));
+		assertEquals(3, map.size());
+		for (long key : new long[] {keys.get(0), keys.get(2), keys.get(3)}) {
+			int entry = map.getEntry(key);
+			assertNotEquals(-1, entry);
+			assertEquals(key, map.getKey(entry));
+			assertEquals(key + 100, map.getSentPackage(entry));
+			assertEquals(key, map.getThisTeamPointIncrease(entry), 0.0);
+			assertEquals(-key, map.getOtherTeamPointIncrease(entry), 0.0);
+		}
+		map.remove(keys.get(0));
+		map.remove(keys.get(3));
+		assertTrue(map.containsKey(keys.get(2)));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void testRemoveWithWrappedCluster() {
+		//a cluster starting in the last slot wraps around to the start of the table
+		List<Long> keys = getKeysWithSlot(TABLE_SIZE - 1, 3);
+		keys.addAll(getKeysWithSlot(0, 2));
+		TradeSideMap map = new TradeSideMap();
+		for (long key : keys) {
+			map.put(key, 0L, 1.0, 1.0, 0.0);
+		}
+		for (int removed = 0; removed < keys.size(); removed++) {
+			map.remove(keys.get(removed));
+			for (int i = 0; i < keys.size(); i++) {
+				assertEquals(i > removed, map.containsKey(keys.get(i)));
+			}
+			assertEquals(keys.size() - removed - 1, map.size());
+		}
+	}
+
+	@Test
+	public void testMatchesMap() {
+		Map<Long, Double> expected = new LinkedHashMap<Long, Double>();
+		TradeSideMap map = new TradeSideMap();
+		//enough keys to rehash the table several times, every third one removed and every ninth one added again
+		for (long key = 1; key <= 200; key++) {
+			map.put(key, key, key * 0.5, 0.0, 0.0);
+			expected.put(key, key * 0.5);
+		}
+		for (long key = 3; key <= 200; key += 3) {
+			map.remove(key);
+			expected.remove(key);
+		}
+		for (long key = 9; key <= 200; key += 9) {
+			map.put(key, key, key * 0.25, 0.0, 0.0);
+			expected.put(key, key * 0.25);
+		}
+		map.put(1L, 1L, 7.0, 0.0, 0.0);
+		expected.put(1L, 7.0);
+		assertEquals(expected.size(), map.size());
+		Map<Long, Double> actual = new LinkedHashMap<Long, Double>();
+		for (int entry = map.firstEntry(); entry != -1; entry = map.nextEntry(entry)) {
+			actual.put(map.getKey(entry), map.getThisTeamPointIncrease(entry));
+		}
+		//a replaced key keeps its place, a removed key added again goes to the end
+		assertEquals(new ArrayList<Long>(expected.keySet()), new ArrayList<Long>(actual.keySet()));
+		assertEquals(expected, actual);
+		for (long key = 1; key <= 200; key++) {
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+		}
+	}
+
+	/*
+	 * Returns count keys whose home slot in a new map's table is slot, using the same hash as TradeSideMap
+	 */
+	private static List<Long> getKeysWithSlot(int slot, int count) {
+		List<Long> keys = new ArrayList<Long>();
+		for (long key = 1; keys.size() < count; key++) {
+			long mixed = key * 0x9E3779B97F4A7C15L;
+			if (((int)(mixed ^ (mixed >>> 32)) & (TABLE_SIZE - 1)) == slot) {
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,96 @@
+package tradeOptimizer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tradeOptimizer.calc.WeekCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.league.Position;
+import tradeOptimizer.league.Team;
+import tradeOptimizer.projections.WeekProjections;
+import tradeOptimizer.synthetic.SyntheticLeagueData;
+import tradeOptimizer.synthetic.SyntheticLeagueSettings;
+import tradeOptimizer.synthetic.SyntheticProjections;
+
+/*
+ * Synthetic league used by the benchmarks, generated from a fixed seed so every run measures the same rosters and projections.
+ * FantasyLeague can only be set up once per JVM, JMH runs each combination of parameters in its own fork so every benchmark
+ * state sets up the league once in a Level.Trial setup method.
+ */
+public class BenchmarkLeague {
+
+	public static final int FIRST_WEEK = 6;
+	public static final int LAST_WEEK = 16;
+	private static final long SEED = 7;
+
+	/*
+	 * Starting lineup layouts benchmarked, NO_FLEX only has single position slots so every lineup is a simple assignment
+	 */
+	public enum LineupShape {
+		NO_FLEX, STANDARD, SUPERFLEX
+	}
+
+	private static String leagueKey;
+
+	private BenchmarkLeague(){}
+
+	/*
+	 * Sets up FantasyLeague with numTeams teams of rosterSize players and sets each team's base projected points.
+	 * Throws IllegalStateException if the JVM was already set up with a different league, which happens if benchmarks are run without forking.
+	 */
+	public static synchronized void setup(int numTeams, int rosterSize, LineupShape shape) {
+		String key = numTeams + "/" + rosterSize + "/" + shape;
+		if (leagueKey != null) {
+			if (!leagueKey.equals(key)) {
+				throw new IllegalStateException("FantasyLeague was already set up for " + leagueKey + ", run benchmarks with at least 1 fork");
+			}
+			return;
+		}
+		SyntheticLeagueSettings settings = new SyntheticLeagueSettings();
+		settings.setSeed(SEED);
+		settings.setNumTeams(numTeams);
+		settings.setRosterSize(rosterSize);
+		settings.setLeaguePositions(getPositions(shape));
+		settings.setWeeks(FIRST_WEEK, LAST_WEEK);
+		SyntheticLeagueData leagueData = new SyntheticLeagueData(settings);
+		FantasyLeague.setupLeague(leagueData, new SyntheticProjections(leagueData));
+		for (Team team : FantasyLeague.getTeams()) {
+			team.setBaseProjectedPoints(getSeasonProjectedPoints(team));
+		}
+		leagueKey = key;
+	}
+
+	/*
+	 * Returns the projected points for the remainder of the season using a team's current roster, calculated the same way as TradeGenerator
+	 */
+	public static double getSeasonProjectedPoints(Team team) {
+		double total = 0.0;
+		int[] roster = team.getCurrentPlayerIndexes();
+		for (WeekProjections week : FantasyLeague.getWeeks()) {
+			WeekCalculator calculator = new WeekCalculator(week, roster, new ArrayList<Integer>());
+			total += calculator.getOptimizedProjectedPoints();
+		}
+		return total;
+	}
+
+	private static List<LeaguePosition> getPositions(LineupShape shape) {
+		List<LeaguePosition> positions = new ArrayList<LeaguePosition>();
+		positions.add(new LeaguePosition("QB1", Arrays.asList(Position.QB)));
+		positions.add(new LeaguePosition("WR1", Arrays.asList(Position.WR)));
+		positions.add(new LeaguePosition("WR2", Arrays.asList(Position.WR)));
+		positions.add(new LeaguePosition("RB1", Arrays.asList(Position.RB)));
+		positions.add(new LeaguePosition("RB2", Arrays.asList(Position.RB)));
+		positions.add(new LeaguePosition("TE1", Arrays.asList(Position.TE)));
+		if (shape != LineupShape.NO_FLEX) {
+			positions.add(new LeaguePosition("WR3", Arrays.asList(Position.WR)));
+			positions.add(new LeaguePosition("W/R/T1", Arrays.asList(Position.WR, Position.RB, Position.TE)));
+		}
+		if (shape == LineupShape.SUPERFLEX) {
+			positions.add(new LeaguePosition("Q/W/R/T1", Arrays.asList(Position.QB, Position.WR, Position.RB, Position.TE)));
+		}
+		positions.add(new LeaguePosition("DEF1", Arrays.asList(Position.DEF)));
+		return positions;
+	}
+}
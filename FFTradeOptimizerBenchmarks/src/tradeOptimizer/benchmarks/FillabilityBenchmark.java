@@ -0,0 +1,61 @@
+package tradeOptimizer.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tradeOptimizer.benchmarks.BenchmarkLeague.LineupShape;
+import tradeOptimizer.calc.PositionsFillableChecker;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.projections.PlayerProjection;
+
+/*
+ * Benchmarks for checking whether a roster can fill every league position
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FillabilityBenchmark {
+
+	@Param({"14", "25"})
+	public int rosterSize;
+
+	@Param({"STANDARD", "SUPERFLEX"})
+	public LineupShape shape;
+
+	private List<PlayerProjection> roster;
+	private List<PlayerProjection> shortRoster; //roster without its first quarter, which usually leaves a position unfilled
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkLeague.setup(2, rosterSize, shape);
+		int[] indexes = FantasyLeague.getTeams().get(0).getCurrentPlayerIndexes();
+		roster = FantasyLeague.getWeeks().get(0).getPlayersToUse(indexes);
+		shortRoster = roster.subList(roster.size() / 4, roster.size());
+	}
+
+	@Benchmark
+	public boolean fullRoster() {
+		return new PositionsFillableChecker(roster).allPositionsFilled();
+	}
+
+	@Benchmark
+	public int unfilledPositions() {
+		return new PositionsFillableChecker(shortRoster).getUnfilledPositions().size();
+	}
+}
@@ -0,0 +1,89 @@
+package tradeOptimizer.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tradeOptimizer.benchmarks.BenchmarkLeague.LineupShape;
+import tradeOptimizer.calc.OptimalLineupCalculator;
+import tradeOptimizer.calc.SlotClassLineupCalculator;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.LeaguePosition;
+import tradeOptimizer.projections.PlayerProjection;
+import tradeOptimizer.projections.WeekProjections;
+
+/*
+ * Benchmarks for calculating the optimal lineup of a single roster for one week
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LineupBenchmark {
+
+	@Param({"14", "20", "25"})
+	public int rosterSize;
+
+	@Param({"NO_FLEX", "STANDARD", "SUPERFLEX"})
+	public LineupShape shape;
+
+	private List<PlayerProjection> roster;
+	private List<LeaguePosition> positions;
+	private int[] sortedIndexes;
+	private double[] sortedProjections;
+	private OptimalLineupCalculator workspace;
+	private SlotClassLineupCalculator slotWorkspace;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkLeague.setup(2, rosterSize, shape);
+		WeekProjections week = FantasyLeague.getWeeks().get(0);
+		int[] indexes = FantasyLeague.getTeams().get(0).getCurrentPlayerIndexes();
+		roster = week.getPlayersToUse(indexes);
+		positions = FantasyLeague.getPositions();
+		sortedIndexes = new int[indexes.length];
+		sortedProjections = new double[indexes.length];
+		week.sortPlayers(indexes, indexes.length, sortedIndexes, sortedProjections);
+		workspace = new OptimalLineupCalculator(roster.size());
+		slotWorkspace = new SlotClassLineupCalculator(roster.size());
+	}
+
+	@Benchmark
+	public double hungarian() {
+		return new OptimalLineupCalculator(roster, positions).getOptimalProjPoints();
+	}
+
+	/*
+	 * Reuses one calculator's matrix and labels for every solve and passes the player index arrays, the way WeekCalculator's thread local workspace does
+	 */
+	@Benchmark
+	public double hungarianReused() {
+		workspace.reset(sortedIndexes, sortedProjections, sortedIndexes.length, positions);
+		return workspace.getOptimalProjPoints();
+	}
+
+	@Benchmark
+	public double slotClass() {
+		return new SlotClassLineupCalculator(roster, positions).getOptimalProjPoints();
+	}
+
+	@Benchmark
+	public double slotClassReused() {
+		slotWorkspace.reset(sortedIndexes, sortedProjections, sortedIndexes.length, positions);
+		return slotWorkspace.getOptimalProjPoints();
+	}
+}
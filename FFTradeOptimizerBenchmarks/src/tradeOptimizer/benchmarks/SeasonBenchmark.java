@@ -0,0 +1,51 @@
+package tradeOptimizer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tradeOptimizer.benchmarks.BenchmarkLeague.LineupShape;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.league.Team;
+
+/*
+ * Benchmark for calculating one team's projected points for every remaining week, including waiver players added for unfilled positions
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SeasonBenchmark {
+
+	@Param({"14", "20"})
+	public int rosterSize;
+
+	@Param({"STANDARD", "SUPERFLEX"})
+	public LineupShape shape;
+
+	private Team team;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkLeague.setup(2, rosterSize, shape);
+		team = FantasyLeague.getTeams().get(0);
+	}
+
+	@Benchmark
+	public double teamSeason() {
+		return BenchmarkLeague.getSeasonProjectedPoints(team);
+	}
+}
@@ -0,0 +1,51 @@
+package tradeOptimizer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tradeOptimizer.benchmarks.BenchmarkLeague.LineupShape;
+import tradeOptimizer.league.FantasyLeague;
+import tradeOptimizer.trades.TradeCalculator;
+
+/*
+ * Benchmark for evaluating every trade combination between one pair of teams, the bounds for each team are
+ * calculated by every sweep as they are when a TradeCalculator is used on its own
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeSweepBenchmark {
+
+	@Param({"14"})
+	public int rosterSize;
+
+	@Param({"STANDARD", "SUPERFLEX"})
+	public LineupShape shape;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkLeague.setup(2, rosterSize, shape);
+	}
+
+	@Benchmark
+	public TradeCalculator teamPair() {
+		TradeCalculator calculator = new TradeCalculator(FantasyLeague.getTeams().get(0), FantasyLeague.getTeams().get(1));
+		calculator.calculateTrades();
+		return calculator;
+	}
+}